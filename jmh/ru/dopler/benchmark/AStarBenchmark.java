@@ -0,0 +1,138 @@
+package ru.dopler.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.dopler.algorithms.AStar;
+import ru.dopler.cells.Wall;
+
+import java.awt.*;
+import java.util.concurrent.TimeUnit;
+
+// Байты на операцию показывает профилировщик gc: gradle jmh -Pjmh.args='AStarBenchmark -prof gc'
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class AStarBenchmark {
+
+    private static final int WEIGHT = 10;
+    private static final double DENSITY = 0.2;
+    private static final long SEED = 42;
+
+    @State(Scope.Thread)
+    public static class SearchState {
+
+        // Нечётные размеры: у лабиринта проходы лежат на нечётных координатах
+        @Param({"65", "257", "1025"})
+        public int size;
+
+        @Param({"open", "random", "maze", "rooms"})
+        public String map;
+
+        AStar alg;
+
+        @Setup
+        public void setUp () {
+            alg = new AStar(size, size, WEIGHT);
+            Maps.apply(alg, Maps.create(map, size, size, DENSITY, SEED), new Point(1, 1), new Point(size - 2, size - 2));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ResetState {
+
+        @Param({"65", "257", "1025"})
+        public int size;
+
+        AStar alg;
+
+        @Setup
+        public void setUp () {
+            alg = new AStar(size, size, WEIGHT);
+            Maps.apply(alg, Maps.randomObstacles(size, size, DENSITY, SEED), new Point(1, 1), new Point(size - 2, size - 2));
+        }
+
+        // Сбрасывается состояние настоящего поиска; сам поиск в замер не входит
+        @Setup(Level.Invocation)
+        public void search () {
+            alg.start();
+        }
+    }
+
+    // Цель отрезана стеной: поиск раскрывает всё поле и не восстанавливает путь
+    @State(Scope.Thread)
+    public static class ExpansionState {
+
+        @Param({"65", "257", "1025"})
+        public int size;
+
+        AStar alg;
+
+        @Setup
+        public void setUp () {
+            alg = new AStar(size, size, WEIGHT);
+            Point endCell = new Point(size / 2, size / 2);
+            alg.setStartCell(new Point(0, 0));
+            alg.setEndCell(endCell);
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dy = -1; dy <= 1; dy++) {
+                    if (dx != 0 || dy != 0) {
+                        alg.setCell(endCell.x + dx, endCell.y + dy, new Wall());
+                    }
+                }
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ReconstructionState {
+
+        @Param({"65", "257", "1025"})
+        public int size;
+
+        ReconstructingAStar alg;
+
+        @Setup
+        public void setUp () {
+            alg = new ReconstructingAStar(size, size, WEIGHT);
+            Maps.apply(alg, Maps.maze(size, size, SEED), new Point(1, 1), new Point(size - 2, size - 2));
+            alg.start();
+        }
+    }
+
+    @Benchmark
+    public int start (SearchState state) {
+        state.alg.reset();
+        state.alg.start();
+        return state.alg.getPathLength();
+    }
+
+    @Benchmark
+    public void reset (ResetState state) {
+        state.alg.reset();
+    }
+
+    @Benchmark
+    public boolean expansion (ExpansionState state) {
+        state.alg.reset();
+        state.alg.start();
+        return state.alg.isPathFind();
+    }
+
+    @Benchmark
+    public int reconstruction (ReconstructionState state) {
+        state.alg.reconstructPath();
+        return state.alg.getPathLength();
+    }
+
+    static class ReconstructingAStar extends AStar {
+
+        ReconstructingAStar (int width, int height, int weight) {
+            super(width, height, weight);
+        }
+
+        void reconstructPath () {
+            countPath();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package ru.dopler.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.dopler.algorithms.AStar;
+import ru.dopler.algorithms.AnytimeRepairingAStar;
+
+import java.awt.*;
+import java.util.concurrent.TimeUnit;
+
+// ARA*: время до первого пути и до доказанно оптимального; для сравнения - оптимальный A*
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AnytimeAStarBenchmark {
+
+    private static final int SIZE = 1025;
+    private static final int WEIGHT = 10;
+    private static final double DENSITY = 0.3;
+    private static final int STEPS_PER_CALL = 64;
+    private static final long SEED = 42;
+
+    @Param({"rooms", "random"})
+    public String map;
+
+    private AStar aStar;
+    private AnytimeRepairingAStar anytime;
+
+    @Setup
+    public void setUp () {
+        boolean[][] walls = Maps.create(map, SIZE, SIZE, DENSITY, SEED);
+        Point startCell = new Point(1, 1);
+        Point endCell = new Point(SIZE - 2, SIZE - 2);
+
+        aStar = new AStar(SIZE, SIZE, WEIGHT);
+        Maps.apply(aStar, walls, startCell, endCell);
+        anytime = new AnytimeRepairingAStar(SIZE, SIZE, WEIGHT);
+        Maps.apply(anytime, walls, startCell, endCell);
+    }
+
+    @Benchmark
+    public int optimalAStar () {
+        aStar.reset();
+        aStar.start();
+        return aStar.getPathLength();
+    }
+
+    @Benchmark
+    public int firstPath () {
+        anytime.reset();
+        anytime.begin();
+        while (anytime.step(STEPS_PER_CALL) && !anytime.getSnapshot().isPathFind()) {
+        }
+        return anytime.getSnapshot().getPathLength();
+    }
+
+    @Benchmark
+    public int complete () {
+        anytime.reset();
+        anytime.start();
+        return anytime.getPathLength();
+    }
+}
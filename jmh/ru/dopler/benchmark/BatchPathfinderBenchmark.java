@@ -0,0 +1,73 @@
+package ru.dopler.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.dopler.algorithms.AStar;
+import ru.dopler.algorithms.BatchPathfinder;
+import ru.dopler.algorithms.PathQuery;
+import ru.dopler.algorithms.PathResult;
+import ru.dopler.grid.Grid;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Пропускная способность в запросах в секунду; ответы сверяются с однопоточными
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class BatchPathfinderBenchmark {
+
+    private static final int SIZE = 512;
+    private static final double DENSITY = 0.2;
+    private static final int WEIGHT = 10;
+    private static final int QUERIES = 2000;
+    private static final long SEED = 42;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private List<PathQuery> queries;
+    private BatchPathfinder pathfinder;
+
+    @Setup
+    public void setUp () {
+        AStar alg = new AStar(SIZE, SIZE, WEIGHT);
+        Maps.apply(alg, Maps.randomObstacles(SIZE, SIZE, DENSITY, SEED), new Point(0, 0), new Point(SIZE - 1, SIZE - 1));
+        Grid grid = alg.getGrid();
+
+        Random random = new Random(SEED);
+        queries = new ArrayList<>();
+        for (int k = 0; k < QUERIES; k++) {
+            queries.add(new PathQuery(new Point(random.nextInt(SIZE), random.nextInt(SIZE)), new Point(random.nextInt(SIZE), random.nextInt(SIZE))));
+        }
+
+        pathfinder = new BatchPathfinder(grid, WEIGHT, threads);
+        BatchPathfinder reference = new BatchPathfinder(grid, WEIGHT, 1);
+        checkResults(reference.solve(queries), pathfinder.solve(queries));
+        reference.shutdown();
+    }
+
+    @TearDown
+    public void tearDown () {
+        pathfinder.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public List<PathResult> solve () {
+        return pathfinder.solve(queries);
+    }
+
+    private static void checkResults (List<PathResult> expectedResults, List<PathResult> results) {
+        for (int k = 0; k < expectedResults.size(); k++) {
+            if (expectedResults.get(k).getPathLength() != results.get(k).getPathLength()) {
+                throw new IllegalStateException("Parallel result differs for query " + k);
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package ru.dopler.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.dopler.algorithms.AStar;
+import ru.dopler.algorithms.Algorithm;
+import ru.dopler.algorithms.BidirectionalAStar;
+
+import java.awt.*;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BidirectionalAStarBenchmark {
+
+    private static final int SIZE = 513;
+    private static final int WEIGHT = 1;
+    private static final double DENSITY = 0.2;
+    private static final long SEED = 42;
+
+    @Param({"open", "random"})
+    public String map;
+
+    @Param({"astar", "bidirectional"})
+    public String algorithm;
+
+    private Algorithm alg;
+
+    @Setup
+    public void setUp () {
+        alg = "bidirectional".equals(algorithm) ? new BidirectionalAStar(SIZE, SIZE, WEIGHT) : new AStar(SIZE, SIZE, WEIGHT);
+        Maps.apply(alg, Maps.create(map, SIZE, SIZE, DENSITY, SEED), new Point(1, SIZE / 2), new Point(SIZE - 2, SIZE / 2));
+    }
+
+    @Benchmark
+    public int search () {
+        alg.reset();
+        alg.start();
+        return alg.getPathLength();
+    }
+}
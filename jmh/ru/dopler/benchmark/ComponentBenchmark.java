@@ -0,0 +1,119 @@
+package ru.dopler.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.dopler.algorithms.AStar;
+import ru.dopler.cells.EmptyCell;
+import ru.dopler.cells.Wall;
+import ru.dopler.grid.ConnectedComponents;
+
+import java.awt.*;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Запрос к замурованной цели: без индекса A* обходит всю достижимую область, с индексом отвечает сразу.
+// Отдельно - параллельное построение индекса и его обновление на одно изменение стены
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ComponentBenchmark {
+
+    private static final int SIZE = 1025;
+    private static final int WEIGHT = 10;
+    private static final double DENSITY = 0.3;
+    private static final long SEED = 42;
+
+    @State(Scope.Thread)
+    public static class QueryState {
+
+        @Param({"rooms", "random"})
+        public String map;
+
+        @Param({"none", "components"})
+        public String index;
+
+        AStar alg;
+
+        @Setup
+        public void setUp () {
+            alg = createWalledOffGoal(map);
+            if ("components".equals(index)) {
+                alg.setComponents(ConnectedComponents.build(alg.getGrid()));
+            }
+            alg.start();
+            if (alg.isPathFind()) {
+                throw new IllegalStateException("Walled-off goal was reached");
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class BuildState {
+
+        @Param({"rooms", "random"})
+        public String map;
+
+        @Param({"1", "2", "4"})
+        public int parallelism;
+
+        AStar alg;
+
+        @Setup
+        public void setUp () {
+            alg = createWalledOffGoal(map);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class UpdateState {
+
+        @Param({"rooms", "random"})
+        public String map;
+
+        AStar alg;
+        Random random;
+
+        @Setup
+        public void setUp () {
+            alg = createWalledOffGoal(map);
+            alg.setComponents(ConnectedComponents.build(alg.getGrid()));
+            random = new Random(SEED);
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public boolean query (QueryState state) {
+        state.alg.reset();
+        state.alg.start();
+        return state.alg.isPathFind();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public ConnectedComponents build (BuildState state) {
+        return ConnectedComponents.build(state.alg.getGrid(), state.parallelism);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void toggleWall (UpdateState state) {
+        int x = 1 + state.random.nextInt(SIZE - 2);
+        int y = 1 + state.random.nextInt(SIZE - 2);
+        state.alg.setCell(x, y, state.alg.getCell(x, y) instanceof Wall ? new EmptyCell() : new Wall());
+    }
+
+    private static AStar createWalledOffGoal (String map) {
+        Point endCell = new Point(SIZE / 2, SIZE / 2);
+        AStar alg = new AStar(SIZE, SIZE, WEIGHT);
+        Maps.apply(alg, Maps.create(map, SIZE, SIZE, DENSITY, SEED), new Point(1, 1), endCell);
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                if (dx != 0 || dy != 0) {
+                    alg.setCell(endCell.x + dx, endCell.y + dy, new Wall());
+                }
+            }
+        }
+        return alg;
+    }
+}
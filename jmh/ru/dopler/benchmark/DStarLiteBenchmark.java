@@ -0,0 +1,56 @@
+package ru.dopler.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.dopler.algorithms.AStar;
+import ru.dopler.algorithms.Algorithm;
+import ru.dopler.algorithms.DStarLite;
+import ru.dopler.cells.Wall;
+
+import java.awt.*;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Перепланирование после того, как на середине текущего пути появилась стена. Время - на одну правку;
+// начальный поиск идёт в подготовке и в замер не входит
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class DStarLiteBenchmark {
+
+    private static final int SIZE = 512;
+    private static final double DENSITY = 0.2;
+    private static final int WEIGHT = 10;
+    private static final int EDITS = 20;
+    private static final long SEED = 42;
+
+    @Param({"dstar", "astar"})
+    public String algorithm;
+
+    private Algorithm alg;
+
+    @Setup(Level.Invocation)
+    public void setUp () {
+        alg = "dstar".equals(algorithm) ? new DStarLite(SIZE, SIZE, WEIGHT) : new AStar(SIZE, SIZE, WEIGHT);
+        Maps.apply(alg, Maps.randomObstacles(SIZE, SIZE, DENSITY, SEED), new Point(1, 1), new Point(SIZE - 2, SIZE - 2));
+        alg.start();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EDITS)
+    public int replan () {
+        for (int edit = 0; edit < EDITS; edit++) {
+            Point blocked = pickPathCell(alg.getPath());
+            alg.setCell(blocked.x, blocked.y, new Wall());
+            alg.reset();
+            alg.start();
+        }
+        return alg.getPathLength();
+    }
+
+    private static Point pickPathCell (List<Point> path) {
+        return path.get(path.size() / 2);
+    }
+}
@@ -0,0 +1,96 @@
+package ru.dopler.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.dopler.algorithms.AStar;
+import ru.dopler.algorithms.Algorithm;
+import ru.dopler.algorithms.HierarchicalAStar;
+
+import java.awt.*;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Запросы между случайными свободными ячейками; первый запуск HPA* строит абстрактный граф и замеряется отдельно
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HierarchicalAStarBenchmark {
+
+    private static final double DENSITY = 0.2;
+    private static final int WEIGHT = 10;
+    private static final int QUERIES = 50;
+    private static final long SEED = 42;
+
+    @State(Scope.Thread)
+    public static class QueryState {
+
+        @Param({"256", "512", "1024"})
+        public int size;
+
+        @Param({"random", "rooms"})
+        public String map;
+
+        @Param({"astar", "hpa"})
+        public String algorithm;
+
+        Algorithm alg;
+        Point[][] queries;
+        int nextQuery = 0;
+
+        @Setup
+        public void setUp () {
+            boolean[][] walls = Maps.create(map, size, size, DENSITY, SEED);
+            Random random = new Random(SEED);
+            queries = new Point[QUERIES][];
+            for (int k = 0; k < QUERIES; k++) {
+                queries[k] = new Point[]{Maps.randomFreeCell(walls, random), Maps.randomFreeCell(walls, random)};
+            }
+
+            alg = "hpa".equals(algorithm) ? new HierarchicalAStar(size, size, WEIGHT) : new AStar(size, size, WEIGHT);
+            Maps.apply(alg, walls, queries[0][0], queries[0][1]);
+            alg.start();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class BuildState {
+
+        @Param({"256", "512", "1024"})
+        public int size;
+
+        @Param({"random", "rooms"})
+        public String map;
+
+        Algorithm alg;
+
+        @Setup(Level.Invocation)
+        public void setUp () {
+            boolean[][] walls = Maps.create(map, size, size, DENSITY, SEED);
+            Random random = new Random(SEED);
+            alg = new HierarchicalAStar(size, size, WEIGHT);
+            Maps.apply(alg, walls, Maps.randomFreeCell(walls, random), Maps.randomFreeCell(walls, random));
+        }
+    }
+
+    @Benchmark
+    public int query (QueryState state) {
+        Point[] query = state.queries[state.nextQuery];
+        state.nextQuery = (state.nextQuery + 1) % QUERIES;
+
+        state.alg.setStartCell(query[0]);
+        state.alg.setEndCell(query[1]);
+        state.alg.reset();
+        state.alg.start();
+        return state.alg.getPathLength();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 10)
+    public int build (BuildState state) {
+        state.alg.start();
+        return state.alg.getPathLength();
+    }
+}
@@ -0,0 +1,43 @@
+package ru.dopler.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.dopler.algorithms.AStar;
+import ru.dopler.algorithms.Algorithm;
+import ru.dopler.algorithms.JumpPointSearch;
+
+import java.awt.*;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JumpPointSearchBenchmark {
+
+    private static final int SIZE = 513;
+    private static final int WEIGHT = 1;
+    private static final long SEED = 42;
+
+    @Param({"open", "maze"})
+    public String map;
+
+    @Param({"astar", "jps"})
+    public String algorithm;
+
+    private Algorithm alg;
+
+    @Setup
+    public void setUp () {
+        alg = "jps".equals(algorithm) ? new JumpPointSearch(SIZE, SIZE, WEIGHT) : new AStar(SIZE, SIZE, WEIGHT);
+        Maps.apply(alg, Maps.create(map, SIZE, SIZE, 0, SEED), new Point(1, 1), new Point(SIZE - 2, SIZE - 2));
+    }
+
+    @Benchmark
+    public int search () {
+        alg.reset();
+        alg.start();
+        return alg.getPathLength();
+    }
+}
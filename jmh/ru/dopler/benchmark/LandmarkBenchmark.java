@@ -0,0 +1,104 @@
+package ru.dopler.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.dopler.algorithms.AStar;
+import ru.dopler.algorithms.LandmarkHeuristic;
+
+import java.awt.*;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// A* с октильной оценкой (0 ориентиров) против ALT на одних и тех же случайных запросах; длины путей
+// сверяются с октильными при подготовке
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LandmarkBenchmark {
+
+    private static final int SIZE = 513;
+    private static final int WEIGHT = 10;
+    private static final double DENSITY = 0.3;
+    private static final int QUERIES = 50;
+    private static final long SEED = 42;
+
+    @State(Scope.Thread)
+    public static class QueryState {
+
+        @Param({"maze", "rooms", "random"})
+        public String map;
+
+        @Param({"0", "4", "8", "16"})
+        public int landmarks;
+
+        AStar alg;
+        Point[][] queries;
+        int nextQuery = 0;
+
+        @Setup
+        public void setUp () {
+            boolean[][] walls = Maps.create(map, SIZE, SIZE, DENSITY, SEED);
+            Random random = new Random(SEED);
+            queries = new Point[QUERIES][];
+            for (int k = 0; k < QUERIES; k++) {
+                queries[k] = new Point[]{Maps.randomFreeCell(walls, random), Maps.randomFreeCell(walls, random)};
+            }
+
+            alg = new AStar(SIZE, SIZE, WEIGHT);
+            Maps.apply(alg, walls, new Point(1, 1), new Point(SIZE - 2, SIZE - 2));
+            if (landmarks == 0) {
+                return;
+            }
+
+            int[] expectedLengths = new int[QUERIES];
+            for (int k = 0; k < QUERIES; k++) {
+                expectedLengths[k] = search(alg, queries[k]);
+            }
+            alg.setLandmarks(LandmarkHeuristic.build(alg.getGrid(), landmarks));
+            for (int k = 0; k < QUERIES; k++) {
+                if (search(alg, queries[k]) != expectedLengths[k]) {
+                    throw new IllegalStateException("ALT path length differs for query " + k);
+                }
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class BuildState {
+
+        @Param({"maze", "rooms", "random"})
+        public String map;
+
+        @Param({"4", "8", "16"})
+        public int landmarks;
+
+        AStar alg;
+
+        @Setup
+        public void setUp () {
+            alg = new AStar(SIZE, SIZE, WEIGHT);
+            Maps.apply(alg, Maps.create(map, SIZE, SIZE, DENSITY, SEED), new Point(1, 1), new Point(SIZE - 2, SIZE - 2));
+        }
+    }
+
+    @Benchmark
+    public int query (QueryState state) {
+        Point[] query = state.queries[state.nextQuery];
+        state.nextQuery = (state.nextQuery + 1) % QUERIES;
+        return search(state.alg, query);
+    }
+
+    @Benchmark
+    public LandmarkHeuristic build (BuildState state) {
+        return LandmarkHeuristic.build(state.alg.getGrid(), state.landmarks);
+    }
+
+    private static int search (AStar alg, Point[] query) {
+        alg.setStartCell(query[0]);
+        alg.setEndCell(query[1]);
+        alg.reset();
+        alg.start();
+        return alg.getPathLength();
+    }
+}
@@ -0,0 +1,173 @@
+package ru.dopler.benchmark;
+
+import ru.dopler.algorithms.Algorithm;
+import ru.dopler.cells.Wall;
+import ru.dopler.grid.TiledWallLayer;
+
+import java.awt.*;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+
+public class Maps {
+
+    private static final int[] MAZE_OFFSETS_X = {0, 2, 0, -2};
+    private static final int[] MAZE_OFFSETS_Y = {-2, 0, 2, 0};
+
+    private Maps () {
+    }
+
+    // Карта по имени из @Param: open, random, maze или rooms; density нужна только случайной
+    public static boolean[][] create (String name, int width, int height, double density, long seed) {
+        switch (name) {
+            case "open":
+                return open(width, height);
+            case "random":
+                return randomObstacles(width, height, density, seed);
+            case "maze":
+                return maze(width, height, seed);
+            case "rooms":
+                return rooms(width, height, seed);
+            default:
+                throw new IllegalArgumentException("Unknown map: " + name);
+        }
+    }
+
+    public static boolean[][] open (int width, int height) {
+        return new boolean[width][height];
+    }
+
+    public static boolean[][] randomObstacles (int width, int height, double density, long seed) {
+        Random random = new Random(seed);
+        boolean[][] walls = new boolean[width][height];
+        for (int i = 0; i < width; i++) {
+            for (int j = 0; j < height; j++) {
+                walls[i][j] = random.nextDouble() < density;
+            }
+        }
+        return walls;
+    }
+
+    // Лабиринт с коридорами шириной в одну ячейку, проходы лежат на нечётных координатах
+    public static boolean[][] maze (int width, int height, long seed) {
+        Random random = new Random(seed);
+        boolean[][] walls = new boolean[width][height];
+        for (int i = 0; i < width; i++) {
+            for (int j = 0; j < height; j++) {
+                walls[i][j] = true;
+            }
+        }
+
+        Deque<Point> stack = new ArrayDeque<>();
+        walls[1][1] = false;
+        stack.push(new Point(1, 1));
+
+        int[] order = {0, 1, 2, 3};
+        while (!stack.isEmpty()) {
+            Point cell = stack.peek();
+            shuffle(order, random);
+
+            boolean isCarved = false;
+            for (int k : order) {
+                int x = cell.x + MAZE_OFFSETS_X[k];
+                int y = cell.y + MAZE_OFFSETS_Y[k];
+                if (x > 0 && y > 0 && x < width - 1 && y < height - 1 && walls[x][y]) {
+                    walls[(cell.x + x) / 2][(cell.y + y) / 2] = false;
+                    walls[x][y] = false;
+                    stack.push(new Point(x, y));
+                    isCarved = true;
+                    break;
+                }
+            }
+            if (!isCarved) {
+                stack.pop();
+            }
+        }
+        return walls;
+    }
+
+    // Комнаты 16x16, соединённые проёмами в стенах
+    public static boolean[][] rooms (int width, int height, long seed) {
+        final int roomSize = 16;
+        Random random = new Random(seed);
+        boolean[][] walls = new boolean[width][height];
+
+        for (int i = 0; i < width; i += roomSize) {
+            for (int j = 0; j < height; j++) {
+                walls[i][j] = true;
+            }
+        }
+        for (int j = 0; j < height; j += roomSize) {
+            for (int i = 0; i < width; i++) {
+                walls[i][j] = true;
+            }
+        }
+
+        for (int i = 0; i < width; i += roomSize) {
+            for (int j = 0; j < height; j += roomSize) {
+                int doorY = j + 1 + random.nextInt(roomSize - 2);
+                int doorX = i + 1 + random.nextInt(roomSize - 2);
+                if (doorY < height) {
+                    walls[i][doorY] = false;
+                }
+                if (doorX < width) {
+                    walls[doorX][j] = false;
+                }
+            }
+        }
+        return walls;
+    }
+
+    // Большой мир из пустых прямоугольных зданий без входа: короткий путь часто упирается в тупики
+    public static TiledWallLayer buildings (int size, int count, int maxBuildingSize, long seed) {
+        Random random = new Random(seed);
+        TiledWallLayer walls = new TiledWallLayer(size, size);
+        for (int k = 0; k < count; k++) {
+            int x = random.nextInt(size - maxBuildingSize);
+            int y = random.nextInt(size - maxBuildingSize);
+            int width = 2 + random.nextInt(maxBuildingSize - 2);
+            int height = 2 + random.nextInt(maxBuildingSize - 2);
+            for (int i = x; i < x + width; i++) {
+                walls.setWall(i, y, true);
+                walls.setWall(i, y + height - 1, true);
+            }
+            for (int j = y; j < y + height; j++) {
+                walls.setWall(x, j, true);
+                walls.setWall(x + width - 1, j, true);
+            }
+        }
+        return walls;
+    }
+
+    public static void apply (Algorithm alg, boolean[][] walls, Point startCell, Point endCell) {
+        alg.setStartCell(startCell);
+        alg.setEndCell(endCell);
+
+        for (int i = 0; i < walls.length; i++) {
+            for (int j = 0; j < walls[i].length; j++) {
+                if (walls[i][j]) {
+                    alg.setCell(i, j, new Wall());
+                }
+            }
+        }
+    }
+
+    public static Point randomFreeCell (boolean[][] walls, Random random) {
+        while (true) {
+            int x = random.nextInt(walls.length);
+            int y = random.nextInt(walls[0].length);
+            if (!walls[x][y]) {
+                return new Point(x, y);
+            }
+        }
+    }
+
+    private static void shuffle (int[] values, Random random) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+    }
+}
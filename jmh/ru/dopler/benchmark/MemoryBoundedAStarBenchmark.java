@@ -0,0 +1,103 @@
+package ru.dopler.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.dopler.algorithms.AStar;
+import ru.dopler.algorithms.HashedBinaryHeap;
+import ru.dopler.algorithms.MemoryBoundedAStar;
+import ru.dopler.grid.ConnectedComponents;
+import ru.dopler.grid.TiledGrid;
+import ru.dopler.grid.TiledWallLayer;
+
+import java.awt.*;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// SMA* на большом мире с разными лимитами памяти против A* на тайловой сетке. Операция включает создание
+// поиска вместе с пулом узлов, поэтому профилировщик gc показывает всю память запроса; длины путей
+// сверяются с A* при подготовке
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MemoryBoundedAStarBenchmark {
+
+    private static final int SIZE = 10000;
+    private static final int BUILDINGS = 30000;
+    private static final int MAX_BUILDING_SIZE = 24;
+    private static final int WEIGHT = 10;
+    private static final int QUERIES = 3;
+    private static final int QUERY_DISTANCE = 600;
+    private static final long SEED = 42;
+
+    // 0 - A* без ограничения памяти
+    @Param({"0", "16", "4", "2"})
+    public int limitMb;
+
+    private TiledWallLayer walls;
+    private ConnectedComponents components;
+    private Point[][] queries;
+    private int nextQuery = 0;
+
+    @Setup
+    public void setUp () {
+        walls = Maps.buildings(SIZE, BUILDINGS, MAX_BUILDING_SIZE, SEED);
+        components = ConnectedComponents.build(new TiledGrid(walls));
+        queries = pickQueries();
+
+        if (limitMb == 0) {
+            return;
+        }
+        for (Point[] query : queries) {
+            AStar aStar = new AStar(new TiledGrid(walls), WEIGHT, new HashedBinaryHeap());
+            aStar.setStartCell(query[0]);
+            aStar.setEndCell(query[1]);
+            aStar.start();
+            if (search(query) != aStar.getPathLength()) {
+                throw new IllegalStateException("SMA* path length differs from A*");
+            }
+        }
+    }
+
+    @Benchmark
+    public int query () {
+        Point[] query = queries[nextQuery];
+        nextQuery = (nextQuery + 1) % QUERIES;
+        return search(query);
+    }
+
+    private int search (Point[] query) {
+        if (limitMb == 0) {
+            AStar alg = new AStar(new TiledGrid(walls), WEIGHT, new HashedBinaryHeap());
+            alg.setStartCell(query[0]);
+            alg.setEndCell(query[1]);
+            alg.start();
+            return alg.getPathLength();
+        }
+
+        MemoryBoundedAStar alg = new MemoryBoundedAStar(new TiledGrid(walls), WEIGHT, (long) limitMb << 20);
+        alg.setComponents(components);
+        alg.setStartCell(query[0]);
+        alg.setEndCell(query[1]);
+        alg.start();
+        return alg.getPathLength();
+    }
+
+    private Point[][] pickQueries () {
+        Random random = new Random(SEED + 1);
+        Point[][] queries = new Point[QUERIES][];
+        for (int query = 0; query < QUERIES; query++) {
+            while (true) {
+                Point startCell = new Point(random.nextInt(SIZE - QUERY_DISTANCE), random.nextInt(SIZE - QUERY_DISTANCE));
+                Point endCell = new Point(startCell.x + QUERY_DISTANCE, startCell.y + random.nextInt(QUERY_DISTANCE));
+                if (!walls.isWall(startCell.x, startCell.y) && !walls.isWall(endCell.x, endCell.y)
+                        && components.isConnected(startCell.y * SIZE + startCell.x, endCell.y * SIZE + endCell.x)) {
+                    queries[query] = new Point[]{startCell, endCell};
+                    break;
+                }
+            }
+        }
+        return queries;
+    }
+}
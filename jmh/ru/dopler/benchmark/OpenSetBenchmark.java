@@ -0,0 +1,61 @@
+package ru.dopler.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.dopler.algorithms.AStar;
+import ru.dopler.algorithms.Algorithm;
+import ru.dopler.algorithms.BucketQueue;
+import ru.dopler.algorithms.HashedBinaryHeap;
+import ru.dopler.algorithms.IndexedBinaryHeap;
+import ru.dopler.algorithms.LinearOpenSet;
+import ru.dopler.algorithms.OpenSet;
+
+import java.awt.*;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OpenSetBenchmark {
+
+    private static final int WEIGHT = 1;
+
+    @Param({"100", "200", "400"})
+    public int size;
+
+    @Param({"linear", "indexed", "hashed", "bucket"})
+    public String openSet;
+
+    private Algorithm alg;
+
+    @Setup
+    public void setUp () {
+        alg = new AStar(size, size, WEIGHT, createOpenSet());
+        alg.setStartCell(new Point(0, 0));
+        alg.setEndCell(new Point(size - 1, size - 1));
+    }
+
+    @Benchmark
+    public int search () {
+        alg.reset();
+        alg.start();
+        return alg.getPathLength();
+    }
+
+    private OpenSet createOpenSet () {
+        switch (openSet) {
+            case "linear":
+                return new LinearOpenSet(size * size);
+            case "indexed":
+                return new IndexedBinaryHeap(size * size);
+            case "hashed":
+                return new HashedBinaryHeap();
+            case "bucket":
+                return new BucketQueue(size * size);
+            default:
+                throw new IllegalArgumentException("Unknown open set: " + openSet);
+        }
+    }
+}
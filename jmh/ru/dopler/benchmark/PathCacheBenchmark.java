@@ -0,0 +1,76 @@
+package ru.dopler.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.dopler.algorithms.AStar;
+import ru.dopler.algorithms.CachedAlgorithm;
+import ru.dopler.algorithms.PathCache;
+import ru.dopler.cells.Wall;
+
+import java.awt.*;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Одна операция - вся серия запросов с правками карты; кэш и карта на каждую серию новые
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PathCacheBenchmark {
+
+    private static final int SIZE = 256;
+    private static final double DENSITY = 0.2;
+    private static final int WEIGHT = 10;
+    private static final int PAIRS = 64;
+    private static final int QUERIES = 5000;
+    private static final int QUERIES_PER_EDIT = 250;
+    private static final int CACHE_CAPACITY = 128;
+    private static final long SEED = 42;
+
+    @Param({"full", "selective"})
+    public String invalidation;
+
+    private boolean[][] walls;
+    private Random random;
+    private Point[] starts;
+    private Point[] ends;
+    private CachedAlgorithm alg;
+
+    @Setup(Level.Invocation)
+    public void setUp () {
+        walls = Maps.randomObstacles(SIZE, SIZE, DENSITY, SEED);
+        random = new Random(SEED);
+        starts = new Point[PAIRS];
+        ends = new Point[PAIRS];
+        for (int k = 0; k < PAIRS; k++) {
+            starts[k] = Maps.randomFreeCell(walls, random);
+            ends[k] = Maps.randomFreeCell(walls, random);
+        }
+
+        AStar aStar = new AStar(SIZE, SIZE, WEIGHT);
+        Maps.apply(aStar, walls, starts[0], ends[0]);
+        alg = new CachedAlgorithm(aStar, WEIGHT, new PathCache(CACHE_CAPACITY), "selective".equals(invalidation));
+    }
+
+    @Benchmark
+    public int queries () {
+        int totalLength = 0;
+        for (int k = 0; k < QUERIES; k++) {
+            if (k > 0 && k % QUERIES_PER_EDIT == 0) {
+                Point wall = Maps.randomFreeCell(walls, random);
+                walls[wall.x][wall.y] = true;
+                alg.setCell(wall.x, wall.y, new Wall());
+            }
+
+            // Пары запрашиваются неравномерно: первые встречаются чаще
+            int pair = (int) (PAIRS * Math.pow(random.nextDouble(), 2));
+            alg.setStartCell(starts[pair]);
+            alg.setEndCell(ends[pair]);
+            alg.reset();
+            alg.start();
+            totalLength += alg.getPathLength();
+        }
+        return totalLength;
+    }
+}
@@ -0,0 +1,57 @@
+package ru.dopler.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.dopler.algorithms.AStar;
+import ru.dopler.algorithms.Algorithm;
+import ru.dopler.algorithms.SearchScheduler;
+
+import java.awt.*;
+import java.util.concurrent.TimeUnit;
+
+// Накладные расходы планировщика: поиск на полной скорости порциями в его потоке против прямого start()
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SearchSchedulerBenchmark {
+
+    private static final int SIZE = 257;
+    private static final int WEIGHT = 10;
+    private static final double DENSITY = 0.2;
+    private static final long SEED = 42;
+    private static final int TICK_MS = 15;
+
+    private Algorithm alg;
+    private SearchScheduler scheduler;
+
+    @Setup
+    public void setUp () {
+        alg = new AStar(SIZE, SIZE, WEIGHT);
+        Maps.apply(alg, Maps.randomObstacles(SIZE, SIZE, DENSITY, SEED), new Point(1, 1), new Point(SIZE - 2, SIZE - 2));
+        scheduler = new SearchScheduler(TICK_MS);
+    }
+
+    @TearDown
+    public void tearDown () {
+        scheduler.shutdown();
+    }
+
+    @Benchmark
+    public int start () {
+        alg.reset();
+        alg.start();
+        return alg.getPathLength();
+    }
+
+    @Benchmark
+    public int scheduledFullSpeed () {
+        alg.reset();
+        scheduler.run(alg, SearchScheduler.FULL_SPEED);
+        while (alg.isProcess() || !alg.isPathFind()) {
+            Thread.yield();
+        }
+        return alg.getPathLength();
+    }
+}
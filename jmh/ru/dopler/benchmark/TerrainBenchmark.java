@@ -0,0 +1,148 @@
+package ru.dopler.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.dopler.algorithms.AStar;
+import ru.dopler.algorithms.BucketQueue;
+import ru.dopler.algorithms.HashedBinaryHeap;
+import ru.dopler.algorithms.IndexedBinaryHeap;
+import ru.dopler.algorithms.OpenSet;
+import ru.dopler.grid.TerrainLayer;
+
+import java.awt.*;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Местность с дорогами, склонами и болотами: одни и те же запросы с разными открытыми списками.
+// Длины путей сверяются с индексированной кучей при подготовке
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TerrainBenchmark {
+
+    private static final int SIZE = 1025;
+    private static final int WEIGHT = 10;
+    private static final int QUERIES = 10;
+    private static final long SEED = 42;
+
+    private static final int ROAD_COST = 1;
+    private static final int PLAIN_COST = 3;
+    private static final int SLOPE_COST = 5;
+    private static final int SWAMP_COST = 12;
+    private static final int ROAD_SPACING = 128;
+    private static final int PATCHES = 400;
+    private static final int MAX_PATCH_RADIUS = 40;
+
+    @Param({"indexed", "hashed", "bucket"})
+    public String openSet;
+
+    private AStar alg;
+    private Point[][] queries;
+    private int nextQuery = 0;
+
+    @Setup
+    public void setUp () {
+        boolean[][] walls = Maps.randomObstacles(SIZE, SIZE, 0.1, SEED);
+        TerrainLayer terrain = createTerrain(walls);
+        queries = pickQueries(walls);
+
+        AStar reference = createAlgorithm(new IndexedBinaryHeap(SIZE * SIZE), walls, terrain);
+        alg = createAlgorithm(createOpenSet(), walls, terrain);
+        for (int k = 0; k < QUERIES; k++) {
+            if (search(alg, queries[k]) != search(reference, queries[k])) {
+                throw new IllegalStateException("Path length differs for query " + k);
+            }
+        }
+    }
+
+    @Benchmark
+    public int query () {
+        Point[] query = queries[nextQuery];
+        nextQuery = (nextQuery + 1) % QUERIES;
+        return search(alg, query);
+    }
+
+    private OpenSet createOpenSet () {
+        switch (openSet) {
+            case "indexed":
+                return new IndexedBinaryHeap(SIZE * SIZE);
+            case "hashed":
+                return new HashedBinaryHeap();
+            case "bucket":
+                return new BucketQueue(SIZE * SIZE);
+            default:
+                throw new IllegalArgumentException("Unknown open set: " + openSet);
+        }
+    }
+
+    private AStar createAlgorithm (OpenSet openSet, boolean[][] walls, TerrainLayer terrain) {
+        AStar alg = new AStar(SIZE, SIZE, WEIGHT, openSet);
+        Maps.apply(alg, walls, queries[0][0], queries[0][1]);
+        alg.setTerrain(terrain);
+        return alg;
+    }
+
+    private static int search (AStar alg, Point[] query) {
+        alg.setStartCell(query[0]);
+        alg.setEndCell(query[1]);
+        alg.reset();
+        alg.start();
+        return alg.getPathLength();
+    }
+
+    // Равнина с пятнами склонов и болот, поверх - сетка дорог
+    private static TerrainLayer createTerrain (boolean[][] walls) {
+        Random random = new Random(SEED);
+        TerrainLayer terrain = new TerrainLayer(SIZE, SIZE);
+        for (int x = 0; x < SIZE; x++) {
+            for (int y = 0; y < SIZE; y++) {
+                terrain.setCost(x, y, PLAIN_COST);
+            }
+        }
+
+        for (int patch = 0; patch < PATCHES; patch++) {
+            int cost = random.nextBoolean() ? SLOPE_COST : SWAMP_COST;
+            int centerX = random.nextInt(SIZE);
+            int centerY = random.nextInt(SIZE);
+            int radius = 1 + random.nextInt(MAX_PATCH_RADIUS);
+            for (int x = Math.max(0, centerX - radius); x < Math.min(SIZE, centerX + radius); x++) {
+                for (int y = Math.max(0, centerY - radius); y < Math.min(SIZE, centerY + radius); y++) {
+                    if ((x - centerX) * (x - centerX) + (y - centerY) * (y - centerY) < radius * radius) {
+                        terrain.setCost(x, y, cost);
+                    }
+                }
+            }
+        }
+
+        for (int line = ROAD_SPACING / 2; line < SIZE; line += ROAD_SPACING) {
+            for (int k = 0; k < SIZE; k++) {
+                terrain.setCost(line, k, ROAD_COST);
+                terrain.setCost(k, line, ROAD_COST);
+                walls[line][k] = false;
+                walls[k][line] = false;
+            }
+        }
+        return terrain;
+    }
+
+    private static Point[][] pickQueries (boolean[][] walls) {
+        Random random = new Random(SEED + 1);
+        Point[][] queries = new Point[QUERIES][];
+        for (int k = 0; k < QUERIES; k++) {
+            queries[k] = new Point[]{pickWalkable(walls, random, 0), pickWalkable(walls, random, SIZE / 2)};
+        }
+        return queries;
+    }
+
+    private static Point pickWalkable (boolean[][] walls, Random random, int fromX) {
+        while (true) {
+            int x = fromX + random.nextInt(SIZE / 2);
+            int y = random.nextInt(SIZE);
+            if (!walls[x][y]) {
+                return new Point(x, y);
+            }
+        }
+    }
+}
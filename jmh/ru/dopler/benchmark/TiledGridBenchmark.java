@@ -0,0 +1,60 @@
+package ru.dopler.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.dopler.algorithms.AStar;
+import ru.dopler.algorithms.HashedBinaryHeap;
+import ru.dopler.grid.TiledGrid;
+
+import java.awt.*;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Поиск на почти пустом мире 40000x40000: плотной сетке понадобилось бы около 29 байт на ячейку, тайловой
+// нужны только тайлы со стенами и тайлы, которых коснулся поиск. Сколько их заводится на запрос, видно
+// по профилировщику gc
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TiledGridBenchmark {
+
+    private static final int SIZE = 40000;
+    private static final int BUILDINGS = 20000;
+    private static final int MAX_BUILDING_SIZE = 24;
+    private static final int WEIGHT = 10;
+    private static final int QUERIES = 5;
+    private static final int QUERY_DISTANCE = 1500;
+    private static final long SEED = 42;
+
+    private AStar alg;
+    private Point[][] queries;
+    private int nextQuery = 0;
+
+    @Setup
+    public void setUp () {
+        alg = new AStar(new TiledGrid(Maps.buildings(SIZE, BUILDINGS, MAX_BUILDING_SIZE, SEED)), WEIGHT, new HashedBinaryHeap());
+
+        Random random = new Random(SEED);
+        queries = new Point[QUERIES][];
+        for (int k = 0; k < QUERIES; k++) {
+            Point startCell = new Point(QUERY_DISTANCE + random.nextInt(SIZE - 2 * QUERY_DISTANCE),
+                    QUERY_DISTANCE + random.nextInt(SIZE - 2 * QUERY_DISTANCE));
+            Point endCell = new Point(startCell.x + QUERY_DISTANCE, startCell.y + random.nextInt(QUERY_DISTANCE));
+            queries[k] = new Point[]{startCell, endCell};
+        }
+    }
+
+    @Benchmark
+    public int query () {
+        Point[] query = queries[nextQuery];
+        nextQuery = (nextQuery + 1) % QUERIES;
+
+        alg.reset();
+        alg.setStartCell(query[0]);
+        alg.setEndCell(query[1]);
+        alg.start();
+        return alg.getPathLength();
+    }
+}
@@ -1,401 +1,161 @@
 package ru.dopler.algorithms;
 
-import ru.dopler.cells.*;
+import ru.dopler.grid.Grid;
+import ru.dopler.grid.TerrainLayer;
 
-import java.awt.*;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+public class AStar extends GridAlgorithm {
 
-public class AStar implements Algorithm {
+    private static final int[] DIRECT_OFFSETS_X = {0, -1, 1, 0};
+    private static final int[] DIRECT_OFFSETS_Y = {-1, 0, 0, 1};
+    private static final int[] DIAGONAL_OFFSETS_X = {-1, 1, -1, 1};
+    private static final int[] DIAGONAL_OFFSETS_Y = {-1, -1, 1, 1};
 
-    private static final int DIRECT_TRANSFER = 10;
-    private static final int DIAGONAL_TRANSFER = 14;
+    private volatile OpenSet openedCells;
 
-    private long delayValue = 0;
-
-    private volatile List<Point> openedCells;
-
-    private int width;
-    private int height;
-
-    private int weight;
-
-    private Point startCell;
-    private Point endCell;
-
-    private volatile Cell[][] field;
-
-    private boolean isProcess = false;
-    private boolean isPathFind = false;
-
-    private List<Point> path;
-    private int pathLength = 0;
+    private volatile TerrainLayer terrain = null;
 
     public AStar (int width, int height, int weight) {
-        this.width = width;
-        this.height = height;
-        this.weight = weight;
-        field = new Cell[width][height];
-        path = new ArrayList<>();
-
-        initField();
-        initAlgorithm();
+        this(width, height, weight, new IndexedBinaryHeap(width * height));
     }
 
-    private void initField () {
-        for (int i = 0; i < width; i++) {
-            for (int j = 0; j < height; j++) {
-                field[i][j] = new EmptyCell();
-            }
-        }
-
-        startCell = new Point(1, height / 2);
-        endCell = new Point(width - 2, height / 2);
-
-        StartCell startFieldCell = new StartCell();
-        startFieldCell.setG(0);
-        startFieldCell.setH(countH(startCell));
-
-        EndCell endFieldCell = new EndCell();
-        endFieldCell.setG(countG(startCell));
-        endFieldCell.setH(0);
+    public AStar (int width, int height, int weight, OpenSet openedCells) {
+        super(width, height, weight);
+        this.openedCells = openedCells;
+    }
 
-        field[startCell.x][startCell.y] = startFieldCell;
-        field[endCell.x][endCell.y] = endFieldCell;
+    public AStar (Grid grid, int weight) {
+        this(grid, weight, new IndexedBinaryHeap(grid.size()));
     }
 
-    private void initAlgorithm () {
-        openedCells = new ArrayList<>();
+    public AStar (Grid grid, int weight, OpenSet openedCells) {
+        super(grid, weight);
+        this.openedCells = openedCells;
     }
 
     @Override
-    public void start () {
-        isProcess = true;
-
-        if (startAlgorithm()) {
-            countPath();
-            isPathFind = true;
-
-        } else {
-            isPathFind = false;
-        }
-
-        isProcess = false;
+    protected void initAlgorithm () {
+        int startIndex = toIndex(startCell);
+        grid.setG(startIndex, 0);
+        addToOpenedCells(startIndex, 0);
     }
 
-    private void countPath () {
-        Point currentCell = endCell;
-        path.add(currentCell);
-
-        while (!(field[currentCell.x][currentCell.y] instanceof StartCell)) {
-            Point parentCell = field[currentCell.x][currentCell.y].getParent();
-
-            if (currentCell.x == parentCell.x || currentCell.y == parentCell.y) {
-                pathLength += DIRECT_TRANSFER;
-            } else {
-                pathLength += DIAGONAL_TRANSFER;
-            }
+    @Override
+    protected int stepAlgorithm () {
+        statistics.beginSelection();
+        int selectedCell = openedCells.poll();
+        statistics.beginExpansion();
 
-            currentCell = parentCell;
+        addToClosedCells(selectedCell);
 
-            path.add(currentCell);
+        // Финиш попадает в открытый список только на местности с весами
+        if (selectedCell == toIndex(endCell)) {
+            statistics.endExpansion(openedCells.size());
+            return STEP_PATH_FOUND;
         }
-    }
-
-    private boolean startAlgorithm () {
-        addToOpenedCells(startCell);
-        while (true) {
-            int selectedCellIndex = getNextCellIndex();
-            Point selectedCell = openedCells.get(selectedCellIndex);
 
-            removeFromOpenedCells(selectedCellIndex);
-            addToClosedCells(selectedCell);
-
-            if (processAdjoiningCells(selectedCell)) {
-                return true;
-            }
-
-            if (openedCells.isEmpty()) {
-                return false;
-            }
-            delay();
+        boolean isEndReached = processAdjoiningCells(selectedCell);
+        statistics.endExpansion(openedCells.size());
+        if (isEndReached) {
+            return STEP_PATH_FOUND;
         }
-    }
 
-    private void removeFromOpenedCells (int selectedCellIndex) {
-        openedCells.remove(selectedCellIndex);
+        return openedCells.isEmpty() ? STEP_NO_PATH : STEP_RUNNING;
     }
 
-    private boolean processAdjoiningCells (Point selectedCell) {
-        java.util.List<Point> adjoiningCells = getAdjoiningCells(selectedCell);
-        for (Point adjoiningCell : adjoiningCells) {
-            if (field[adjoiningCell.x][adjoiningCell.y] instanceof EndCell) {
-                field[adjoiningCell.x][adjoiningCell.y].setParent(selectedCell);
-                return true;
-            }
-            countF(adjoiningCell);
-            if (isCellOpened(adjoiningCell)) {
-                int adjoiningCellG = ((EmptyCell) field[adjoiningCell.x][adjoiningCell.y]).getG();
-                int selectedCellG = ((EmptyCell) field[selectedCell.x][selectedCell.y]).getG();
-
-                int transferG;
-                if (adjoiningCell.x == selectedCell.x || adjoiningCell.y == selectedCell.y) {
-                    transferG = DIRECT_TRANSFER;
-                } else {
-                    transferG = DIAGONAL_TRANSFER;
-                }
+    private boolean processAdjoiningCells (int selectedCell) {
+        int x = grid.x(selectedCell);
+        int y = grid.y(selectedCell);
+        int selectedCellG = grid.getG(selectedCell);
+        TerrainLayer currentTerrain = terrain;
 
-                int summaryG = selectedCellG + transferG;
+        for (int k = 0; k < DIRECT_OFFSETS_X.length; k++) {
+            int adjoiningX = x + DIRECT_OFFSETS_X[k];
+            int adjoiningY = y + DIRECT_OFFSETS_Y[k];
 
-                if (summaryG < adjoiningCellG) {
-                    field[adjoiningCell.x][adjoiningCell.y].setParent(selectedCell);
-                    countF(adjoiningCell);
-                }
-            } else {
-                addToOpenedCells(adjoiningCell);
-                countF(adjoiningCell);
+            if (isCellAvailable(adjoiningX, adjoiningY)
+                    && processAdjoiningCell(selectedCell, adjoiningX, adjoiningY,
+                    selectedCellG + countTransfer(currentTerrain, adjoiningX, adjoiningY, DIRECT_TRANSFER), currentTerrain == null)) {
+                return true;
             }
         }
-        return false;
-    }
-
-    private int getNextCellIndex () {
-        int selectedCellIndex = -1;
-        double minF = Double.MAX_VALUE;
 
-        for (int i = 0; i < openedCells.size(); i++) {
-            Point currentOpenCell = openedCells.get(i);
+        for (int k = 0; k < DIAGONAL_OFFSETS_X.length; k++) {
+            int dx = DIAGONAL_OFFSETS_X[k];
+            int dy = DIAGONAL_OFFSETS_Y[k];
+            int adjoiningX = x + dx;
+            int adjoiningY = y + dy;
 
-            double localF = 0;
-            if (field[currentOpenCell.x][currentOpenCell.y] instanceof EmptyCell) {
-                localF = ((EmptyCell) field[currentOpenCell.x][currentOpenCell.y]).getF();
-            }
-            if (localF < minF) {
-                minF = localF;
-                selectedCellIndex = i;
+            if (isCellAvailable(adjoiningX, adjoiningY) && !isCornerCut(x, y, dx, dy)
+                    && processAdjoiningCell(selectedCell, adjoiningX, adjoiningY,
+                    selectedCellG + countTransfer(currentTerrain, adjoiningX, adjoiningY, DIAGONAL_TRANSFER), currentTerrain == null)) {
+                return true;
             }
         }
-        return selectedCellIndex;
-    }
-
-    private void addToOpenedCells (Point cell) {
-        openedCells.add(cell);
-        getCell(cell.x, cell.y).setOpened(true);
-        getCell(cell.x, cell.y).setClosed(false);
-    }
-
-    private void addToClosedCells (Point cell) {
-        getCell(cell.x, cell.y).setOpened(false);
-        getCell(cell.x, cell.y).setClosed(true);
-    }
-
-    private java.util.List<Point> getAdjoiningCells (Point parentCell) {
-        java.util.List<Point> adjoiningCells = new ArrayList<>();
-
-        java.util.List<Point> directOffsets = Arrays.asList(new Point(0, -1), new Point(-1, 0), new Point(1, 0), new Point(0, 1));
-        java.util.List<Point> diagonalOffsets = Arrays.asList(new Point(-1, -1), new Point(1, -1), new Point(-1, 1), new Point(1, 1));
-
-        for (Point offset : directOffsets) {
-            addDirectCell(adjoiningCells, new Point(parentCell.x + offset.x, parentCell.y + offset.y), parentCell);
-        }
 
-        for (Point offset : diagonalOffsets) {
-            addDiagonalCell(adjoiningCells, new Point(parentCell.x + offset.x, parentCell.y + offset.y), parentCell);
-        }
-
-        return adjoiningCells;
+        return false;
     }
 
-    private void addDirectCell (java.util.List<Point> adjoiningCells, Point adjoiningCell, Point parentCell) {
-        if (isCellOutOfField(adjoiningCell) || isCellWall(adjoiningCell) || isCellClosed(adjoiningCell) || isCellOpened(adjoiningCell)) {
-            return;
-        }
-        adjoiningCells.add(adjoiningCell);
-        field[adjoiningCell.x][adjoiningCell.y].setParent(parentCell);
+    private int countTransfer (TerrainLayer currentTerrain, int x, int y, int transfer) {
+        return currentTerrain == null ? transfer : transfer * currentTerrain.getCost(x, y);
     }
 
-    private void addDiagonalCell (java.util.List<Point> adjoiningCells, Point adjoiningCell, Point parentCell) {
-        if (isCellOutOfField(adjoiningCell) || isCellWall(adjoiningCell) || isCellClosed(adjoiningCell) || isCellOpened(adjoiningCell)) {
-            return;
-        }
+    // На ровной местности поиск, как и раньше, останавливается, как только финиш сгенерирован.
+    // С весами более дешёвый путь может прийти позже, поэтому финиш проверяется только при раскрытии
+    private boolean processAdjoiningCell (int selectedCell, int adjoiningX, int adjoiningY, int summaryG,
+                                          boolean isUniformCost) {
+        int adjoiningCell = grid.index(adjoiningX, adjoiningY);
 
-        java.util.List<Point> checkCells = new ArrayList<>();
-        int dx;
-        int dy;
-        if (adjoiningCell.x > parentCell.x) {
-            dx = 1;
-        } else {
-            dx = -1;
-        }
-        if (adjoiningCell.y > parentCell.y) {
-            dy = 1;
-        } else {
-            dy = -1;
+        if (isUniformCost && adjoiningCell == toIndex(endCell)) {
+            statistics.onGenerated();
+            grid.setParent(adjoiningCell, selectedCell);
+            grid.setG(adjoiningCell, summaryG);
+            return true;
         }
-
-        checkCells.add(new Point(parentCell.x + dx, parentCell.y));
-        checkCells.add(new Point(parentCell.x, parentCell.y + dy));
-
-        int wallsCount = 0;
-        for (Point checkCell : checkCells) {
-            if (field[checkCell.x][checkCell.y] instanceof Wall) {
-                wallsCount++;
+        if (grid.isOpened(adjoiningCell)) {
+            if (summaryG < grid.getG(adjoiningCell)) {
+                grid.setParent(adjoiningCell, selectedCell);
+                grid.setG(adjoiningCell, summaryG);
+                openedCells.decreaseKey(adjoiningCell, summaryG + countH(adjoiningX, adjoiningY));
             }
+        } else {
+            grid.setParent(adjoiningCell, selectedCell);
+            grid.setG(adjoiningCell, summaryG);
+            addToOpenedCells(adjoiningCell, summaryG + countH(adjoiningX, adjoiningY));
         }
-
-        if (wallsCount > 0) {
-            return;
-        }
-
-        adjoiningCells.add(adjoiningCell);
-        field[adjoiningCell.x][adjoiningCell.y].setParent(parentCell);
-    }
-
-    private boolean isCellOutOfField (Point adjoiningCell) {
-        return adjoiningCell.x < 0 || adjoiningCell.y < 0 || adjoiningCell.x >= width || adjoiningCell.y >= height;
+        return false;
     }
 
-    private boolean isCellWall (Point adjoiningCell) {
-        return field[adjoiningCell.x][adjoiningCell.y] instanceof Wall;
+    private void addToOpenedCells (int cell, double f) {
+        statistics.onGenerated();
+        openedCells.add(cell, f);
+        grid.setState(cell, Grid.STATE_OPENED);
     }
 
-    private boolean isCellClosed (Point cell) {
-        return field[cell.x][cell.y].isClosed();
+    private void addToClosedCells (int cell) {
+        grid.setState(cell, Grid.STATE_CLOSED);
     }
 
-    private boolean isCellOpened (Point cell) {
-        return field[cell.x][cell.y].isOpened();
+    private boolean isCellAvailable (int x, int y) {
+        return isWalkable(x, y) && !grid.isClosed(grid.index(x, y));
     }
 
-    private double countF (Point currentOpenCell) {
-        if (field[currentOpenCell.x][currentOpenCell.y] instanceof EmptyCell) {
-            int G = countG(currentOpenCell);
-            double H = countH(currentOpenCell);
-            ((EmptyCell) field[currentOpenCell.x][currentOpenCell.y]).setG(G);
-            ((EmptyCell) field[currentOpenCell.x][currentOpenCell.y]).setH(H);
-
-            return ((EmptyCell) field[currentOpenCell.x][currentOpenCell.y]).getF();
-        } else {
-            return 0;
-        }
-    }
-
-    private int countG (Point currentCell) {
-        Point localCell = currentCell;
-
-        int G = 0;
-        while (!localCell.equals(startCell)) {
-            Point parentCell = field[localCell.x][localCell.y].getParent();
-
-            if (localCell.x == parentCell.x || localCell.y == parentCell.y) {
-                G += DIRECT_TRANSFER;
-            } else {
-                G += DIAGONAL_TRANSFER;
-            }
-
-            localCell = parentCell;
+    // Множители не меньше единицы, поэтому оценка по ровной местности остаётся допустимой. Слой читается
+    // по координатам сетки, поэтому размеры обязаны совпадать
+    public void setTerrain (TerrainLayer terrain) {
+        if (terrain != null && (terrain.getWidth() != width || terrain.getHeight() != height)) {
+            throw new IllegalArgumentException(String.format("Terrain %dx%d does not match %dx%d grid",
+                    terrain.getWidth(), terrain.getHeight(), width, height));
         }
-
-        return G;
+        this.terrain = terrain;
     }
 
-    private double countH (Point currentCell) {
-        // Манхетонское расстояние
-        //int H = Math.abs(endCell.x - currentCell.x) + Math.abs(endCell.y - currentCell.y);
-
-        // Евкилидово расстояние
-        double H = Math.sqrt((endCell.x - currentCell.x) * (endCell.x - currentCell.x) + (endCell.y - currentCell.y) * (endCell.y - currentCell.y));
-        return H * weight;
+    public TerrainLayer getTerrain () {
+        return terrain;
     }
 
     @Override
     public void reset () {
-        for (int i = 0; i < width; i++) {
-            for (int j = 0; j < height; j++) {
-                if (field[i][j] instanceof EmptyCell) {
-                    field[i][j] = new EmptyCell();
-                }
-            }
-        }
-
+        super.reset();
         openedCells.clear();
-        isProcess = false;
-        isPathFind = false;
-        path.clear();
-        pathLength = 0;
-    }
-
-    @Override
-    public Cell getCell (int i, int j) {
-        return field[i][j];
-    }
-
-    @Override
-    public void setCell (int i, int j, Cell cell) {
-        field[i][j] = cell;
-    }
-
-    @Override
-    public Point getStartCell () {
-        return startCell;
-    }
-
-    @Override
-    public void setStartCell (Point startCell) {
-        this.field[this.startCell.x][this.startCell.y] = new EmptyCell();
-        this.startCell = startCell;
-        this.field[startCell.x][startCell.y] = new StartCell();
-    }
-
-    @Override
-    public Point getEndCell () {
-        return endCell;
-    }
-
-    @Override
-    public void setEndCell (Point endCell) {
-        this.field[this.endCell.x][this.endCell.y] = new EmptyCell();
-        this.endCell = endCell;
-        this.field[endCell.x][endCell.y] = new EndCell();
-    }
-
-    @Override
-    public boolean isProcess () {
-        return isProcess;
-    }
-
-    @Override
-    public boolean isPathFind () {
-        return isPathFind;
-    }
-
-    @Override
-    public int getPathLength () {
-        return pathLength;
-    }
-
-    @Override
-    public List<Point> getPath () {
-        return path;
-    }
-
-    @Override
-    public void setWeight (int weight) {
-        this.weight = weight;
-    }
-
-    private void delay () {
-        if (delayValue != 0) {
-            long startNanoTime = System.nanoTime();
-            do {
-                Thread.yield();
-            } while (startNanoTime + delayValue > System.nanoTime());
-        }
-    }
-
-    @Override
-    public void setDelay (int delayValue) {
-        this.delayValue = delayValue;
     }
 }
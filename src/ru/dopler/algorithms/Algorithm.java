@@ -9,6 +9,11 @@ public interface Algorithm {
 
     void start ();
 
+    // Пошаговый поиск: begin() готовит запуск, step() раскрывает не больше steps узлов и возвращает false по завершении
+    void begin ();
+
+    boolean step (int steps);
+
     void reset ();
 
     Cell getCell (int i, int j);
@@ -31,7 +36,12 @@ public interface Algorithm {
 
     List<Point> getPath ();
 
-    void setWeight (int weight);
+    SearchStatistics getStatistics ();
 
-    void setDelay (int delayValue);
+    // Согласованный срез пути, статуса и счётчиков; безопасно читать из любого потока
+    SearchSnapshot getSnapshot ();
+
+    void setListener (AlgorithmListener listener);
+
+    void setWeight (int weight);
 }
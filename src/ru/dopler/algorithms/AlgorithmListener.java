@@ -0,0 +1,8 @@
+package ru.dopler.algorithms;
+
+import ru.dopler.grid.GridListener;
+
+public interface AlgorithmListener extends GridListener {
+
+    void pathChanged ();
+}
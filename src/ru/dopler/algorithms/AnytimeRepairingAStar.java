@@ -0,0 +1,264 @@
+package ru.dopler.algorithms;
+
+import ru.dopler.grid.Grid;
+
+import java.util.Arrays;
+
+// ARA*: первый путь ищется с сильно завышенной оценкой, затем множитель уменьшается и поиск продолжается
+// с накопленными g. Ячейки, улучшенные после закрытия, копятся в списке несогласованных и возвращаются
+// в открытый список только на следующей итерации, поэтому каждая итерация раскрывает ячейку не больше раза.
+// После каждой итерации публикуется путь с гарантией: он не длиннее кратчайшего больше чем в bound раз
+public class AnytimeRepairingAStar extends GridAlgorithm {
+
+    private static final int[] OFFSETS_X = {0, -1, 1, 0, -1, 1, -1, 1};
+    private static final int[] OFFSETS_Y = {-1, 0, 0, 1, -1, -1, 1, 1};
+
+    public static final double INITIAL_INFLATION = 3.0;
+    public static final double INFLATION_STEP = 0.1;
+
+    // Проверка дедлайна в start(budgetNanos) раз в столько раскрытий
+    private static final int STEPS_BETWEEN_DEADLINE_CHECKS = 256;
+
+    private final IndexedBinaryHeap openedCells;
+
+    // Номер итерации, в которой ячейка закрыта или попала в несогласованные: метки не нужно чистить
+    private final int[] closedIterations;
+    private final int[] inconsistentIterations;
+    private int[] inconsistentCells = new int[64];
+    private int inconsistentCount = 0;
+    private int iteration = 0;
+
+    private int[] drainedCells = new int[64];
+    private int[] chainCells = new int[64];
+
+    private double inflation;
+    private boolean hasPath;
+    private volatile boolean isStopRequested = false;
+
+    public AnytimeRepairingAStar (int width, int height, int weight) {
+        super(width, height, weight);
+        openedCells = new IndexedBinaryHeap(width * height);
+        closedIterations = new int[width * height];
+        inconsistentIterations = new int[width * height];
+    }
+
+    // Ищет, пока не кончится бюджет, и завершает поиск с лучшим найденным к этому моменту путём
+    public void start (long budgetNanos) {
+        long deadlineNanos = System.nanoTime() + budgetNanos;
+        begin();
+        while (step(STEPS_BETWEEN_DEADLINE_CHECKS)) {
+            if (System.nanoTime() - deadlineNanos >= 0) {
+                stop();
+            }
+        }
+    }
+
+    // Следующий step() завершит поиск с последним опубликованным путём или без пути, если его ещё нет
+    public void stop () {
+        isStopRequested = true;
+    }
+
+    @Override
+    protected void initAlgorithm () {
+        openedCells.clear();
+        nextIteration();
+        inflation = INITIAL_INFLATION;
+        hasPath = false;
+        isStopRequested = false;
+
+        int startIndex = toIndex(startCell);
+        grid.setG(startIndex, 0);
+        grid.setParent(startIndex, Grid.NO_PARENT);
+        open(startIndex);
+    }
+
+    @Override
+    protected int stepAlgorithm () {
+        if (isStopRequested) {
+            return hasPath ? STEP_PATH_FOUND : STEP_NO_PATH;
+        }
+
+        int endIndex = toIndex(endCell);
+        boolean isEndReached = grid.getState(endIndex) != Grid.STATE_NONE;
+        if (!openedCells.isEmpty() && (!isEndReached || openedCells.getMinKey() < grid.getG(endIndex))) {
+            statistics.beginSelection();
+            int selectedCell = openedCells.poll();
+            statistics.beginExpansion();
+            expand(selectedCell);
+            statistics.endExpansion(openedCells.size());
+            return STEP_RUNNING;
+        }
+
+        if (!isEndReached) {
+            return STEP_NO_PATH;
+        }
+        return completeIteration(endIndex);
+    }
+
+    private void expand (int cell) {
+        closedIterations[cell] = iteration;
+        grid.setState(cell, Grid.STATE_CLOSED);
+
+        int x = grid.x(cell);
+        int y = grid.y(cell);
+        int cellG = grid.getG(cell);
+        for (int k = 0; k < OFFSETS_X.length; k++) {
+            int dx = OFFSETS_X[k];
+            int dy = OFFSETS_Y[k];
+            int neighbourX = x + dx;
+            int neighbourY = y + dy;
+            if (!isWalkable(neighbourX, neighbourY)) {
+                continue;
+            }
+
+            int transfer = DIRECT_TRANSFER;
+            if (dx != 0 && dy != 0) {
+                if (isCornerCut(x, y, dx, dy)) {
+                    continue;
+                }
+                transfer = DIAGONAL_TRANSFER;
+            }
+
+            int neighbour = grid.index(neighbourX, neighbourY);
+            int summaryG = cellG + transfer;
+            if (grid.getState(neighbour) != Grid.STATE_NONE && summaryG >= grid.getG(neighbour)) {
+                continue;
+            }
+
+            grid.setG(neighbour, summaryG);
+            grid.setParent(neighbour, cell);
+            if (closedIterations[neighbour] == iteration) {
+                markInconsistent(neighbour);
+            } else {
+                open(neighbour);
+            }
+        }
+    }
+
+    // Итерация закончена: путь публикуется с гарантией min(множитель, g(финиш) / min(g + h)) по открытым
+    // и несогласованным ячейкам, затем множитель уменьшается и они становятся открытым списком новой итерации
+    private int completeIteration (int endIndex) {
+        tightenPathG(endIndex);
+
+        int drainedCount = 0;
+        while (!openedCells.isEmpty()) {
+            if (drainedCount == drainedCells.length) {
+                drainedCells = Arrays.copyOf(drainedCells, drainedCount * 2);
+            }
+            drainedCells[drainedCount++] = openedCells.poll();
+        }
+
+        double lowerBound = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < drainedCount; i++) {
+            lowerBound = Math.min(lowerBound, countAdmissibleF(drainedCells[i]));
+        }
+        for (int i = 0; i < inconsistentCount; i++) {
+            lowerBound = Math.min(lowerBound, countAdmissibleF(inconsistentCells[i]));
+        }
+
+        // Нулевая нижняя оценка бывает, только когда старт совпадает с финишем: путь из одной ячейки и так кратчайший,
+        // а деление g(финиш) / 0 дало бы NaN, на котором поиск никогда не завершится
+        double heuristicInflation = Math.max(1.0, (double) weight / DIRECT_TRANSFER);
+        double bound = lowerBound <= 0
+                ? 1.0
+                : Math.max(1.0, Math.min(inflation * heuristicInflation, grid.getG(endIndex) / lowerBound));
+        hasPath = true;
+        publishPath(bound);
+
+        if (inflation <= 1.0 || bound <= 1.0) {
+            return STEP_PATH_FOUND;
+        }
+
+        // Множитель выше уже доказанной гарантии ничего не даёт, поэтому следующая итерация начинает не выше неё
+        inflation = Math.max(1.0, Math.min(inflation - INFLATION_STEP, bound / heuristicInflation));
+        int[] previousInconsistent = Arrays.copyOf(inconsistentCells, inconsistentCount);
+        nextIteration();
+        for (int i = 0; i < drainedCount; i++) {
+            reopen(drainedCells[i]);
+        }
+        for (int cell : previousInconsistent) {
+            statistics.onReopened();
+            reopen(cell);
+        }
+        return STEP_RUNNING;
+    }
+
+    // Предки финиша могли улучшиться уже после того, как их потомки получили родителя, и цепочка родителей
+    // тогда дешевле записанных g. Вдоль цепочки g опускаются до её настоящей стоимости, чтобы длина пути
+    // совпадала с самим путём; опущенные ячейки снова становятся открытыми или несогласованными
+    private void tightenPathG (int endIndex) {
+        int startIndex = toIndex(startCell);
+        int chainLength = 0;
+        for (int cell = endIndex; cell != startIndex; cell = grid.getParent(cell)) {
+            if (chainLength == chainCells.length) {
+                chainCells = Arrays.copyOf(chainCells, chainLength * 2);
+            }
+            chainCells[chainLength++] = cell;
+        }
+
+        for (int i = chainLength - 1; i >= 0; i--) {
+            int cell = chainCells[i];
+            int parent = grid.getParent(cell);
+            boolean isDiagonal = grid.x(cell) != grid.x(parent) && grid.y(cell) != grid.y(parent);
+            int chainG = grid.getG(parent) + (isDiagonal ? DIAGONAL_TRANSFER : DIRECT_TRANSFER);
+            if (chainG >= grid.getG(cell)) {
+                continue;
+            }
+            grid.setG(cell, chainG);
+            if (closedIterations[cell] == iteration) {
+                markInconsistent(cell);
+            } else {
+                reopen(cell);
+            }
+        }
+    }
+
+    private void open (int cell) {
+        statistics.onGenerated();
+        reopen(cell);
+    }
+
+    // Ключ считается с текущим множителем; при смене итерации так же пересчитываются ключи всего списка
+    private void reopen (int cell) {
+        openedCells.add(cell, grid.getG(cell) + inflation * countH(grid.x(cell), grid.y(cell)));
+        grid.setState(cell, Grid.STATE_OPENED);
+    }
+
+    private void markInconsistent (int cell) {
+        if (inconsistentIterations[cell] == iteration) {
+            return;
+        }
+        inconsistentIterations[cell] = iteration;
+        if (inconsistentCount == inconsistentCells.length) {
+            inconsistentCells = Arrays.copyOf(inconsistentCells, inconsistentCount * 2);
+        }
+        inconsistentCells[inconsistentCount++] = cell;
+    }
+
+    // g + h с допустимой оценкой: вес больше DIRECT_TRANSFER завышает её, и он снимается
+    private double countAdmissibleF (int cell) {
+        double h = countH(grid.x(cell), grid.y(cell));
+        if (weight > DIRECT_TRANSFER) {
+            h = h * DIRECT_TRANSFER / weight;
+        }
+        return grid.getG(cell) + h;
+    }
+
+    private void nextIteration () {
+        if (iteration == Integer.MAX_VALUE) {
+            Arrays.fill(closedIterations, 0);
+            Arrays.fill(inconsistentIterations, 0);
+            iteration = 0;
+        }
+        iteration++;
+        inconsistentCount = 0;
+    }
+
+    @Override
+    public void reset () {
+        super.reset();
+        openedCells.clear();
+        inconsistentCount = 0;
+        hasPath = false;
+    }
+}
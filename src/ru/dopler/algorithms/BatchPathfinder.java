@@ -0,0 +1,110 @@
+package ru.dopler.algorithms;
+
+import ru.dopler.grid.Grid;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+
+public class BatchPathfinder {
+
+    private static final int MAX_CHUNK_SIZE = 16;
+    // Малый пакет режется мельче, чтобы каждому потоку досталось несколько частей
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final Grid grid;
+    private final int weight;
+    private final int parallelism;
+    private final ExecutorService executor;
+
+    // Свободные поиски: общие стены, собственные g, родители и открытый список. Часть пакета берёт поиск из
+    // пула и возвращает после себя, поэтому их создаётся не больше, чем частей идёт одновременно, и
+    // они не привязаны к потокам пула
+    private final Queue<AStar> idleSearches = new ConcurrentLinkedQueue<>();
+
+    public BatchPathfinder (Grid grid, int weight) {
+        this(grid, weight, Runtime.getRuntime().availableProcessors());
+    }
+
+    public BatchPathfinder (Grid grid, int weight, int parallelism) {
+        this.grid = grid;
+        this.weight = weight;
+        this.parallelism = parallelism;
+        executor = Executors.newFixedThreadPool(parallelism, new ThreadFactory() {
+            @Override
+            public Thread newThread (Runnable runnable) {
+                Thread thread = new Thread(runnable, "batch-pathfinder");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    // Пока идёт пакетный поиск, стены сетки изменять нельзя
+    public List<PathResult> solve (final List<PathQuery> queries) {
+        final PathResult[] results = new PathResult[queries.size()];
+        List<Callable<Void>> tasks = new ArrayList<>();
+
+        int chunkSize = Math.max(1, Math.min(MAX_CHUNK_SIZE, queries.size() / (parallelism * CHUNKS_PER_THREAD)));
+        for (int chunkStart = 0; chunkStart < queries.size(); chunkStart += chunkSize) {
+            final int from = chunkStart;
+            final int to = Math.min(chunkStart + chunkSize, queries.size());
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call () {
+                    AStar search = acquireSearch();
+                    try {
+                        for (int k = from; k < to; k++) {
+                            results[k] = solve(search, queries.get(k));
+                        }
+                    } finally {
+                        idleSearches.add(search);
+                    }
+                    return null;
+                }
+            });
+        }
+
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Batch search was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Batch search failed", e.getCause());
+        }
+
+        return Arrays.asList(results);
+    }
+
+    private AStar acquireSearch () {
+        AStar search = idleSearches.poll();
+        return search != null ? search : new AStar(grid.shareWalls(), weight);
+    }
+
+    private PathResult solve (AStar search, PathQuery query) {
+        Point startCell = query.getStartCell();
+        Point endCell = query.getEndCell();
+        // AStar снял бы стену под стартом или финишем, а сетка общая и во время пакета не меняется
+        if (grid.isWall(startCell.x, startCell.y) || grid.isWall(endCell.x, endCell.y)) {
+            return new PathResult(false, 0, Collections.<Point>emptyList());
+        }
+
+        search.setStartCell(startCell);
+        search.setEndCell(endCell);
+        search.reset();
+        search.start();
+
+        return new PathResult(search.isPathFind(), search.getPathLength(), new ArrayList<>(search.getPath()));
+    }
+
+    public void shutdown () {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,183 @@
+package ru.dopler.algorithms;
+
+import ru.dopler.cells.Cell;
+import ru.dopler.grid.Grid;
+
+public class BidirectionalAStar extends GridAlgorithm {
+
+    private static final int[] OFFSETS_X = {0, -1, 1, 0, -1, 1, -1, 1};
+    private static final int[] OFFSETS_Y = {-1, 0, 0, 1, -1, -1, 1, 1};
+
+    private static final int NO_MEETING = -1;
+
+    private final Grid backwardGrid;
+
+    private volatile OpenSet forwardOpenedCells;
+    private volatile OpenSet backwardOpenedCells;
+
+    private int bestLength;
+    private int meetingCell;
+
+    public BidirectionalAStar (int width, int height, int weight) {
+        super(width, height, weight);
+        backwardGrid = grid.shareWalls();
+        forwardOpenedCells = new IndexedBinaryHeap(width * height);
+        backwardOpenedCells = new IndexedBinaryHeap(width * height);
+    }
+
+    // Стороны используют усреднённый потенциал (hF - hB) / 2, поэтому при согласованной эвристике
+    // поиск можно остановить, когда сумма минимальных ключей обеих очередей не меньше лучшего найденного пути
+    @Override
+    protected void initAlgorithm () {
+        int startIndex = toIndex(startCell);
+        int endIndex = toIndex(endCell);
+
+        bestLength = Integer.MAX_VALUE;
+        meetingCell = NO_MEETING;
+
+        grid.setG(startIndex, 0);
+        grid.setState(startIndex, Grid.STATE_OPENED);
+        forwardOpenedCells.add(startIndex, countPotential(startCell.x, startCell.y, true));
+
+        backwardGrid.setG(endIndex, 0);
+        backwardGrid.setState(endIndex, Grid.STATE_OPENED);
+        backwardOpenedCells.add(endIndex, countPotential(endCell.x, endCell.y, false));
+
+        // Встреча ищется только среди порождённых соседей, поэтому засеянные ячейки проверяются отдельно:
+        // при совпадении старта и финиша путь состоит из одной ячейки и имеет длину 0
+        offerMeeting(startIndex, grid.getG(startIndex), backwardGrid);
+        offerMeeting(endIndex, backwardGrid.getG(endIndex), grid);
+    }
+
+    @Override
+    protected int stepAlgorithm () {
+        if (forwardOpenedCells.isEmpty() || backwardOpenedCells.isEmpty() || (bestLength != Integer.MAX_VALUE
+                && forwardOpenedCells.getMinKey() + backwardOpenedCells.getMinKey() >= bestLength)) {
+            if (bestLength == Integer.MAX_VALUE) {
+                return STEP_NO_PATH;
+            }
+            joinPaths();
+            return STEP_PATH_FOUND;
+        }
+
+        statistics.beginSelection();
+        if (forwardOpenedCells.size() <= backwardOpenedCells.size()) {
+            expand(forwardOpenedCells.poll(), grid, backwardGrid, forwardOpenedCells, true);
+        } else {
+            expand(backwardOpenedCells.poll(), backwardGrid, grid, backwardOpenedCells, false);
+        }
+        statistics.endExpansion(forwardOpenedCells.size() + backwardOpenedCells.size());
+        return STEP_RUNNING;
+    }
+
+    private void expand (int selectedCell, Grid ownGrid, Grid otherGrid, OpenSet openedCells, boolean isForward) {
+        statistics.beginExpansion();
+        ownGrid.setState(selectedCell, Grid.STATE_CLOSED);
+
+        int x = grid.x(selectedCell);
+        int y = grid.y(selectedCell);
+        int selectedCellG = ownGrid.getG(selectedCell);
+
+        for (int k = 0; k < OFFSETS_X.length; k++) {
+            int dx = OFFSETS_X[k];
+            int dy = OFFSETS_Y[k];
+            int adjoiningX = x + dx;
+            int adjoiningY = y + dy;
+
+            if (!isWalkable(adjoiningX, adjoiningY) || (dx != 0 && dy != 0 && isCornerCut(x, y, dx, dy))) {
+                continue;
+            }
+
+            int adjoiningCell = grid.index(adjoiningX, adjoiningY);
+            if (ownGrid.isClosed(adjoiningCell)) {
+                continue;
+            }
+
+            int summaryG = selectedCellG + (dx != 0 && dy != 0 ? DIAGONAL_TRANSFER : DIRECT_TRANSFER);
+            if (ownGrid.isOpened(adjoiningCell)) {
+                if (summaryG >= ownGrid.getG(adjoiningCell)) {
+                    continue;
+                }
+                ownGrid.setParent(adjoiningCell, selectedCell);
+                ownGrid.setG(adjoiningCell, summaryG);
+                openedCells.decreaseKey(adjoiningCell, summaryG + countPotential(adjoiningX, adjoiningY, isForward));
+            } else {
+                ownGrid.setParent(adjoiningCell, selectedCell);
+                ownGrid.setG(adjoiningCell, summaryG);
+                ownGrid.setState(adjoiningCell, Grid.STATE_OPENED);
+                statistics.onGenerated();
+                openedCells.add(adjoiningCell, summaryG + countPotential(adjoiningX, adjoiningY, isForward));
+            }
+
+            offerMeeting(adjoiningCell, summaryG, otherGrid);
+        }
+    }
+
+    private void offerMeeting (int cell, int ownG, Grid otherGrid) {
+        if (otherGrid.getState(cell) == Grid.STATE_NONE) {
+            return;
+        }
+        int length = ownG + otherGrid.getG(cell);
+        if (length < bestLength) {
+            bestLength = length;
+            meetingCell = cell;
+        }
+    }
+
+    private double countPotential (int x, int y, boolean isForward) {
+        double potential = (countH(x, y, endCell) - countH(x, y, startCell)) / 2;
+        return isForward ? potential : -potential;
+    }
+
+    // Обратная половина пути переносится в цепочку родителей прямого поиска
+    private void joinPaths () {
+        int endIndex = toIndex(endCell);
+        int currentCell = meetingCell;
+
+        while (currentCell != endIndex) {
+            int nextCell = backwardGrid.getParent(currentCell);
+            int transferG = (grid.x(nextCell) == grid.x(currentCell) || grid.y(nextCell) == grid.y(currentCell))
+                    ? DIRECT_TRANSFER : DIAGONAL_TRANSFER;
+
+            grid.setParent(nextCell, currentCell);
+            grid.setG(nextCell, grid.getG(currentCell) + transferG);
+            currentCell = nextCell;
+        }
+    }
+
+    @Override
+    public Cell getCell (int i, int j) {
+        Cell cell = super.getCell(i, j);
+        int index = grid.index(i, j);
+        if (grid.getState(index) == Grid.STATE_NONE) {
+            cell.setOpened(backwardGrid.isOpened(index));
+            cell.setClosed(backwardGrid.isClosed(index));
+        }
+        return cell;
+    }
+
+    @Override
+    public int countExpandedCells () {
+        int expanded = 0;
+        for (int index = 0; index < grid.size(); index++) {
+            if (grid.isClosed(index) || backwardGrid.isClosed(index)) {
+                expanded++;
+            }
+        }
+        return expanded;
+    }
+
+    @Override
+    public void setListener (AlgorithmListener listener) {
+        super.setListener(listener);
+        backwardGrid.setListener(listener);
+    }
+
+    @Override
+    public void reset () {
+        super.reset();
+        backwardGrid.clearSearchState();
+        forwardOpenedCells.clear();
+        backwardOpenedCells.clear();
+    }
+}
@@ -0,0 +1,181 @@
+package ru.dopler.algorithms;
+
+import java.util.Arrays;
+
+// Очередь Дейкстры-Дайала: кольцо корзин по целым ключам, в корзине - двусвязный список ячеек.
+// Ключ f округляется вниз; для согласованной оценки это сохраняет согласованность, потому что
+// стоимости переходов целые, и путь остаётся точным. Вставка и decrease-key - O(1), извлечение
+// минимума - амортизированно O(1), пока ключи растут монотонно, как у A* с согласованной оценкой
+public class BucketQueue implements OpenSet {
+
+    private static final int NO_CELL = -1;
+    private static final int NOT_QUEUED = -2;
+
+    private final int[] keys;
+    private final int[] next;
+    private final int[] prev;
+
+    private int[] buckets;
+    private int mask;
+
+    // Все ключи очереди лежат в [minKey, maxKey], и этот диапазон меньше длины кольца
+    private int minKey = 0;
+    private int maxKey = 0;
+    private int size = 0;
+
+    public BucketQueue (int capacity) {
+        this(capacity, 256);
+    }
+
+    public BucketQueue (int capacity, int initialRange) {
+        keys = new int[capacity];
+        next = new int[capacity];
+        prev = new int[capacity];
+        Arrays.fill(prev, NOT_QUEUED);
+
+        buckets = new int[Math.max(16, Integer.highestOneBit(initialRange - 1) << 1)];
+        mask = buckets.length - 1;
+        Arrays.fill(buckets, NO_CELL);
+    }
+
+    @Override
+    public void add (int cell, double f) {
+        if (contains(cell)) {
+            decreaseKey(cell, f);
+            return;
+        }
+        insert(cell, toKey(f));
+        size++;
+    }
+
+    @Override
+    public boolean contains (int cell) {
+        return prev[cell] != NOT_QUEUED;
+    }
+
+    @Override
+    public void decreaseKey (int cell, double f) {
+        int key = toKey(f);
+        if (key >= keys[cell]) {
+            return;
+        }
+        unlink(cell);
+        insert(cell, key);
+    }
+
+    @Override
+    public int poll () {
+        if (size == 0) {
+            throw new IllegalStateException("Open set is empty");
+        }
+        advanceToMin();
+        int cell = buckets[minKey & mask];
+        unlink(cell);
+        size--;
+        return cell;
+    }
+
+    @Override
+    public double getMinKey () {
+        if (size == 0) {
+            throw new IllegalStateException("Open set is empty");
+        }
+        advanceToMin();
+        return minKey;
+    }
+
+    @Override
+    public boolean isEmpty () {
+        return size == 0;
+    }
+
+    @Override
+    public int size () {
+        return size;
+    }
+
+    @Override
+    public void clear () {
+        for (int bucket = 0; bucket < buckets.length; bucket++) {
+            for (int cell = buckets[bucket]; cell != NO_CELL; ) {
+                int nextCell = next[cell];
+                prev[cell] = NOT_QUEUED;
+                cell = nextCell;
+            }
+            buckets[bucket] = NO_CELL;
+        }
+        size = 0;
+    }
+
+    // f неотрицателен, поэтому приведение к int - это округление вниз
+    private static int toKey (double f) {
+        return (int) f;
+    }
+
+    private void advanceToMin () {
+        while (buckets[minKey & mask] == NO_CELL) {
+            minKey++;
+        }
+    }
+
+    // Новая ячейка встаёт в голову корзины: среди равных f первой раскрывается последняя, то есть более глубокая
+    private void insert (int cell, int key) {
+        if (size == 0) {
+            minKey = key;
+            maxKey = key;
+        } else {
+            minKey = Math.min(minKey, key);
+            maxKey = Math.max(maxKey, key);
+        }
+        if (maxKey - minKey >= buckets.length) {
+            grow(maxKey - minKey + 1);
+        }
+
+        int bucket = key & mask;
+        int head = buckets[bucket];
+        keys[cell] = key;
+        prev[cell] = NO_CELL;
+        next[cell] = head;
+        if (head != NO_CELL) {
+            prev[head] = cell;
+        }
+        buckets[bucket] = cell;
+    }
+
+    private void unlink (int cell) {
+        int prevCell = prev[cell];
+        int nextCell = next[cell];
+        if (prevCell == NO_CELL) {
+            buckets[keys[cell] & mask] = nextCell;
+        } else {
+            next[prevCell] = nextCell;
+        }
+        if (nextCell != NO_CELL) {
+            prev[nextCell] = prevCell;
+        }
+        prev[cell] = NOT_QUEUED;
+    }
+
+    // Кольцо растёт степенями двойки, ячейки переносятся в корзины нового кольца
+    private void grow (int range) {
+        int[] oldBuckets = buckets;
+        buckets = new int[Integer.highestOneBit(range - 1) << 1];
+        mask = buckets.length - 1;
+        Arrays.fill(buckets, NO_CELL);
+
+        for (int oldBucket : oldBuckets) {
+            for (int cell = oldBucket; cell != NO_CELL; ) {
+                int nextCell = next[cell];
+                int bucket = keys[cell] & mask;
+                int head = buckets[bucket];
+                prev[cell] = NO_CELL;
+                next[cell] = head;
+                if (head != NO_CELL) {
+                    prev[head] = cell;
+                }
+                buckets[bucket] = cell;
+                cell = nextCell;
+            }
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package ru.dopler.algorithms;
+
+import ru.dopler.cells.Cell;
+import ru.dopler.cells.Wall;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CachedAlgorithm implements Algorithm {
+
+    private final Algorithm alg;
+    private final PathCache cache;
+    private final boolean isSelectiveInvalidation;
+
+    private volatile long mapVersion = 0;
+    private int weight;
+
+    private volatile PathResult cachedResult = null;
+    private volatile AlgorithmListener listener;
+
+    private Point searchedStartCell;
+    private Point searchedEndCell;
+    private int searchedWeight;
+    private long searchedMapVersion;
+
+    public CachedAlgorithm (Algorithm alg, int weight, PathCache cache, boolean isSelectiveInvalidation) {
+        this.alg = alg;
+        this.weight = weight;
+        this.cache = cache;
+        this.isSelectiveInvalidation = isSelectiveInvalidation;
+    }
+
+    @Override
+    public void start () {
+        begin();
+        while (step(Integer.MAX_VALUE)) {
+        }
+    }
+
+    @Override
+    public void begin () {
+        searchedStartCell = alg.getStartCell();
+        searchedEndCell = alg.getEndCell();
+        searchedWeight = weight;
+        searchedMapVersion = mapVersion;
+        cachedResult = null;
+
+        PathResult result = cache.get(searchedStartCell, searchedEndCell, searchedWeight, searchedMapVersion);
+        if (result != null) {
+            cachedResult = result;
+            AlgorithmListener currentListener = listener;
+            if (currentListener != null) {
+                currentListener.pathChanged();
+            }
+            return;
+        }
+        alg.begin();
+    }
+
+    // Результат попадает в кэш с ключом, снятым в begin()
+    @Override
+    public boolean step (int steps) {
+        if (!alg.isProcess()) {
+            return false;
+        }
+        if (alg.step(steps)) {
+            return true;
+        }
+        cache.put(searchedStartCell, searchedEndCell, searchedWeight, searchedMapVersion,
+                new PathResult(alg.isPathFind(), alg.getPathLength(), new ArrayList<>(alg.getPath())));
+        return false;
+    }
+
+    @Override
+    public void reset () {
+        cachedResult = null;
+        alg.reset();
+    }
+
+    @Override
+    public Cell getCell (int i, int j) {
+        return alg.getCell(i, j);
+    }
+
+    // Снятая стена может укоротить любой путь, поэтому выборочно обрабатывается только установка стены
+    @Override
+    public void setCell (int i, int j, Cell cell) {
+        boolean wasWall = alg.getCell(i, j) instanceof Wall;
+        alg.setCell(i, j, cell);
+        boolean isWall = alg.getCell(i, j) instanceof Wall;
+
+        if (wasWall == isWall) {
+            return;
+        }
+        long oldMapVersion = mapVersion;
+        mapVersion++;
+        if (isSelectiveInvalidation && isWall) {
+            cache.invalidateCell(new Point(i, j), oldMapVersion, mapVersion);
+        } else {
+            cache.invalidateAll(mapVersion);
+        }
+    }
+
+    @Override
+    public Point getStartCell () {
+        return alg.getStartCell();
+    }
+
+    // Старт и финиш входят в ключ, версия растёт, только если они сняли стену
+    @Override
+    public void setStartCell (Point startCell) {
+        boolean wasWall = alg.getCell(startCell.x, startCell.y) instanceof Wall;
+        alg.setStartCell(startCell);
+        if (wasWall) {
+            cache.invalidateAll(++mapVersion);
+        }
+    }
+
+    @Override
+    public Point getEndCell () {
+        return alg.getEndCell();
+    }
+
+    @Override
+    public void setEndCell (Point endCell) {
+        boolean wasWall = alg.getCell(endCell.x, endCell.y) instanceof Wall;
+        alg.setEndCell(endCell);
+        if (wasWall) {
+            cache.invalidateAll(++mapVersion);
+        }
+    }
+
+    @Override
+    public boolean isProcess () {
+        return alg.isProcess();
+    }
+
+    @Override
+    public boolean isPathFind () {
+        PathResult result = cachedResult;
+        return result != null ? result.isPathFind() : alg.isPathFind();
+    }
+
+    @Override
+    public int getPathLength () {
+        PathResult result = cachedResult;
+        return result != null ? result.getPathLength() : alg.getPathLength();
+    }
+
+    @Override
+    public List<Point> getPath () {
+        PathResult result = cachedResult;
+        return result != null ? result.getPath() : alg.getPath();
+    }
+
+    @Override
+    public SearchStatistics getStatistics () {
+        return alg.getStatistics();
+    }
+
+    // Найденный в кэше путь публикуется как завершённый поиск без раскрытых узлов
+    @Override
+    public SearchSnapshot getSnapshot () {
+        PathResult result = cachedResult;
+        if (result != null) {
+            return new SearchSnapshot(false, result.isPathFind(), result.getPathLength(), result.getPath(), 0, 0, 0);
+        }
+        return alg.getSnapshot();
+    }
+
+    @Override
+    public void setListener (AlgorithmListener listener) {
+        this.listener = listener;
+        alg.setListener(listener);
+    }
+
+    @Override
+    public void setWeight (int weight) {
+        this.weight = weight;
+        alg.setWeight(weight);
+    }
+
+    public long getMapVersion () {
+        return mapVersion;
+    }
+
+    public PathCache getCache () {
+        return cache;
+    }
+}
@@ -0,0 +1,265 @@
+package ru.dopler.algorithms;
+
+import ru.dopler.cells.Cell;
+import ru.dopler.grid.Grid;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+public class DStarLite extends GridAlgorithm {
+
+    private static final int[] OFFSETS_X = {0, -1, 1, 0, -1, 1, -1, 1};
+    private static final int[] OFFSETS_Y = {-1, 0, 0, 1, -1, -1, 1, 1};
+
+    private static final int INFINITY = Integer.MAX_VALUE / 2;
+
+    private final int[] g;
+    private final int[] rhs;
+    private final IndexedLongHeap openedCells;
+
+    private final Set<Integer> changedCells = new LinkedHashSet<>();
+
+    private boolean isInitialized = false;
+    private Point lastStartCell;
+    private Point lastEndCell;
+    private int km;
+
+    public DStarLite (int width, int height, int weight) {
+        super(width, height, weight);
+        g = new int[width * height];
+        rhs = new int[width * height];
+        openedCells = new IndexedLongHeap(width * height);
+    }
+
+    // Поиск идёт от финиша к старту; g и rhs сохраняются между запусками, поэтому после правки стен
+    // пересчитывается только несогласованная область
+    @Override
+    protected void initAlgorithm () {
+        if (!isInitialized || !endCell.equals(lastEndCell)) {
+            initialize();
+        } else {
+            if (!startCell.equals(lastStartCell)) {
+                km += countHeuristic(toIndex(lastStartCell), toIndex(startCell));
+                lastStartCell = startCell;
+            }
+            for (int cell : changedCells) {
+                updateCell(cell);
+                int x = grid.x(cell);
+                int y = grid.y(cell);
+                for (int k = 0; k < OFFSETS_X.length; k++) {
+                    if (grid.contains(x + OFFSETS_X[k], y + OFFSETS_Y[k])) {
+                        updateCell(grid.index(x + OFFSETS_X[k], y + OFFSETS_Y[k]));
+                    }
+                }
+            }
+        }
+        changedCells.clear();
+    }
+
+    private void initialize () {
+        Arrays.fill(g, INFINITY);
+        Arrays.fill(rhs, INFINITY);
+        openedCells.clear();
+        km = 0;
+        lastStartCell = startCell;
+        lastEndCell = endCell;
+
+        int endIndex = toIndex(endCell);
+        rhs[endIndex] = 0;
+        openedCells.add(endIndex, countKey(endIndex));
+        isInitialized = true;
+    }
+
+    // Один шаг ComputeShortestPath; когда старт согласован, по g восстанавливается путь
+    @Override
+    protected int stepAlgorithm () {
+        int startIndex = toIndex(startCell);
+
+        if (openedCells.isEmpty()
+                || (openedCells.getMinKey() >= countKey(startIndex) && rhs[startIndex] <= g[startIndex])) {
+            if (rhs[startIndex] >= INFINITY) {
+                return STEP_NO_PATH;
+            }
+            return extractPath() ? STEP_PATH_FOUND : STEP_NO_PATH;
+        }
+
+        statistics.beginSelection();
+        int cell = openedCells.peek();
+        long oldKey = openedCells.getMinKey();
+        long newKey = countKey(cell);
+
+        if (oldKey < newKey) {
+            openedCells.update(cell, newKey);
+            statistics.endSelection();
+            return STEP_RUNNING;
+        }
+
+        statistics.beginExpansion();
+        if (g[cell] > rhs[cell]) {
+            g[cell] = rhs[cell];
+            openedCells.remove(cell);
+            grid.setState(cell, Grid.STATE_CLOSED);
+            updateNeighbours(cell);
+
+        } else {
+            g[cell] = INFINITY;
+            openedCells.remove(cell);
+            grid.setState(cell, Grid.STATE_CLOSED);
+            updateCell(cell);
+            updateNeighbours(cell);
+        }
+        statistics.endExpansion(openedCells.size());
+        return STEP_RUNNING;
+    }
+
+    private void updateNeighbours (int cell) {
+        int x = grid.x(cell);
+        int y = grid.y(cell);
+        for (int k = 0; k < OFFSETS_X.length; k++) {
+            int neighbourX = x + OFFSETS_X[k];
+            int neighbourY = y + OFFSETS_Y[k];
+            if (grid.contains(neighbourX, neighbourY)) {
+                updateCell(grid.index(neighbourX, neighbourY));
+            }
+        }
+    }
+
+    private void updateCell (int cell) {
+        if (cell != toIndex(endCell)) {
+            rhs[cell] = countRhs(cell);
+        }
+
+        if (g[cell] != rhs[cell]) {
+            if (!openedCells.contains(cell)) {
+                statistics.onGenerated();
+                if (grid.isClosed(cell)) {
+                    statistics.onReopened();
+                }
+            }
+            openedCells.add(cell, countKey(cell));
+            grid.setState(cell, Grid.STATE_OPENED);
+        } else if (openedCells.contains(cell)) {
+            openedCells.remove(cell);
+        }
+    }
+
+    private int countRhs (int cell) {
+        int x = grid.x(cell);
+        int y = grid.y(cell);
+        int minRhs = INFINITY;
+
+        for (int k = 0; k < OFFSETS_X.length; k++) {
+            int cost = countTransfer(x, y, OFFSETS_X[k], OFFSETS_Y[k]);
+            if (cost == INFINITY) {
+                continue;
+            }
+            int neighbourG = g[grid.index(x + OFFSETS_X[k], y + OFFSETS_Y[k])];
+            if (neighbourG < INFINITY) {
+                minRhs = Math.min(minRhs, cost + neighbourG);
+            }
+        }
+        return minRhs;
+    }
+
+    private int countTransfer (int x, int y, int dx, int dy) {
+        if (!isWalkable(x, y) || !isWalkable(x + dx, y + dy)) {
+            return INFINITY;
+        }
+        if (dx != 0 && dy != 0) {
+            return isCornerCut(x, y, dx, dy) ? INFINITY : DIAGONAL_TRANSFER;
+        }
+        return DIRECT_TRANSFER;
+    }
+
+    private long countKey (int cell) {
+        long minG = Math.min(g[cell], rhs[cell]);
+        long k1 = minG + countHeuristic(toIndex(startCell), cell) + km;
+        return (k1 << 32) | minG;
+    }
+
+    // Октильное расстояние согласовано со стоимостями 10/14, поэтому вес эвристики здесь не применяется
+    private int countHeuristic (int from, int to) {
+        int dx = Math.abs(grid.x(from) - grid.x(to));
+        int dy = Math.abs(grid.y(from) - grid.y(to));
+        statistics.onHeuristicEvaluated();
+        return DIRECT_TRANSFER * Math.max(dx, dy) + (DIAGONAL_TRANSFER - DIRECT_TRANSFER) * Math.min(dx, dy);
+    }
+
+    // Путь идёт от старта по соседям с минимальным c + g и записывается в цепочку родителей от старта к финишу
+    private boolean extractPath () {
+        int startIndex = toIndex(startCell);
+        int endIndex = toIndex(endCell);
+
+        grid.setParent(startIndex, Grid.NO_PARENT);
+        grid.setG(startIndex, 0);
+
+        int cell = startIndex;
+        for (int steps = 0; cell != endIndex; steps++) {
+            if (steps > grid.size()) {
+                return false;
+            }
+
+            int x = grid.x(cell);
+            int y = grid.y(cell);
+            int nextCell = -1;
+            int nextCost = INFINITY;
+            int nextTransfer = 0;
+
+            for (int k = 0; k < OFFSETS_X.length; k++) {
+                int transfer = countTransfer(x, y, OFFSETS_X[k], OFFSETS_Y[k]);
+                if (transfer == INFINITY) {
+                    continue;
+                }
+                int neighbour = grid.index(x + OFFSETS_X[k], y + OFFSETS_Y[k]);
+                if (g[neighbour] < INFINITY && transfer + g[neighbour] < nextCost) {
+                    nextCost = transfer + g[neighbour];
+                    nextCell = neighbour;
+                    nextTransfer = transfer;
+                }
+            }
+            if (nextCell == -1) {
+                return false;
+            }
+
+            grid.setParent(nextCell, cell);
+            grid.setG(nextCell, grid.getG(cell) + nextTransfer);
+            cell = nextCell;
+        }
+        return true;
+    }
+
+    // Изменилось слишком много ячеек, чтобы чинить старое решение: следующий поиск начнётся заново
+    @Override
+    public void copyWalls (GridAlgorithm source) {
+        super.copyWalls(source);
+        changedCells.clear();
+        isInitialized = false;
+    }
+
+    @Override
+    public void setCell (int i, int j, Cell cell) {
+        boolean isWall = grid.isWall(i, j);
+        super.setCell(i, j, cell);
+        if (isWall != grid.isWall(i, j)) {
+            changedCells.add(grid.index(i, j));
+        }
+    }
+
+    @Override
+    public void setStartCell (Point startCell) {
+        if (grid.isWall(startCell.x, startCell.y)) {
+            changedCells.add(toIndex(startCell));
+        }
+        super.setStartCell(startCell);
+    }
+
+    @Override
+    public void setEndCell (Point endCell) {
+        if (grid.isWall(endCell.x, endCell.y)) {
+            changedCells.add(toIndex(endCell));
+        }
+        super.setEndCell(endCell);
+    }
+}
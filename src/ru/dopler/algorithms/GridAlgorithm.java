@@ -0,0 +1,477 @@
+package ru.dopler.algorithms;
+
+import ru.dopler.cells.*;
+import ru.dopler.grid.ConnectedComponents;
+import ru.dopler.grid.DenseGrid;
+import ru.dopler.grid.Grid;
+
+import jdk.jfr.EventType;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+public abstract class GridAlgorithm implements Algorithm {
+
+    protected static final int DIRECT_TRANSFER = 10;
+    protected static final int DIAGONAL_TRANSFER = 14;
+
+    protected static final int STEP_RUNNING = 0;
+    protected static final int STEP_PATH_FOUND = 1;
+    protected static final int STEP_NO_PATH = 2;
+
+    private static final EventType SEARCH_EVENT_TYPE = EventType.getEventType(SearchEvent.class);
+
+    protected final int width;
+    protected final int height;
+
+    protected int weight;
+
+    protected Point startCell;
+    protected Point endCell;
+
+    protected final Grid grid;
+
+    protected final SearchStatistics statistics = new SearchStatistics();
+
+    private volatile boolean isProcess = false;
+
+    private SearchEvent event;
+
+    private volatile AlgorithmListener listener;
+
+    // Рабочее состояние потока поиска; наружу оно попадает только через snapshot
+    private boolean isPathFind = false;
+    private List<Point> path = new ArrayList<>();
+    private int pathLength = 0;
+    private double suboptimalityBound = Double.NaN;
+
+    private volatile SearchSnapshot snapshot = SearchSnapshot.EMPTY;
+
+    private volatile LandmarkHeuristic landmarks = null;
+
+    private volatile ConnectedComponents components = null;
+
+    protected GridAlgorithm (int width, int height, int weight) {
+        this(new DenseGrid(width, height), weight);
+    }
+
+    protected GridAlgorithm (Grid grid, int weight) {
+        this.width = grid.getWidth();
+        this.height = grid.getHeight();
+        this.weight = weight;
+        this.grid = grid;
+
+        initField();
+    }
+
+    private void initField () {
+        startCell = new Point(1, height / 2);
+        endCell = new Point(width - 2, height / 2);
+    }
+
+    @Override
+    public void start () {
+        begin();
+        while (step(Integer.MAX_VALUE)) {
+        }
+    }
+
+    @Override
+    public void begin () {
+        isProcess = true;
+        isPathFind = false;
+        path = new ArrayList<>();
+        pathLength = 0;
+        suboptimalityBound = Double.NaN;
+        statistics.clear();
+        event = SEARCH_EVENT_TYPE.isEnabled() ? new SearchEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+
+        // Цель в другой компоненте связности: поиск не запускается, а не обходит всю достижимую область
+        ConnectedComponents currentComponents = components;
+        if (currentComponents != null && !currentComponents.isConnected(toIndex(startCell), toIndex(endCell))) {
+            finish(false);
+            return;
+        }
+
+        long startNanos = System.nanoTime();
+        initAlgorithm();
+        statistics.addSearchNanos(System.nanoTime() - startNanos);
+        publishSnapshot();
+    }
+
+    @Override
+    public boolean step (int steps) {
+        if (!isProcess) {
+            return false;
+        }
+
+        long startNanos = System.nanoTime();
+        int result = STEP_RUNNING;
+        for (int i = 0; i < steps && result == STEP_RUNNING; i++) {
+            result = stepAlgorithm();
+        }
+
+        // Поиск с улучшением решения мог уже опубликовать путь, и тогда он окончательный
+        if (result == STEP_PATH_FOUND && !isPathFind) {
+            long reconstructionStartNanos = System.nanoTime();
+            countPath();
+            statistics.setReconstructionNanos(System.nanoTime() - reconstructionStartNanos);
+        }
+        statistics.addSearchNanos(System.nanoTime() - startNanos);
+
+        if (result != STEP_RUNNING) {
+            finish(result == STEP_PATH_FOUND);
+        } else {
+            publishSnapshot();
+        }
+        return isProcess;
+    }
+
+    private void finish (boolean isPathFind) {
+        this.isPathFind = isPathFind;
+        snapshot = new SearchSnapshot(false, isPathFind, pathLength, path, statistics.getExpandedNodes(),
+                statistics.getGeneratedNodes(), statistics.getPeakOpenSetSize(), suboptimalityBound);
+        notifyPathChanged();
+        SearchCounters.getInstance().record(statistics, isPathFind);
+        if (event != null) {
+            commitEvent(event);
+            event = null;
+        }
+        isProcess = false;
+    }
+
+    private void commitEvent (SearchEvent event) {
+        event.end();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        event.algorithm = getClass().getSimpleName();
+        event.startX = startCell.x;
+        event.startY = startCell.y;
+        event.endX = endCell.x;
+        event.endY = endCell.y;
+        event.isPathFind = isPathFind;
+        event.pathLength = pathLength;
+        event.expandedNodes = statistics.getExpandedNodes();
+        event.generatedNodes = statistics.getGeneratedNodes();
+        event.reopenedNodes = statistics.getReopenedNodes();
+        event.peakOpenSetSize = statistics.getPeakOpenSetSize();
+        event.heuristicEvaluations = statistics.getHeuristicEvaluations();
+        event.selectionNanos = statistics.getSelectionNanos();
+        event.expansionNanos = statistics.getExpansionNanos();
+        event.reconstructionNanos = statistics.getReconstructionNanos();
+        event.commit();
+    }
+
+    private void publishSnapshot () {
+        snapshot = new SearchSnapshot(true, isPathFind, pathLength, path, statistics.getExpandedNodes(),
+                statistics.getGeneratedNodes(), statistics.getPeakOpenSetSize(), suboptimalityBound);
+    }
+
+    // Промежуточный путь поиска с улучшением решения: собирается сразу, читатели видят его со следующим срезом
+    protected void publishPath (double suboptimalityBound) {
+        long reconstructionStartNanos = System.nanoTime();
+        countPath();
+        statistics.setReconstructionNanos(System.nanoTime() - reconstructionStartNanos);
+        this.isPathFind = true;
+        this.suboptimalityBound = suboptimalityBound;
+        notifyPathChanged();
+    }
+
+    protected abstract void initAlgorithm ();
+
+    // Одно раскрытие узла: STEP_RUNNING, пока поиск не завершён
+    protected abstract int stepAlgorithm ();
+
+    // Соседние точки цепочки родителей лежат на одной прямой или диагонали, промежуточные ячейки достраиваются.
+    // Путь собирается в новый список, потому что прежний мог уйти читателям в срезе
+    protected void countPath () {
+        int startIndex = toIndex(startCell);
+        int currentIndex = toIndex(endCell);
+
+        path = new ArrayList<>();
+        pathLength = grid.getG(currentIndex);
+        path.add(endCell);
+
+        while (currentIndex != startIndex) {
+            int parentIndex = grid.getParent(currentIndex);
+            int x = grid.x(currentIndex);
+            int y = grid.y(currentIndex);
+            int dx = Integer.signum(grid.x(parentIndex) - x);
+            int dy = Integer.signum(grid.y(parentIndex) - y);
+
+            while (grid.index(x, y) != parentIndex) {
+                x += dx;
+                y += dy;
+                path.add(new Point(x, y));
+            }
+            currentIndex = parentIndex;
+        }
+    }
+
+    // Для алгоритмов, которые хранят цепочку родителей не в сетке и собирают путь сами
+    protected void setPath (List<Point> path, int pathLength) {
+        this.path = path;
+        this.pathLength = pathLength;
+    }
+
+    protected int toIndex (Point cell) {
+        return grid.index(cell.x, cell.y);
+    }
+
+    protected Point toPoint (int index) {
+        return new Point(grid.x(index), grid.y(index));
+    }
+
+    protected boolean isWalkable (int x, int y) {
+        return grid.contains(x, y) && !grid.isWall(x, y);
+    }
+
+    protected boolean isCornerCut (int x, int y, int dx, int dy) {
+        return grid.isWall(x + dx, y) || grid.isWall(x, y + dy);
+    }
+
+    protected double countH (int x, int y) {
+        return countH(x, y, endCell);
+    }
+
+    protected double countH (int x, int y, Point targetCell) {
+        statistics.onHeuristicEvaluated();
+        return heuristic(x, y, targetCell);
+    }
+
+    private double heuristic (int x, int y, Point targetCell) {
+        // Манхетонское расстояние
+        //int H = Math.abs(targetCell.x - x) + Math.abs(targetCell.y - y);
+
+        // Евкилидово расстояние: диагональ 10 * sqrt(2) дороже DIAGONAL_TRANSFER, и оценка недопустима
+        //double H = Math.sqrt((targetCell.x - x) * (targetCell.x - x) + (targetCell.y - y) * (targetCell.y - y));
+
+        // Октильное расстояние в единицах стоимости перехода: ровно стоимость пути по пустому полю,
+        // поэтому при весе DIRECT_TRANSFER оценка допустима и согласована
+        int dx = Math.abs(targetCell.x - x);
+        int dy = Math.abs(targetCell.y - y);
+        int H = DIRECT_TRANSFER * Math.max(dx, dy) + (DIAGONAL_TRANSFER - DIRECT_TRANSFER) * Math.min(dx, dy);
+
+        // Оценка ориентиров в тех же единицах
+        LandmarkHeuristic currentLandmarks = landmarks;
+        if (currentLandmarks != null) {
+            H = Math.max(H, currentLandmarks.estimate(grid.index(x, y), toIndex(targetCell)));
+        }
+        return (double) H * weight / DIRECT_TRANSFER;
+    }
+
+    // Таблицы строятся по текущим стенам; снятая стена может укоротить пути, и тогда они сбрасываются
+    public void setLandmarks (LandmarkHeuristic landmarks) {
+        this.landmarks = landmarks;
+    }
+
+    public LandmarkHeuristic getLandmarks () {
+        return landmarks;
+    }
+
+    // Компоненты строятся по текущим стенам и дальше обновляются при каждом изменении ячейки
+    public void setComponents (ConnectedComponents components) {
+        this.components = components;
+    }
+
+    public ConnectedComponents getComponents () {
+        return components;
+    }
+
+    // Стены другого поиска того же размера одним копированием вместо setCell по каждой ячейке. Старт и финиш
+    // остаются свободными, ориентиры и компоненты связности сбрасываются
+    public void copyWalls (GridAlgorithm source) {
+        grid.copyWalls(source.grid);
+        landmarks = null;
+        components = null;
+        grid.setWall(toIndex(startCell), false);
+        grid.setWall(toIndex(endCell), false);
+    }
+
+    private void setWall (int index, boolean isWall) {
+        if (grid.isWall(index) == isWall) {
+            return;
+        }
+        if (!isWall) {
+            landmarks = null;
+        }
+        grid.setWall(index, isWall);
+
+        ConnectedComponents currentComponents = components;
+        if (currentComponents != null) {
+            currentComponents.onWallChanged(index);
+        }
+    }
+
+    @Override
+    public void reset () {
+        grid.clearSearchState();
+        statistics.clear();
+
+        isProcess = false;
+        event = null;
+        isPathFind = false;
+        path = new ArrayList<>();
+        pathLength = 0;
+        suboptimalityBound = Double.NaN;
+        snapshot = SearchSnapshot.EMPTY;
+        notifyPathChanged();
+    }
+
+    @Override
+    public Cell getCell (int i, int j) {
+        int index = grid.index(i, j);
+        if (grid.isWall(index)) {
+            return new Wall();
+        }
+
+        Point point = new Point(i, j);
+        int g = grid.getG(index);
+        double h = grid.getState(index) == Grid.STATE_NONE ? 0 : heuristic(i, j, endCell);
+
+        Cell cell;
+        if (point.equals(startCell)) {
+            StartCell startFieldCell = new StartCell();
+            startFieldCell.setG(g);
+            startFieldCell.setH(h);
+            cell = startFieldCell;
+
+        } else if (point.equals(endCell)) {
+            EndCell endFieldCell = new EndCell();
+            endFieldCell.setG(g);
+            endFieldCell.setH(0);
+            cell = endFieldCell;
+
+        } else {
+            EmptyCell emptyCell = new EmptyCell();
+            emptyCell.setG(g);
+            emptyCell.setH(h);
+            cell = emptyCell;
+        }
+
+        int parent = grid.getParent(index);
+        if (parent != Grid.NO_PARENT) {
+            cell.setParent(toPoint(parent));
+        }
+        cell.setOpened(grid.isOpened(index));
+        cell.setClosed(grid.isClosed(index));
+
+        return cell;
+    }
+
+    @Override
+    public void setCell (int i, int j, Cell cell) {
+        if (cell instanceof StartCell) {
+            setStartCell(new Point(i, j));
+
+        } else if (cell instanceof EndCell) {
+            setEndCell(new Point(i, j));
+
+        } else {
+            Point point = new Point(i, j);
+            if (point.equals(startCell) || point.equals(endCell)) {
+                return;
+            }
+            setWall(grid.index(i, j), cell instanceof Wall);
+        }
+    }
+
+    @Override
+    public Point getStartCell () {
+        return startCell;
+    }
+
+    @Override
+    public void setStartCell (Point startCell) {
+        if (grid.isWall(toIndex(startCell))) {
+            setWall(toIndex(startCell), false);
+        }
+        Point oldStartCell = this.startCell;
+        this.startCell = startCell;
+        notifyCellsChanged(oldStartCell, startCell);
+    }
+
+    @Override
+    public Point getEndCell () {
+        return endCell;
+    }
+
+    @Override
+    public void setEndCell (Point endCell) {
+        if (grid.isWall(toIndex(endCell))) {
+            setWall(toIndex(endCell), false);
+        }
+        Point oldEndCell = this.endCell;
+        this.endCell = endCell;
+        notifyCellsChanged(oldEndCell, endCell);
+    }
+
+    @Override
+    public void setListener (AlgorithmListener listener) {
+        this.listener = listener;
+        grid.setListener(listener);
+    }
+
+    private void notifyCellsChanged (Point oldCell, Point newCell) {
+        AlgorithmListener currentListener = listener;
+        if (currentListener != null) {
+            currentListener.cellChanged(toIndex(oldCell));
+            currentListener.cellChanged(toIndex(newCell));
+        }
+    }
+
+    private void notifyPathChanged () {
+        AlgorithmListener currentListener = listener;
+        if (currentListener != null) {
+            currentListener.pathChanged();
+        }
+    }
+
+    public Grid getGrid () {
+        return grid;
+    }
+
+    @Override
+    public SearchStatistics getStatistics () {
+        return statistics;
+    }
+
+    public int countExpandedCells () {
+        return grid.countClosedCells();
+    }
+
+    @Override
+    public boolean isProcess () {
+        return isProcess;
+    }
+
+    @Override
+    public boolean isPathFind () {
+        return snapshot.isPathFind();
+    }
+
+    @Override
+    public int getPathLength () {
+        return snapshot.getPathLength();
+    }
+
+    @Override
+    public List<Point> getPath () {
+        return snapshot.getPath();
+    }
+
+    @Override
+    public SearchSnapshot getSnapshot () {
+        return snapshot;
+    }
+
+    @Override
+    public void setWeight (int weight) {
+        this.weight = weight;
+    }
+}
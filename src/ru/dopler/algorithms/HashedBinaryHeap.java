@@ -0,0 +1,210 @@
+package ru.dopler.algorithms;
+
+import java.util.Arrays;
+
+// Двоичная куча с decrease-key, у которой позиции ячеек хранятся в хеш-таблице, а не в массиве
+// на всю сетку: память пропорциональна размеру открытого списка, а не площади поля
+public class HashedBinaryHeap implements OpenSet {
+
+    private static final int ABSENT = -1;
+    private static final int EMPTY_SLOT = -1;
+
+    private int[] heap;
+    private double[] keys;
+    private int size = 0;
+
+    // Открытая адресация с линейным пробированием
+    private int[] slotCells;
+    private int[] slotPositions;
+    private int slotShift;
+
+    public HashedBinaryHeap () {
+        this(1024);
+    }
+
+    public HashedBinaryHeap (int initialCapacity) {
+        int capacity = Math.max(16, Integer.highestOneBit(initialCapacity - 1) << 1);
+        heap = new int[capacity];
+        keys = new double[capacity];
+        allocateSlots(2 * capacity);
+    }
+
+    @Override
+    public void add (int cell, double f) {
+        if (contains(cell)) {
+            decreaseKey(cell, f);
+            return;
+        }
+
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+            keys = Arrays.copyOf(keys, size * 2);
+            rehash(4 * size);
+        }
+        heap[size] = cell;
+        keys[size] = f;
+        siftUp(size++);
+    }
+
+    @Override
+    public boolean contains (int cell) {
+        return getPosition(cell) != ABSENT;
+    }
+
+    @Override
+    public void decreaseKey (int cell, double f) {
+        int position = getPosition(cell);
+        if (f >= keys[position]) {
+            return;
+        }
+        keys[position] = f;
+        siftUp(position);
+    }
+
+    @Override
+    public int poll () {
+        if (size == 0) {
+            throw new IllegalStateException("Open set is empty");
+        }
+
+        int minCell = heap[0];
+        removePosition(minCell);
+
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            keys[0] = keys[size];
+            siftDown(0);
+        }
+
+        return minCell;
+    }
+
+    @Override
+    public double getMinKey () {
+        if (size == 0) {
+            throw new IllegalStateException("Open set is empty");
+        }
+        return keys[0];
+    }
+
+    @Override
+    public boolean isEmpty () {
+        return size == 0;
+    }
+
+    @Override
+    public int size () {
+        return size;
+    }
+
+    @Override
+    public void clear () {
+        Arrays.fill(slotCells, EMPTY_SLOT);
+        size = 0;
+    }
+
+    private void siftUp (int index) {
+        int cell = heap[index];
+        double key = keys[index];
+
+        while (index > 0) {
+            int parentIndex = (index - 1) >>> 1;
+            if (keys[parentIndex] <= key) {
+                break;
+            }
+            heap[index] = heap[parentIndex];
+            keys[index] = keys[parentIndex];
+            setPosition(heap[index], index);
+            index = parentIndex;
+        }
+
+        heap[index] = cell;
+        keys[index] = key;
+        setPosition(cell, index);
+    }
+
+    private void siftDown (int index) {
+        int cell = heap[index];
+        double key = keys[index];
+        int half = size >>> 1;
+
+        while (index < half) {
+            int childIndex = 2 * index + 1;
+            int rightIndex = childIndex + 1;
+            if (rightIndex < size && keys[rightIndex] < keys[childIndex]) {
+                childIndex = rightIndex;
+            }
+
+            if (key <= keys[childIndex]) {
+                break;
+            }
+            heap[index] = heap[childIndex];
+            keys[index] = keys[childIndex];
+            setPosition(heap[index], index);
+            index = childIndex;
+        }
+
+        heap[index] = cell;
+        keys[index] = key;
+        setPosition(cell, index);
+    }
+
+    private int getPosition (int cell) {
+        int slot = findSlot(cell);
+        return slotCells[slot] == cell ? slotPositions[slot] : ABSENT;
+    }
+
+    private void setPosition (int cell, int position) {
+        int slot = findSlot(cell);
+        slotCells[slot] = cell;
+        slotPositions[slot] = position;
+    }
+
+    // Освободившийся слот заполняется следующими элементами цепочки, чтобы поиск не обрывался на дыре
+    private void removePosition (int cell) {
+        int mask = slotCells.length - 1;
+        int slot = findSlot(cell);
+        slotCells[slot] = EMPTY_SLOT;
+
+        int next = (slot + 1) & mask;
+        while (slotCells[next] != EMPTY_SLOT) {
+            int home = hash(slotCells[next]);
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                slotCells[slot] = slotCells[next];
+                slotPositions[slot] = slotPositions[next];
+                slotCells[next] = EMPTY_SLOT;
+                slot = next;
+            }
+            next = (next + 1) & mask;
+        }
+    }
+
+    private int findSlot (int cell) {
+        int mask = slotCells.length - 1;
+        int slot = hash(cell);
+        while (slotCells[slot] != EMPTY_SLOT && slotCells[slot] != cell) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private int hash (int cell) {
+        return (cell * 0x9E3779B9) >>> slotShift;
+    }
+
+    private void allocateSlots (int slots) {
+        slotCells = new int[slots];
+        slotPositions = new int[slots];
+        slotShift = Integer.numberOfLeadingZeros(slots) + 1;
+        Arrays.fill(slotCells, EMPTY_SLOT);
+    }
+
+    // Позиции в куче известны, поэтому таблица строится заново по массиву кучи
+    private void rehash (int slots) {
+        allocateSlots(slots);
+        for (int position = 0; position < size; position++) {
+            setPosition(heap[position], position);
+        }
+    }
+}
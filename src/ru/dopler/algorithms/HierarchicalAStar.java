@@ -0,0 +1,669 @@
+package ru.dopler.algorithms;
+
+import ru.dopler.cells.Cell;
+import ru.dopler.grid.Grid;
+
+import java.awt.*;
+import java.util.*;
+import java.util.List;
+
+public class HierarchicalAStar extends GridAlgorithm {
+
+    private static final int DEFAULT_CLUSTER_SIZE = 16;
+    private static final int MAX_SINGLE_TRANSITION_LENGTH = 6;
+
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+    private static final int NO_TARGET = -1;
+    private static final int NO_NODE = -1;
+
+    private static final int START_NODE = 0;
+    private static final int END_NODE = 1;
+    private static final int[] NO_EDGES = new int[0];
+
+    private final int clusterSize;
+    private final int clustersX;
+    private final int clustersY;
+
+    private final int[][] eastTransitions;
+    private final int[][] southTransitions;
+    private final int[][] clusterNodes;
+
+    private final Map<Integer, Integer> nodeIds = new HashMap<>();
+    private final Deque<Integer> freeNodeIds = new ArrayDeque<>();
+    private int nodeCapacity = 0;
+    private int nodeCount = 2;
+    private int[] nodeCells = new int[0];
+    private int[][] nodeTargets = new int[0][];
+    private int[][] nodeCosts = new int[0][];
+
+    private final boolean[] dirtyClusters;
+    private boolean isGraphDirty = true;
+
+    private int[] searchG;
+    private int[] searchParents;
+    private int[] searchStamps;
+    private int[] endDistances;
+    private int searchGeneration = 0;
+    private OpenSet openedNodes;
+
+    // Локальный поиск идёт в прямоугольнике со стороной до localStride: кластер или окно сглаживания пути
+    private final int localStride;
+    private final int smoothingWindow;
+    private final int smoothingMargin;
+    private final int[] localDistances;
+    private final int[] localParents;
+    private final OpenSet localOpenedCells;
+
+    public HierarchicalAStar (int width, int height, int weight) {
+        this(width, height, weight, DEFAULT_CLUSTER_SIZE);
+    }
+
+    public HierarchicalAStar (int width, int height, int weight, int clusterSize) {
+        super(width, height, weight);
+        this.clusterSize = clusterSize;
+        clustersX = (width + clusterSize - 1) / clusterSize;
+        clustersY = (height + clusterSize - 1) / clusterSize;
+
+        int clusterCount = clustersX * clustersY;
+        eastTransitions = new int[clusterCount][];
+        southTransitions = new int[clusterCount][];
+        clusterNodes = new int[clusterCount][];
+        dirtyClusters = new boolean[clusterCount];
+        Arrays.fill(dirtyClusters, true);
+
+        // Окно из smoothingWindow шагов пути с полями по smoothingMargin со всех сторон помещается в localStride
+        localStride = 2 * clusterSize;
+        smoothingWindow = clusterSize;
+        smoothingMargin = (localStride - smoothingWindow - 1) / 2;
+        localDistances = new int[localStride * localStride];
+        localParents = new int[localStride * localStride];
+        localOpenedCells = new IndexedBinaryHeap(localStride * localStride);
+
+        ensureNodeCapacity(2);
+    }
+
+    @Override
+    protected void initAlgorithm () {
+        updateAbstractGraph();
+        resetSearchState();
+
+        int startIndex = toIndex(startCell);
+        int endIndex = toIndex(endCell);
+        int startCluster = clusterOf(startIndex);
+        int endCluster = clusterOf(endIndex);
+        nodeCells[START_NODE] = startIndex;
+        nodeCells[END_NODE] = endIndex;
+
+        searchCluster(endCluster, endIndex, NO_TARGET);
+        for (int node : clusterNodes[endCluster]) {
+            endDistances[node] = localDistances[toLocalIndex(endCluster, nodeCells[node])];
+        }
+
+        searchCluster(startCluster, startIndex, NO_TARGET);
+        touchNode(START_NODE);
+        searchG[START_NODE] = 0;
+        openedNodes.add(START_NODE, countH(startCell.x, startCell.y));
+    }
+
+    @Override
+    protected int stepAlgorithm () {
+        if (openedNodes.isEmpty()) {
+            return STEP_NO_PATH;
+        }
+
+        int endIndex = toIndex(endCell);
+        int startCluster = clusterOf(toIndex(startCell));
+        int endCluster = clusterOf(endIndex);
+
+        statistics.beginSelection();
+        int selectedNode = openedNodes.poll();
+        statistics.beginExpansion();
+        searchStamps[selectedNode] = -searchGeneration;
+
+        if (selectedNode == END_NODE) {
+            statistics.endExpansion(openedNodes.size());
+            refinePath();
+            return STEP_PATH_FOUND;
+        }
+
+        if (selectedNode == START_NODE) {
+            for (int node : clusterNodes[startCluster]) {
+                int distance = localDistances[toLocalIndex(startCluster, nodeCells[node])];
+                if (distance != UNREACHABLE) {
+                    relax(START_NODE, node, distance);
+                }
+            }
+            if (startCluster == endCluster && localDistances[toLocalIndex(startCluster, endIndex)] != UNREACHABLE) {
+                relax(START_NODE, END_NODE, localDistances[toLocalIndex(startCluster, endIndex)]);
+            }
+
+        } else {
+            int[] targets = nodeTargets[selectedNode];
+            int[] costs = nodeCosts[selectedNode];
+            for (int k = 0; k < targets.length; k++) {
+                relax(selectedNode, targets[k], costs[k]);
+            }
+            if (endDistances[selectedNode] != UNREACHABLE && clusterOf(nodeCells[selectedNode]) == endCluster) {
+                relax(selectedNode, END_NODE, endDistances[selectedNode]);
+            }
+        }
+        statistics.endExpansion(openedNodes.size());
+        return STEP_RUNNING;
+    }
+
+    // Отрицательная метка поколения означает закрытый узел
+    private void relax (int node, int target, int cost) {
+        if (searchStamps[target] == -searchGeneration) {
+            return;
+        }
+
+        int summaryG = searchG[node] + cost;
+        if (searchStamps[target] == searchGeneration) {
+            if (summaryG < searchG[target]) {
+                searchParents[target] = node;
+                searchG[target] = summaryG;
+                openedNodes.decreaseKey(target, summaryG + countNodeH(target));
+            }
+        } else {
+            touchNode(target);
+            statistics.onGenerated();
+            searchParents[target] = node;
+            searchG[target] = summaryG;
+            openedNodes.add(target, summaryG + countNodeH(target));
+        }
+    }
+
+    private void touchNode (int node) {
+        searchStamps[node] = searchGeneration;
+    }
+
+    private double countNodeH (int node) {
+        int cell = nodeCells[node];
+        return countH(grid.x(cell), grid.y(cell));
+    }
+
+    private void resetSearchState () {
+        searchGeneration++;
+        if (searchGeneration == Integer.MAX_VALUE) {
+            Arrays.fill(searchStamps, 0);
+            searchGeneration = 1;
+        }
+        openedNodes.clear();
+        Arrays.fill(endDistances, UNREACHABLE);
+    }
+
+    // Переходы абстрактного пути уточняются поиском внутри кластера, путь сглаживается и записывается в цепочку родителей
+    private void refinePath () {
+        List<Integer> abstractPath = new ArrayList<>();
+        for (int node = END_NODE; node != START_NODE; node = searchParents[node]) {
+            abstractPath.add(nodeCells[node]);
+        }
+        abstractPath.add(nodeCells[START_NODE]);
+        Collections.reverse(abstractPath);
+
+        List<Integer> cells = new ArrayList<>();
+        Map<Integer, Integer> positions = new HashMap<>();
+        appendCell(cells, positions, abstractPath.get(0));
+
+        for (int k = 1; k < abstractPath.size(); k++) {
+            int from = abstractPath.get(k - 1);
+            int to = abstractPath.get(k);
+            int cluster = clusterOf(from);
+
+            if (cluster == clusterOf(to)) {
+                searchCluster(cluster, from, to);
+                for (int cell : collectSegment(clusterX0(cluster), clusterY0(cluster), from, to)) {
+                    appendCell(cells, positions, cell);
+                }
+            } else {
+                appendCell(cells, positions, to);
+            }
+        }
+        cells = smoothPath(cells);
+
+        int startIndex = cells.get(0);
+        grid.setParent(startIndex, Grid.NO_PARENT);
+        grid.setG(startIndex, 0);
+        grid.setState(startIndex, Grid.STATE_CLOSED);
+        for (int k = 1; k < cells.size(); k++) {
+            int parent = cells.get(k - 1);
+            int cell = cells.get(k);
+            grid.setParent(cell, parent);
+            grid.setG(cell, grid.getG(parent) + transferCost(parent, cell));
+            grid.setState(cell, Grid.STATE_CLOSED);
+        }
+    }
+
+    // Путь через входы кластеров огибает их границы: каждое окно из smoothingWindow шагов заменяется кратчайшим
+    // путём между его концами внутри окна с полями. Окна перекрываются наполовину, чтобы крюк на стыке двух окон
+    // тоже попал целиком в одно из них
+    private List<Integer> smoothPath (List<Integer> cells) {
+        int first = 0;
+        while (first < cells.size() - 1) {
+            int last = Math.min(first + smoothingWindow, cells.size() - 1);
+
+            int windowCost = 0;
+            int x0 = width;
+            int y0 = height;
+            int x1 = 0;
+            int y1 = 0;
+            for (int k = first; k <= last; k++) {
+                if (k > first) {
+                    windowCost += transferCost(cells.get(k - 1), cells.get(k));
+                }
+                x0 = Math.min(x0, grid.x(cells.get(k)));
+                y0 = Math.min(y0, grid.y(cells.get(k)));
+                x1 = Math.max(x1, grid.x(cells.get(k)));
+                y1 = Math.max(y1, grid.y(cells.get(k)));
+            }
+            x0 = Math.max(0, x0 - smoothingMargin);
+            y0 = Math.max(0, y0 - smoothingMargin);
+            x1 = Math.min(width, x1 + smoothingMargin + 1);
+            y1 = Math.min(height, y1 + smoothingMargin + 1);
+
+            int from = cells.get(first);
+            int to = cells.get(last);
+            searchArea(x0, y0, x1, y1, from, to);
+            if (localDistances[toLocalIndex(x0, y0, to)] < windowCost) {
+                List<Integer> segment = collectSegment(x0, y0, from, to);
+                List<Integer> window = cells.subList(first + 1, last + 1);
+                window.clear();
+                window.addAll(segment);
+                last = first + segment.size();
+            }
+            first = last == cells.size() - 1 ? last : Math.max(first + 1, (first + last) / 2);
+        }
+
+        // Замена окна могла пройти через ячейку дальше по пути, и такие петли вырезаются
+        List<Integer> smoothedCells = new ArrayList<>();
+        Map<Integer, Integer> positions = new HashMap<>();
+        for (int cell : cells) {
+            appendCell(smoothedCells, positions, cell);
+        }
+        return smoothedCells;
+    }
+
+    // Ячейки после from до to включительно по родителям последнего локального поиска
+    private List<Integer> collectSegment (int x0, int y0, int from, int to) {
+        List<Integer> segment = new ArrayList<>();
+        int fromLocal = toLocalIndex(x0, y0, from);
+        for (int local = toLocalIndex(x0, y0, to); local != fromLocal; local = localParents[local]) {
+            segment.add(toGlobalIndex(x0, y0, local));
+        }
+        Collections.reverse(segment);
+        return segment;
+    }
+
+    private void appendCell (List<Integer> cells, Map<Integer, Integer> positions, int cell) {
+        Integer position = positions.get(cell);
+        if (position != null) {
+            while (cells.size() > position + 1) {
+                positions.remove(cells.remove(cells.size() - 1));
+            }
+            return;
+        }
+        positions.put(cell, cells.size());
+        cells.add(cell);
+    }
+
+    private int transferCost (int from, int to) {
+        if (grid.x(from) == grid.x(to) || grid.y(from) == grid.y(to)) {
+            return DIRECT_TRANSFER;
+        }
+        return DIAGONAL_TRANSFER;
+    }
+
+    private void updateAbstractGraph () {
+        if (!isGraphDirty) {
+            return;
+        }
+
+        int clusterCount = clustersX * clustersY;
+        boolean[] affectedClusters = new boolean[clusterCount];
+
+        for (int cluster = 0; cluster < clusterCount; cluster++) {
+            if (!dirtyClusters[cluster]) {
+                continue;
+            }
+            int cx = cluster % clustersX;
+            int cy = cluster / clustersX;
+
+            affectedClusters[cluster] = true;
+            if (cx + 1 < clustersX) {
+                eastTransitions[cluster] = findTransitions(cx, cy, 1, 0);
+                affectedClusters[cluster + 1] = true;
+            }
+            if (cx > 0) {
+                eastTransitions[cluster - 1] = findTransitions(cx - 1, cy, 1, 0);
+                affectedClusters[cluster - 1] = true;
+            }
+            if (cy + 1 < clustersY) {
+                southTransitions[cluster] = findTransitions(cx, cy, 0, 1);
+                affectedClusters[cluster + clustersX] = true;
+            }
+            if (cy > 0) {
+                southTransitions[cluster - clustersX] = findTransitions(cx, cy - 1, 0, 1);
+                affectedClusters[cluster - clustersX] = true;
+            }
+            dirtyClusters[cluster] = false;
+        }
+
+        for (int cluster = 0; cluster < clusterCount; cluster++) {
+            if (affectedClusters[cluster]) {
+                updateClusterNodes(cluster);
+            }
+        }
+        for (int cluster = 0; cluster < clusterCount; cluster++) {
+            if (affectedClusters[cluster]) {
+                updateClusterEdges(cluster);
+            }
+        }
+        isGraphDirty = false;
+    }
+
+    // Вход между кластерами: непрерывный участок свободных пар ячеек по обе стороны границы
+    private int[] findTransitions (int cx, int cy, int dx, int dy) {
+        int borderX = dx != 0 ? (cx + 1) * clusterSize - 1 : cx * clusterSize;
+        int borderY = dy != 0 ? (cy + 1) * clusterSize - 1 : cy * clusterSize;
+        int length = dx != 0 ? Math.min(clusterSize, height - borderY) : Math.min(clusterSize, width - borderX);
+
+        int[] transitions = new int[4 * length];
+        int size = 0;
+        int runStart = -1;
+
+        for (int k = 0; k <= length; k++) {
+            boolean isOpen = false;
+            if (k < length) {
+                int x = borderX + (dx != 0 ? 0 : k);
+                int y = borderY + (dx != 0 ? k : 0);
+                isOpen = isWalkable(x, y) && isWalkable(x + dx, y + dy);
+            }
+
+            if (isOpen && runStart == -1) {
+                runStart = k;
+            } else if (!isOpen && runStart != -1) {
+                int runEnd = k - 1;
+                if (runEnd - runStart + 1 < MAX_SINGLE_TRANSITION_LENGTH) {
+                    size = addTransition(transitions, size, borderX, borderY, dx, dy, (runStart + runEnd) / 2);
+                } else {
+                    size = addTransition(transitions, size, borderX, borderY, dx, dy, runStart);
+                    size = addTransition(transitions, size, borderX, borderY, dx, dy, runEnd);
+                }
+                runStart = -1;
+            }
+        }
+        return Arrays.copyOf(transitions, size);
+    }
+
+    private int addTransition (int[] transitions, int size, int borderX, int borderY, int dx, int dy, int offset) {
+        int x = borderX + (dx != 0 ? 0 : offset);
+        int y = borderY + (dx != 0 ? offset : 0);
+        transitions[size] = grid.index(x, y);
+        transitions[size + 1] = grid.index(x + dx, y + dy);
+        return size + 2;
+    }
+
+    // Узлы, оставшиеся на неизменённых границах, сохраняют свои номера, поэтому рёбра соседних кластеров остаются верными
+    private void updateClusterNodes (int cluster) {
+        Set<Integer> cells = new LinkedHashSet<>();
+        for (int[] border : getClusterBorders(cluster)) {
+            if (border == null) {
+                continue;
+            }
+            int side = border == getBorder(cluster, 0) || border == getBorder(cluster, 2) ? 0 : 1;
+            for (int k = 0; k < border.length; k += 2) {
+                cells.add(border[k + side]);
+            }
+        }
+
+        if (clusterNodes[cluster] != null) {
+            for (int node : clusterNodes[cluster]) {
+                if (!cells.contains(nodeCells[node])) {
+                    nodeIds.remove(nodeCells[node]);
+                    nodeTargets[node] = NO_EDGES;
+                    nodeCosts[node] = NO_EDGES;
+                    freeNodeIds.push(node);
+                }
+            }
+        }
+
+        int[] nodes = new int[cells.size()];
+        int k = 0;
+        for (int cell : cells) {
+            Integer node = nodeIds.get(cell);
+            if (node == null) {
+                node = allocateNode(cell);
+            }
+            nodes[k++] = node;
+        }
+        clusterNodes[cluster] = nodes;
+    }
+
+    private void updateClusterEdges (int cluster) {
+        int[] nodes = clusterNodes[cluster];
+        int[][] borders = getClusterBorders(cluster);
+
+        for (int node : nodes) {
+            int[] targets = new int[nodes.length + 4];
+            int[] costs = new int[targets.length];
+            int size = 0;
+
+            for (int b = 0; b < borders.length; b++) {
+                int[] border = borders[b];
+                if (border == null) {
+                    continue;
+                }
+                int side = b % 2 == 0 ? 0 : 1;
+                for (int k = 0; k < border.length; k += 2) {
+                    if (border[k + side] == nodeCells[node]) {
+                        if (size == targets.length) {
+                            targets = Arrays.copyOf(targets, size * 2);
+                            costs = Arrays.copyOf(costs, size * 2);
+                        }
+                        targets[size] = nodeIds.get(border[k + 1 - side]);
+                        costs[size] = DIRECT_TRANSFER;
+                        size++;
+                    }
+                }
+            }
+
+            searchCluster(cluster, nodeCells[node], NO_TARGET);
+            for (int target : nodes) {
+                int distance = localDistances[toLocalIndex(cluster, nodeCells[target])];
+                if (target != node && distance != UNREACHABLE) {
+                    if (size == targets.length) {
+                        targets = Arrays.copyOf(targets, size * 2);
+                        costs = Arrays.copyOf(costs, size * 2);
+                    }
+                    targets[size] = target;
+                    costs[size] = distance;
+                    size++;
+                }
+            }
+
+            nodeTargets[node] = Arrays.copyOf(targets, size);
+            nodeCosts[node] = Arrays.copyOf(costs, size);
+        }
+    }
+
+    // Границы кластера: восток и юг принадлежат ему (сторона 0), запад и север соседям (сторона 1)
+    private int[][] getClusterBorders (int cluster) {
+        return new int[][]{getBorder(cluster, 0), getBorder(cluster, 1), getBorder(cluster, 2), getBorder(cluster, 3)};
+    }
+
+    private int[] getBorder (int cluster, int direction) {
+        int cx = cluster % clustersX;
+        int cy = cluster / clustersX;
+        switch (direction) {
+            case 0:
+                return cx + 1 < clustersX ? eastTransitions[cluster] : null;
+            case 1:
+                return cx > 0 ? eastTransitions[cluster - 1] : null;
+            case 2:
+                return cy + 1 < clustersY ? southTransitions[cluster] : null;
+            default:
+                return cy > 0 ? southTransitions[cluster - clustersX] : null;
+        }
+    }
+
+    private int allocateNode (int cell) {
+        int node;
+        if (!freeNodeIds.isEmpty()) {
+            node = freeNodeIds.pop();
+        } else {
+            node = nodeCount++;
+            ensureNodeCapacity(nodeCount);
+        }
+        nodeCells[node] = cell;
+        nodeTargets[node] = NO_EDGES;
+        nodeCosts[node] = NO_EDGES;
+        nodeIds.put(cell, node);
+        return node;
+    }
+
+    private void ensureNodeCapacity (int capacity) {
+        if (capacity <= nodeCapacity) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, nodeCapacity * 2);
+        nodeCells = Arrays.copyOf(nodeCells, newCapacity);
+        nodeTargets = Arrays.copyOf(nodeTargets, newCapacity);
+        nodeCosts = Arrays.copyOf(nodeCosts, newCapacity);
+
+        searchG = new int[newCapacity];
+        searchParents = new int[newCapacity];
+        searchStamps = new int[newCapacity];
+        endDistances = new int[newCapacity];
+        searchGeneration = 0;
+        openedNodes = new IndexedBinaryHeap(newCapacity);
+
+        for (int node = nodeCapacity; node < newCapacity; node++) {
+            nodeTargets[node] = NO_EDGES;
+            nodeCosts[node] = NO_EDGES;
+        }
+        nodeCapacity = newCapacity;
+    }
+
+    private void searchCluster (int cluster, int source, int target) {
+        int x0 = clusterX0(cluster);
+        int y0 = clusterY0(cluster);
+        searchArea(x0, y0, Math.min(x0 + clusterSize, width), Math.min(y0 + clusterSize, height), source, target);
+    }
+
+    // Дейкстра внутри прямоугольника [x0, x1) x [y0, y1); если target задан, ключ дополняется октильной оценкой
+    // до него, и поиск останавливается на нём: оценка согласована, поэтому расстояние до target точное
+    private void searchArea (int x0, int y0, int x1, int y1, int source, int target) {
+        for (int row = 0; row < y1 - y0; row++) {
+            Arrays.fill(localDistances, row * localStride, row * localStride + x1 - x0, UNREACHABLE);
+        }
+        localOpenedCells.clear();
+
+        int sourceLocal = toLocalIndex(x0, y0, source);
+        int targetLocal = target == NO_TARGET ? NO_TARGET : toLocalIndex(x0, y0, target);
+        localDistances[sourceLocal] = 0;
+        localOpenedCells.add(sourceLocal, countLocalH(grid.x(source), grid.y(source), target));
+
+        while (!localOpenedCells.isEmpty()) {
+            int local = localOpenedCells.poll();
+            if (local == targetLocal) {
+                return;
+            }
+
+            int x = x0 + local % localStride;
+            int y = y0 + local / localStride;
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dy = -1; dy <= 1; dy++) {
+                    int nx = x + dx;
+                    int ny = y + dy;
+                    if ((dx == 0 && dy == 0) || nx < x0 || ny < y0 || nx >= x1 || ny >= y1 || grid.isWall(nx, ny)) {
+                        continue;
+                    }
+                    if (dx != 0 && dy != 0 && isCornerCut(x, y, dx, dy)) {
+                        continue;
+                    }
+
+                    int neighbourLocal = (ny - y0) * localStride + (nx - x0);
+                    int distance = localDistances[local] + (dx != 0 && dy != 0 ? DIAGONAL_TRANSFER : DIRECT_TRANSFER);
+                    if (distance < localDistances[neighbourLocal]) {
+                        localDistances[neighbourLocal] = distance;
+                        localParents[neighbourLocal] = local;
+                        localOpenedCells.add(neighbourLocal, distance + countLocalH(nx, ny, target));
+                    }
+                }
+            }
+        }
+    }
+
+    private int clusterOf (int index) {
+        return (grid.y(index) / clusterSize) * clustersX + grid.x(index) / clusterSize;
+    }
+
+    // Октильное расстояние без веса и ориентиров: локальный поиск всегда ищет кратчайший путь
+    private int countLocalH (int x, int y, int target) {
+        if (target == NO_TARGET) {
+            return 0;
+        }
+        int dx = Math.abs(grid.x(target) - x);
+        int dy = Math.abs(grid.y(target) - y);
+        return DIRECT_TRANSFER * Math.max(dx, dy) + (DIAGONAL_TRANSFER - DIRECT_TRANSFER) * Math.min(dx, dy);
+    }
+
+    private int clusterX0 (int cluster) {
+        return (cluster % clustersX) * clusterSize;
+    }
+
+    private int clusterY0 (int cluster) {
+        return (cluster / clustersX) * clusterSize;
+    }
+
+    private int toLocalIndex (int cluster, int index) {
+        return toLocalIndex(clusterX0(cluster), clusterY0(cluster), index);
+    }
+
+    private int toLocalIndex (int x0, int y0, int index) {
+        return (grid.y(index) - y0) * localStride + (grid.x(index) - x0);
+    }
+
+    private int toGlobalIndex (int x0, int y0, int local) {
+        return grid.index(x0 + local % localStride, y0 + local / localStride);
+    }
+
+    private void markDirty (int x, int y) {
+        dirtyClusters[(y / clusterSize) * clustersX + x / clusterSize] = true;
+        isGraphDirty = true;
+    }
+
+    @Override
+    public void copyWalls (GridAlgorithm source) {
+        super.copyWalls(source);
+        Arrays.fill(dirtyClusters, true);
+        isGraphDirty = true;
+    }
+
+    @Override
+    public void setCell (int i, int j, Cell cell) {
+        boolean isWall = grid.isWall(i, j);
+        super.setCell(i, j, cell);
+        if (isWall != grid.isWall(i, j)) {
+            markDirty(i, j);
+        }
+    }
+
+    @Override
+    public void setStartCell (Point startCell) {
+        boolean isWall = grid.isWall(startCell.x, startCell.y);
+        super.setStartCell(startCell);
+        if (isWall) {
+            markDirty(startCell.x, startCell.y);
+        }
+    }
+
+    @Override
+    public void setEndCell (Point endCell) {
+        boolean isWall = grid.isWall(endCell.x, endCell.y);
+        super.setEndCell(endCell);
+        if (isWall) {
+            markDirty(endCell.x, endCell.y);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package ru.dopler.algorithms;
+
+import java.util.Arrays;
+
+public class IndexedBinaryHeap implements OpenSet {
+
+    private static final int ABSENT = -1;
+
+    private int[] heap;
+    private int[] positions;
+    private double[] keys;
+
+    private int size = 0;
+
+    public IndexedBinaryHeap (int capacity) {
+        heap = new int[capacity];
+        positions = new int[capacity];
+        keys = new double[capacity];
+
+        Arrays.fill(positions, ABSENT);
+    }
+
+    @Override
+    public void add (int cell, double f) {
+        if (contains(cell)) {
+            decreaseKey(cell, f);
+            return;
+        }
+
+        keys[cell] = f;
+        heap[size] = cell;
+        positions[cell] = size;
+        siftUp(size++);
+    }
+
+    @Override
+    public boolean contains (int cell) {
+        return positions[cell] != ABSENT;
+    }
+
+    @Override
+    public void decreaseKey (int cell, double f) {
+        if (f >= keys[cell]) {
+            return;
+        }
+        keys[cell] = f;
+        siftUp(positions[cell]);
+    }
+
+    @Override
+    public int poll () {
+        if (size == 0) {
+            throw new IllegalStateException("Open set is empty");
+        }
+
+        int minCell = heap[0];
+        positions[minCell] = ABSENT;
+
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            positions[heap[0]] = 0;
+            siftDown(0);
+        }
+
+        return minCell;
+    }
+
+    @Override
+    public double getMinKey () {
+        if (size == 0) {
+            throw new IllegalStateException("Open set is empty");
+        }
+        return keys[heap[0]];
+    }
+
+    @Override
+    public boolean isEmpty () {
+        return size == 0;
+    }
+
+    @Override
+    public int size () {
+        return size;
+    }
+
+    @Override
+    public void clear () {
+        for (int i = 0; i < size; i++) {
+            positions[heap[i]] = ABSENT;
+        }
+        size = 0;
+    }
+
+    private void siftUp (int index) {
+        int cell = heap[index];
+        double key = keys[cell];
+
+        while (index > 0) {
+            int parentIndex = (index - 1) >>> 1;
+            int parentCell = heap[parentIndex];
+            if (keys[parentCell] <= key) {
+                break;
+            }
+            heap[index] = parentCell;
+            positions[parentCell] = index;
+            index = parentIndex;
+        }
+
+        heap[index] = cell;
+        positions[cell] = index;
+    }
+
+    private void siftDown (int index) {
+        int cell = heap[index];
+        double key = keys[cell];
+        int half = size >>> 1;
+
+        while (index < half) {
+            int childIndex = 2 * index + 1;
+            int rightIndex = childIndex + 1;
+            if (rightIndex < size && keys[heap[rightIndex]] < keys[heap[childIndex]]) {
+                childIndex = rightIndex;
+            }
+
+            int childCell = heap[childIndex];
+            if (key <= keys[childCell]) {
+                break;
+            }
+            heap[index] = childCell;
+            positions[childCell] = index;
+            index = childIndex;
+        }
+
+        heap[index] = cell;
+        positions[cell] = index;
+    }
+}
@@ -0,0 +1,132 @@
+package ru.dopler.algorithms;
+
+import java.util.Arrays;
+
+public class IndexedLongHeap {
+
+    private static final int ABSENT = -1;
+
+    private int[] heap;
+    private int[] positions;
+    private long[] keys;
+
+    private int size = 0;
+
+    public IndexedLongHeap (int capacity) {
+        heap = new int[capacity];
+        positions = new int[capacity];
+        keys = new long[capacity];
+
+        Arrays.fill(positions, ABSENT);
+    }
+
+    public void add (int cell, long key) {
+        if (contains(cell)) {
+            update(cell, key);
+            return;
+        }
+
+        keys[cell] = key;
+        heap[size] = cell;
+        positions[cell] = size;
+        siftUp(size++);
+    }
+
+    public void update (int cell, long key) {
+        long oldKey = keys[cell];
+        keys[cell] = key;
+        if (key < oldKey) {
+            siftUp(positions[cell]);
+        } else {
+            siftDown(positions[cell]);
+        }
+    }
+
+    public void remove (int cell) {
+        int index = positions[cell];
+        positions[cell] = ABSENT;
+
+        size--;
+        if (index == size) {
+            return;
+        }
+        int movedCell = heap[size];
+        heap[index] = movedCell;
+        positions[movedCell] = index;
+        siftDown(index);
+        if (positions[movedCell] == index) {
+            siftUp(index);
+        }
+    }
+
+    public boolean contains (int cell) {
+        return positions[cell] != ABSENT;
+    }
+
+    public int peek () {
+        return heap[0];
+    }
+
+    public long getMinKey () {
+        return keys[heap[0]];
+    }
+
+    public boolean isEmpty () {
+        return size == 0;
+    }
+
+    public int size () {
+        return size;
+    }
+
+    public void clear () {
+        for (int i = 0; i < size; i++) {
+            positions[heap[i]] = ABSENT;
+        }
+        size = 0;
+    }
+
+    private void siftUp (int index) {
+        int cell = heap[index];
+        long key = keys[cell];
+
+        while (index > 0) {
+            int parentIndex = (index - 1) >>> 1;
+            int parentCell = heap[parentIndex];
+            if (keys[parentCell] <= key) {
+                break;
+            }
+            heap[index] = parentCell;
+            positions[parentCell] = index;
+            index = parentIndex;
+        }
+
+        heap[index] = cell;
+        positions[cell] = index;
+    }
+
+    private void siftDown (int index) {
+        int cell = heap[index];
+        long key = keys[cell];
+        int half = size >>> 1;
+
+        while (index < half) {
+            int childIndex = 2 * index + 1;
+            int rightIndex = childIndex + 1;
+            if (rightIndex < size && keys[heap[rightIndex]] < keys[heap[childIndex]]) {
+                childIndex = rightIndex;
+            }
+
+            int childCell = heap[childIndex];
+            if (key <= keys[childCell]) {
+                break;
+            }
+            heap[index] = childCell;
+            positions[childCell] = index;
+            index = childIndex;
+        }
+
+        heap[index] = cell;
+        positions[cell] = index;
+    }
+}
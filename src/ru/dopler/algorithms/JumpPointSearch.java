@@ -0,0 +1,198 @@
+package ru.dopler.algorithms;
+
+import ru.dopler.grid.Grid;
+
+public class JumpPointSearch extends GridAlgorithm {
+
+    private static final int NO_JUMP_POINT = -1;
+
+    private volatile OpenSet openedCells;
+
+    public JumpPointSearch (int width, int height, int weight) {
+        super(width, height, weight);
+        openedCells = new IndexedBinaryHeap(width * height);
+    }
+
+    @Override
+    protected void initAlgorithm () {
+        int startIndex = toIndex(startCell);
+        grid.setG(startIndex, 0);
+        addToOpenedCells(startIndex, 0);
+    }
+
+    @Override
+    protected int stepAlgorithm () {
+        if (openedCells.isEmpty()) {
+            return STEP_NO_PATH;
+        }
+
+        statistics.beginSelection();
+        int selectedCell = openedCells.poll();
+        statistics.beginExpansion();
+        grid.setState(selectedCell, Grid.STATE_CLOSED);
+
+        if (selectedCell == toIndex(endCell)) {
+            statistics.endExpansion(openedCells.size());
+            return STEP_PATH_FOUND;
+        }
+
+        identifySuccessors(selectedCell);
+        statistics.endExpansion(openedCells.size());
+        return STEP_RUNNING;
+    }
+
+    private void identifySuccessors (int selectedCell) {
+        int x = grid.x(selectedCell);
+        int y = grid.y(selectedCell);
+        int parent = grid.getParent(selectedCell);
+
+        if (parent == Grid.NO_PARENT) {
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dy = -1; dy <= 1; dy++) {
+                    if ((dx != 0 || dy != 0) && isMoveAllowed(x, y, dx, dy)) {
+                        processJump(selectedCell, x, y, dx, dy);
+                    }
+                }
+            }
+            return;
+        }
+
+        int dx = Integer.signum(x - grid.x(parent));
+        int dy = Integer.signum(y - grid.y(parent));
+
+        if (dx != 0 && dy != 0) {
+            boolean isVerticalWalkable = isWalkable(x, y + dy);
+            boolean isHorizontalWalkable = isWalkable(x + dx, y);
+
+            if (isVerticalWalkable) {
+                processJump(selectedCell, x, y, 0, dy);
+            }
+            if (isHorizontalWalkable) {
+                processJump(selectedCell, x, y, dx, 0);
+            }
+            if (isVerticalWalkable && isHorizontalWalkable) {
+                processJump(selectedCell, x, y, dx, dy);
+            }
+
+        } else if (dx != 0) {
+            boolean isNextWalkable = isWalkable(x + dx, y);
+            boolean isTopWalkable = isWalkable(x, y - 1);
+            boolean isBottomWalkable = isWalkable(x, y + 1);
+
+            if (isNextWalkable) {
+                processJump(selectedCell, x, y, dx, 0);
+                if (isTopWalkable) {
+                    processJump(selectedCell, x, y, dx, -1);
+                }
+                if (isBottomWalkable) {
+                    processJump(selectedCell, x, y, dx, 1);
+                }
+            }
+            if (isTopWalkable) {
+                processJump(selectedCell, x, y, 0, -1);
+            }
+            if (isBottomWalkable) {
+                processJump(selectedCell, x, y, 0, 1);
+            }
+
+        } else {
+            boolean isNextWalkable = isWalkable(x, y + dy);
+            boolean isLeftWalkable = isWalkable(x - 1, y);
+            boolean isRightWalkable = isWalkable(x + 1, y);
+
+            if (isNextWalkable) {
+                processJump(selectedCell, x, y, 0, dy);
+                if (isLeftWalkable) {
+                    processJump(selectedCell, x, y, -1, dy);
+                }
+                if (isRightWalkable) {
+                    processJump(selectedCell, x, y, 1, dy);
+                }
+            }
+            if (isLeftWalkable) {
+                processJump(selectedCell, x, y, -1, 0);
+            }
+            if (isRightWalkable) {
+                processJump(selectedCell, x, y, 1, 0);
+            }
+        }
+    }
+
+    private boolean isMoveAllowed (int x, int y, int dx, int dy) {
+        if (!isWalkable(x + dx, y + dy)) {
+            return false;
+        }
+        return dx == 0 || dy == 0 || !isCornerCut(x, y, dx, dy);
+    }
+
+    private void processJump (int selectedCell, int x, int y, int dx, int dy) {
+        int jumpPoint = jump(x + dx, y + dy, dx, dy);
+        if (jumpPoint == NO_JUMP_POINT || grid.isClosed(jumpPoint)) {
+            return;
+        }
+
+        int jumpX = grid.x(jumpPoint);
+        int jumpY = grid.y(jumpPoint);
+        int steps = Math.max(Math.abs(jumpX - x), Math.abs(jumpY - y));
+        int transferG = (dx != 0 && dy != 0) ? DIAGONAL_TRANSFER : DIRECT_TRANSFER;
+        int summaryG = grid.getG(selectedCell) + steps * transferG;
+
+        if (grid.isOpened(jumpPoint)) {
+            if (summaryG < grid.getG(jumpPoint)) {
+                grid.setParent(jumpPoint, selectedCell);
+                grid.setG(jumpPoint, summaryG);
+                openedCells.decreaseKey(jumpPoint, summaryG + countH(jumpX, jumpY));
+            }
+        } else {
+            grid.setParent(jumpPoint, selectedCell);
+            grid.setG(jumpPoint, summaryG);
+            addToOpenedCells(jumpPoint, summaryG + countH(jumpX, jumpY));
+        }
+    }
+
+    // Диагональный прыжок проверяет прямые прыжки из каждой ячейки, поэтому рекурсия не нужна
+    private int jump (int x, int y, int dx, int dy) {
+        while (true) {
+            if (!isWalkable(x, y)) {
+                return NO_JUMP_POINT;
+            }
+            if (x == endCell.x && y == endCell.y) {
+                return grid.index(x, y);
+            }
+
+            if (dx != 0 && dy != 0) {
+                if (jump(x + dx, y, dx, 0) != NO_JUMP_POINT || jump(x, y + dy, 0, dy) != NO_JUMP_POINT) {
+                    return grid.index(x, y);
+                }
+
+            } else if (dx != 0) {
+                if ((isWalkable(x, y - 1) && !isWalkable(x - dx, y - 1)) || (isWalkable(x, y + 1) && !isWalkable(x - dx, y + 1))) {
+                    return grid.index(x, y);
+                }
+
+            } else {
+                if ((isWalkable(x - 1, y) && !isWalkable(x - 1, y - dy)) || (isWalkable(x + 1, y) && !isWalkable(x + 1, y - dy))) {
+                    return grid.index(x, y);
+                }
+            }
+
+            if (!isWalkable(x + dx, y) || !isWalkable(x, y + dy)) {
+                return NO_JUMP_POINT;
+            }
+            x += dx;
+            y += dy;
+        }
+    }
+
+    private void addToOpenedCells (int cell, double f) {
+        statistics.onGenerated();
+        openedCells.add(cell, f);
+        grid.setState(cell, Grid.STATE_OPENED);
+    }
+
+    @Override
+    public void reset () {
+        super.reset();
+        openedCells.clear();
+    }
+}
@@ -0,0 +1,210 @@
+package ru.dopler.algorithms;
+
+import ru.dopler.grid.Grid;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+
+// ALT: точные расстояния от нескольких ориентиров до всех ячеек. По неравенству треугольника
+// d(v, t) >= |d(L, t) - d(L, v)|, поэтому максимум по ориентирам - допустимая и согласованная оценка.
+// Стены, поставленные после построения, только удлиняют пути, и оценка остаётся допустимой
+public class LandmarkHeuristic {
+
+    private static final int[] OFFSETS_X = {0, -1, 1, 0, -1, 1, -1, 1};
+    private static final int[] OFFSETS_Y = {-1, 0, 0, 1, -1, -1, 1, 1};
+
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+    private static final int NOT_FOUND = -1;
+
+    // Оценка для ячеек из разных компонент связности: пути нет, но значение остаётся конечным
+    public static final int DISCONNECTED = Integer.MAX_VALUE / 4;
+
+    private final int[] landmarks;
+    // Расстояния ориентиров к одной ячейке лежат подряд: оценка читает две короткие строки
+    private final int[] distances;
+
+    private LandmarkHeuristic (int[] landmarks, int[] distances) {
+        this.landmarks = landmarks;
+        this.distances = distances;
+    }
+
+    public static LandmarkHeuristic build (Grid grid, int landmarkCount) {
+        return build(grid, landmarkCount, Runtime.getRuntime().availableProcessors());
+    }
+
+    // Ориентиры расставляются равномерно по периметру, проход Дейкстры от каждого идёт в своём потоке
+    public static LandmarkHeuristic build (final Grid grid, int landmarkCount, int parallelism) {
+        final int[] landmarks = placeLandmarks(grid, landmarkCount);
+        int count = landmarks.length;
+        if ((long) grid.size() * count > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many landmarks for grid of " + grid.size() + " cells: " + count);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, count)), new ThreadFactory() {
+            @Override
+            public Thread newThread (Runnable runnable) {
+                Thread thread = new Thread(runnable, "landmark-builder");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        try {
+            List<Future<int[]>> passes = new ArrayList<>();
+            for (final int landmark : landmarks) {
+                passes.add(executor.submit(new Callable<int[]>() {
+                    @Override
+                    public int[] call () {
+                        return countDistances(grid, landmark);
+                    }
+                }));
+            }
+
+            int[] distances = new int[grid.size() * count];
+            for (int k = 0; k < count; k++) {
+                int[] landmarkDistances = passes.get(k).get();
+                for (int cell = 0; cell < landmarkDistances.length; cell++) {
+                    distances[cell * count + k] = landmarkDistances[cell];
+                }
+            }
+            return new LandmarkHeuristic(landmarks, distances);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Landmark build was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Landmark build failed", e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    // Нижняя оценка стоимости пути между ячейками в единицах DIRECT_TRANSFER / DIAGONAL_TRANSFER
+    public int estimate (int from, int to) {
+        int count = landmarks.length;
+        int fromOffset = from * count;
+        int toOffset = to * count;
+
+        int best = 0;
+        for (int k = 0; k < count; k++) {
+            int fromDistance = distances[fromOffset + k];
+            int toDistance = distances[toOffset + k];
+            if (fromDistance == UNREACHABLE || toDistance == UNREACHABLE) {
+                if (fromDistance != toDistance) {
+                    return DISCONNECTED;
+                }
+                continue;
+            }
+            best = Math.max(best, Math.abs(toDistance - fromDistance));
+        }
+        return best;
+    }
+
+    public int[] getLandmarks () {
+        return landmarks.clone();
+    }
+
+    private static int[] placeLandmarks (Grid grid, int landmarkCount) {
+        int width = grid.getWidth();
+        int height = grid.getHeight();
+        long perimeter = Math.max(1, 2L * (width + height) - 4);
+
+        int[] landmarks = new int[landmarkCount];
+        int count = 0;
+        for (int k = 0; k < landmarkCount; k++) {
+            long position = perimeter * k / landmarkCount;
+            int x;
+            int y;
+            if (position < width) {
+                x = (int) position;
+                y = 0;
+            } else if (position < width + height - 1) {
+                x = width - 1;
+                y = (int) (position - width + 1);
+            } else if (position < 2L * width + height - 2) {
+                x = (int) (2L * width + height - 3 - position);
+                y = height - 1;
+            } else {
+                x = 0;
+                y = (int) (perimeter - position);
+            }
+
+            int landmark = findNearestWalkable(grid, x, y);
+            if (landmark != NOT_FOUND && !contains(landmarks, count, landmark)) {
+                landmarks[count++] = landmark;
+            }
+        }
+        return Arrays.copyOf(landmarks, count);
+    }
+
+    // Ближайшая проходимая ячейка по расширяющимся квадратным кольцам
+    private static int findNearestWalkable (Grid grid, int x, int y) {
+        int maxRadius = Math.max(grid.getWidth(), grid.getHeight());
+        for (int radius = 0; radius < maxRadius; radius++) {
+            for (int dy = -radius; dy <= radius; dy++) {
+                for (int dx = -radius; dx <= radius; dx++) {
+                    if (Math.max(Math.abs(dx), Math.abs(dy)) != radius) {
+                        continue;
+                    }
+                    if (grid.contains(x + dx, y + dy) && !grid.isWall(x + dx, y + dy)) {
+                        return grid.index(x + dx, y + dy);
+                    }
+                }
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    private static boolean contains (int[] values, int size, int value) {
+        for (int i = 0; i < size; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Дейкстра по тем же правилам переходов, что и у поиска: 10/14, без срезания углов
+    private static int[] countDistances (Grid grid, int landmark) {
+        int[] distances = new int[grid.size()];
+        Arrays.fill(distances, UNREACHABLE);
+        IndexedLongHeap openedCells = new IndexedLongHeap(grid.size());
+
+        distances[landmark] = 0;
+        openedCells.add(landmark, 0);
+        while (!openedCells.isEmpty()) {
+            int cell = openedCells.peek();
+            openedCells.remove(cell);
+            int x = grid.x(cell);
+            int y = grid.y(cell);
+
+            for (int k = 0; k < OFFSETS_X.length; k++) {
+                int dx = OFFSETS_X[k];
+                int dy = OFFSETS_Y[k];
+                int neighbourX = x + dx;
+                int neighbourY = y + dy;
+                if (!grid.contains(neighbourX, neighbourY) || grid.isWall(neighbourX, neighbourY)) {
+                    continue;
+                }
+
+                int transfer = GridAlgorithm.DIRECT_TRANSFER;
+                if (dx != 0 && dy != 0) {
+                    if (grid.isWall(x + dx, y) || grid.isWall(x, y + dy)) {
+                        continue;
+                    }
+                    transfer = GridAlgorithm.DIAGONAL_TRANSFER;
+                }
+
+                int neighbour = grid.index(neighbourX, neighbourY);
+                int distance = distances[cell] + transfer;
+                if (distance < distances[neighbour]) {
+                    distances[neighbour] = distance;
+                    openedCells.add(neighbour, distance);
+                }
+            }
+        }
+        return distances;
+    }
+}
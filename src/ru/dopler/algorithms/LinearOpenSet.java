@@ -0,0 +1,99 @@
+package ru.dopler.algorithms;
+
+import java.util.Arrays;
+
+public class LinearOpenSet implements OpenSet {
+
+    private static final int ABSENT = -1;
+
+    private int[] cells;
+    private int[] positions;
+    private double[] keys;
+
+    private int size = 0;
+
+    public LinearOpenSet (int capacity) {
+        cells = new int[capacity];
+        positions = new int[capacity];
+        keys = new double[capacity];
+
+        Arrays.fill(positions, ABSENT);
+    }
+
+    @Override
+    public void add (int cell, double f) {
+        if (contains(cell)) {
+            decreaseKey(cell, f);
+            return;
+        }
+
+        keys[cell] = f;
+        cells[size] = cell;
+        positions[cell] = size;
+        size++;
+    }
+
+    @Override
+    public boolean contains (int cell) {
+        return positions[cell] != ABSENT;
+    }
+
+    @Override
+    public void decreaseKey (int cell, double f) {
+        if (f < keys[cell]) {
+            keys[cell] = f;
+        }
+    }
+
+    @Override
+    public int poll () {
+        int selectedIndex = getMinIndex();
+        int selectedCell = cells[selectedIndex];
+        positions[selectedCell] = ABSENT;
+
+        size--;
+        cells[selectedIndex] = cells[size];
+        if (selectedIndex != size) {
+            positions[cells[selectedIndex]] = selectedIndex;
+        }
+
+        return selectedCell;
+    }
+
+    @Override
+    public double getMinKey () {
+        return keys[cells[getMinIndex()]];
+    }
+
+    private int getMinIndex () {
+        if (size == 0) {
+            throw new IllegalStateException("Open set is empty");
+        }
+
+        int selectedIndex = 0;
+        for (int i = 1; i < size; i++) {
+            if (keys[cells[i]] < keys[cells[selectedIndex]]) {
+                selectedIndex = i;
+            }
+        }
+        return selectedIndex;
+    }
+
+    @Override
+    public boolean isEmpty () {
+        return size == 0;
+    }
+
+    @Override
+    public int size () {
+        return size;
+    }
+
+    @Override
+    public void clear () {
+        for (int i = 0; i < size; i++) {
+            positions[cells[i]] = ABSENT;
+        }
+        size = 0;
+    }
+}
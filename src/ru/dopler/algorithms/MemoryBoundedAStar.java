@@ -0,0 +1,501 @@
+package ru.dopler.algorithms;
+
+import ru.dopler.grid.DenseGrid;
+import ru.dopler.grid.Grid;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// SMA* по сетке: узлы поиска живут в пуле, который заводится сразу на весь лимит памяти, а не в сетке. Когда пул
+// полон, забывается открытый лист с наибольшим f, его f запоминается у родителя, и родитель с этой оценкой снова
+// открыт. За нехватку памяти поиск платит повторными раскрытиями, а не OutOfMemoryError. Состояние поиска в сетку
+// не пишется, поэтому с TiledGrid тайлы поиска не заводятся совсем. Забытые ячейки не помнят, что уже
+// раскрывались, поэтому недостижимую цель нужно отсекать индексом компонент связности: иначе поиск перебирает
+// пути по всей достижимой области
+public class MemoryBoundedAStar extends GridAlgorithm {
+
+    private static final int[] OFFSETS_X = {0, -1, 1, 0, -1, 1, -1, 1};
+    private static final int[] OFFSETS_Y = {-1, 0, 0, 1, -1, -1, 1, 1};
+
+    public static final long DEFAULT_MEMORY_LIMIT = 64L << 20;
+
+    // Сколько раз в среднем можно забыть каждый узел пула, пока оценка выбранного узла не растёт, прежде чем
+    // поиск сдастся. Заново раскрытый узел порождает всех забытых потомков с одной общей оценкой, и потомок,
+    // уже доказанный тупиковым, снова выглядит не хуже остальных: когда память вмещает только одно из двух
+    // поддеревьев, они вытесняют друг друга без конца. Предел умножается на ёмкость пула, то есть следует
+    // из лимита памяти: пул вдвое больше успевает перебрать вдвое больше поддеревьев на одном уровне f.
+    // Успешные поиски на случайных картах забывали без роста оценки не больше 2000 раз на узел пула, 4096 -
+    // двукратный запас. Общий предел на число забываний обрывал бы и медленные, но продвигающиеся поиски со
+    // слабой эвристикой, поэтому счётчик сбрасывается при каждом росте оценки
+    public static final int MAX_FORGETS_PER_NODE = 4096;
+
+    // Байт на узел: ячейка, g, f, родитель, глубина, число потомков, f забытых потомков, свободный список, стек
+    // обрезки, две индексированные кучи по 16 байт, два слота хеш-таблицы и точка пути со ссылкой на неё: в
+    // худшем случае путь проходит через все узлы
+    public static final int BYTES_PER_NODE = 4 + 4 + 8 + 4 + 4 + 1 + 8 + 4 + 4 + 2 * 16 + 2 * 8 + 24 + 4;
+
+    // Заголовки массивов, срезы поиска и прочие мелкие объекты
+    static final long RESERVED_BYTES = 16 << 10;
+
+    private static final int NO_NODE = -1;
+    private static final int EMPTY_SLOT = -1;
+    private static final double INFINITY = Double.POSITIVE_INFINITY;
+    private static final long DEAD_END_KEY = Long.MIN_VALUE;
+    private static final int MAX_SLOTS = Integer.MAX_VALUE - 8;
+    // Наибольшая f, которая помещается в старшие биты ключа. Оценка ориентиров DISCONNECTED при большом весе
+    // и бесконечная f узлов за пределом глубины больше, они сравниваются между собой как равные
+    static final long MAX_KEY_F = (1L << 32) - 1;
+
+    private final int capacity;
+
+    private final int[] nodeCells;
+    private final int[] nodeG;
+    private final double[] nodeF;
+    private final int[] nodeParents;
+    // Число узлов на цепочке от старта до узла, не считая его
+    private final int[] nodeDepths;
+    private final byte[] childCounts;
+    // Наименьшая f забытых потомков: с ней узел лежит в открытом списке, пока их не породят снова
+    private final double[] forgottenF;
+
+    private final int[] freeNodes;
+    private int freeCount;
+    private final int[] pruneStack;
+
+    // Открытые узлы: листья и узлы, часть потомков которых забыта
+    private final IndexedLongHeap bestOpened;
+    private final IndexedLongHeap worstOpened;
+
+    // Ячейка -> узел, открытая адресация с линейным пробированием
+    private final int[] slotCells;
+    private final int[] slotNodes;
+
+    private int expandingNode = NO_NODE;
+    private int endNode = NO_NODE;
+    private int peakNodes = 0;
+    private boolean isMemoryExhausted = false;
+    // Наибольшая оценка выбранного узла и число забытых узлов с тех пор, как она росла в последний раз
+    private double selectedF = 0;
+    private long forgottenSinceRise = 0;
+
+    public MemoryBoundedAStar (int width, int height, int weight) {
+        this(new DenseGrid(width, height), weight, DEFAULT_MEMORY_LIMIT);
+    }
+
+    public MemoryBoundedAStar (Grid grid, int weight, long memoryLimit) {
+        super(grid, weight);
+        long nodes = Math.min((memoryLimit - RESERVED_BYTES) / BYTES_PER_NODE, grid.size());
+        if (nodes < 2) {
+            throw new IllegalArgumentException("Memory limit is too small for a search: " + memoryLimit + " bytes");
+        }
+        // Два слота хеш-таблицы на узел: таблица заполнена не больше чем наполовину
+        int slots = (int) Math.min(nodes * 2, MAX_SLOTS);
+        capacity = slots / 2;
+
+        nodeCells = new int[capacity];
+        nodeG = new int[capacity];
+        nodeF = new double[capacity];
+        nodeParents = new int[capacity];
+        nodeDepths = new int[capacity];
+        childCounts = new byte[capacity];
+        forgottenF = new double[capacity];
+        freeNodes = new int[capacity];
+        pruneStack = new int[capacity];
+        bestOpened = new IndexedLongHeap(capacity);
+        worstOpened = new IndexedLongHeap(capacity);
+
+        slotCells = new int[slots];
+        slotNodes = new int[slots];
+
+        clearNodes();
+    }
+
+    public int getCapacity () {
+        return capacity;
+    }
+
+    public int getPeakNodes () {
+        return peakNodes;
+    }
+
+    // Поиск отбрасывал потомков, потому что цепочка от старта заняла всю память, или сдался, исчерпав
+    // MAX_FORGETS_PER_NODE: если путь не найден, он мог просто не поместиться
+    public boolean isMemoryExhausted () {
+        return isMemoryExhausted;
+    }
+
+    @Override
+    protected void initAlgorithm () {
+        clearNodes();
+        peakNodes = 0;
+        isMemoryExhausted = false;
+        selectedF = 0;
+        forgottenSinceRise = 0;
+
+        int startIndex = toIndex(startCell);
+        int node = allocateNode(startIndex, 0, countH(startCell.x, startCell.y), NO_NODE);
+        addToOpened(node);
+    }
+
+    @Override
+    protected int stepAlgorithm () {
+        if (bestOpened.isEmpty()) {
+            return STEP_NO_PATH;
+        }
+
+        statistics.beginSelection();
+        int node = bestOpened.peek();
+        if (nodeCells[node] == toIndex(endCell)) {
+            endNode = node;
+            statistics.endSelection();
+            return STEP_PATH_FOUND;
+        }
+        double f = forgottenF[node] != INFINITY ? forgottenF[node] : nodeF[node];
+        if (f > selectedF) {
+            selectedF = f;
+            forgottenSinceRise = 0;
+        } else if (forgottenSinceRise > (long) capacity * MAX_FORGETS_PER_NODE) {
+            isMemoryExhausted = true;
+            statistics.endSelection();
+            return STEP_NO_PATH;
+        }
+        removeFromOpened(node);
+        statistics.beginExpansion();
+
+        expand(node);
+        statistics.endExpansion(bestOpened.size());
+        return bestOpened.isEmpty() ? STEP_NO_PATH : STEP_RUNNING;
+    }
+
+    // Узел с забытыми потомками раскрывается заново: потомки, которые ещё в памяти, пропускаются как дубликаты,
+    // а забытые порождаются снова
+    private void expand (int node) {
+        expandingNode = node;
+        // Оценка потомка не ниже оценки, с которой выбран родитель: у вернувшихся узлов она поднята забытыми
+        // потомками. С завышенной эвристикой f родителя не нижняя граница, и потомки её не наследуют
+        double parentF = 0;
+        if (weight <= DIRECT_TRANSFER) {
+            parentF = forgottenF[node] != INFINITY ? Math.max(nodeF[node], forgottenF[node]) : nodeF[node];
+        }
+        forgottenF[node] = INFINITY;
+
+        int cell = nodeCells[node];
+        int x = grid.x(cell);
+        int y = grid.y(cell);
+        int parent = nodeParents[node];
+        int parentDx = parent == NO_NODE ? 0 : x - grid.x(nodeCells[parent]);
+        int parentDy = parent == NO_NODE ? 0 : y - grid.y(nodeCells[parent]);
+        int endIndex = toIndex(endCell);
+        for (int k = 0; k < OFFSETS_X.length; k++) {
+            int dx = OFFSETS_X[k];
+            int dy = OFFSETS_Y[k];
+            int neighbourX = x + dx;
+            int neighbourY = y + dy;
+            if (!isWalkable(neighbourX, neighbourY) || !isCanonicalMove(x, y, parentDx, parentDy, dx, dy)) {
+                continue;
+            }
+
+            int transfer = DIRECT_TRANSFER;
+            if (dx != 0 && dy != 0) {
+                if (isCornerCut(x, y, dx, dy)) {
+                    continue;
+                }
+                transfer = DIAGONAL_TRANSFER;
+            }
+
+            int neighbour = grid.index(neighbourX, neighbourY);
+            // С потомком цепочка от старта займёт всю память, и дальше него поиск не продвинется: если это не
+            // финиш, потомок тупиковый, как в SMA* узел на предельной глубине с f = ∞
+            if (nodeDepths[node] + 2 >= capacity && neighbour != endIndex) {
+                isMemoryExhausted = true;
+                continue;
+            }
+            int summaryG = nodeG[node] + transfer;
+            double f = Math.max(summaryG + countH(neighbourX, neighbourY), parentF);
+
+            int existing = findNode(neighbour);
+            if (existing != NO_NODE) {
+                if (summaryG < nodeG[existing]) {
+                    reattach(existing, node, summaryG, f);
+                }
+                continue;
+            }
+
+            if (freeCount == 0 && !makeRoom(node, f, summaryG)) {
+                continue;
+            }
+            statistics.onGenerated();
+            int child = allocateNode(neighbour, summaryG, f, node);
+            childCounts[node]++;
+            addToOpened(child);
+        }
+
+        expandingNode = NO_NODE;
+        if (childCounts[node] > 0) {
+            if (forgottenF[node] != INFINITY) {
+                addPartlyForgotten(node);
+            }
+        } else if (forgottenF[node] != INFINITY) {
+            reopen(node);
+        } else {
+            addDeadEnd(node);
+        }
+    }
+
+    // Ходы в каноническом порядке, как у JumpPointSearch без прыжков: сначала диагональ, затем прямо. После
+    // диагонали разрешены только три хода вперёд, после прямого - только прямо, а вбок - если стена сзади сбоку
+    // не дала сделать диагональ раньше. Перестановки одних и тех же ходов иначе дают множество равных путей,
+    // и каждый забытый узел порождает их заново
+    private boolean isCanonicalMove (int x, int y, int parentDx, int parentDy, int dx, int dy) {
+        if (parentDx == 0 && parentDy == 0) {
+            return true;
+        }
+        if (parentDx != 0 && parentDy != 0) {
+            return (dx == 0 || dx == parentDx) && (dy == 0 || dy == parentDy);
+        }
+        if (parentDx != 0) {
+            if (dy == 0) {
+                return dx == parentDx;
+            }
+            return dx != -parentDx && !isWalkable(x - parentDx, y + dy);
+        }
+        if (dx == 0) {
+            return dy == parentDy;
+        }
+        return dy != -parentDy && !isWalkable(x + dx, y - parentDy);
+    }
+
+    // Пул полон: забывается худший открытый лист, если он хуже нового потомка, иначе забывается сам потомок.
+    // Если открытых листьев нет, вся память занята цепочками от старта, и потомок в неё не помещается совсем
+    private boolean makeRoom (int node, double f, int g) {
+        if (worstOpened.isEmpty()) {
+            isMemoryExhausted = true;
+            return false;
+        }
+        int worst = worstOpened.peek();
+        boolean isDeadEnd = !bestOpened.contains(worst);
+        forgottenSinceRise++;
+        if (!isDeadEnd && -worstOpened.getMinKey() <= countKey(f, g) || nodeParents[worst] == NO_NODE) {
+            forgottenF[node] = Math.min(forgottenF[node], f);
+            return false;
+        }
+
+        removeFromOpened(worst);
+        int parent = nodeParents[worst];
+        double worstF = isDeadEnd ? INFINITY : nodeF[worst];
+        freeNode(worst);
+        removeChild(parent, worstF);
+        return true;
+    }
+
+    // Потомок ушёл из памяти. Узел остаётся открытым с лучшей забытой оценкой, чтобы его можно было раскрыть
+    // заново; без потомков он снова лист. Если забывать было нечего, узел становится тупиком
+    private void removeChild (int node, double backedUpF) {
+        childCounts[node]--;
+        forgottenF[node] = Math.min(forgottenF[node], backedUpF);
+        if (node == expandingNode) {
+            return;
+        }
+        if (childCounts[node] > 0) {
+            if (forgottenF[node] != INFINITY) {
+                addPartlyForgotten(node);
+            }
+        } else if (forgottenF[node] != INFINITY) {
+            reopen(node);
+        } else {
+            addDeadEnd(node);
+        }
+    }
+
+    // Найден путь короче: поддерево узла посчитано от старого g и выбрасывается, сам узел снова открытый лист
+    private void reattach (int existing, int node, int summaryG, double f) {
+        pruneDescendants(existing);
+        removeFromOpened(existing);
+        int oldParent = nodeParents[existing];
+
+        nodeG[existing] = summaryG;
+        nodeF[existing] = f;
+        nodeParents[existing] = node;
+        nodeDepths[existing] = nodeDepths[node] + 1;
+        forgottenF[existing] = INFINITY;
+        childCounts[node]++;
+        addToOpened(existing);
+
+        removeChild(oldParent, INFINITY);
+    }
+
+    // Потомки ищутся среди соседних ячеек: у узла они только там
+    private void pruneDescendants (int root) {
+        int stackSize = 0;
+        pruneStack[stackSize++] = root;
+        while (stackSize > 0) {
+            int node = pruneStack[--stackSize];
+            int cell = nodeCells[node];
+            int x = grid.x(cell);
+            int y = grid.y(cell);
+            for (int k = 0; k < OFFSETS_X.length && childCounts[node] > 0; k++) {
+                int neighbourX = x + OFFSETS_X[k];
+                int neighbourY = y + OFFSETS_Y[k];
+                if (!grid.contains(neighbourX, neighbourY)) {
+                    continue;
+                }
+                int child = findNode(grid.index(neighbourX, neighbourY));
+                if (child != NO_NODE && nodeParents[child] == node) {
+                    childCounts[node]--;
+                    pruneStack[stackSize++] = child;
+                }
+            }
+            if (node != root) {
+                removeFromOpened(node);
+                freeNode(node);
+            }
+        }
+    }
+
+    private void reopen (int node) {
+        statistics.onReopened();
+        nodeF[node] = forgottenF[node];
+        forgottenF[node] = INFINITY;
+        addToOpened(node);
+    }
+
+    // Открытые листья лежат в обеих кучах: по минимуму выбирается следующий узел, по максимуму - забываемый
+    private void addToOpened (int node) {
+        long key = countKey(nodeF[node], nodeG[node]);
+        bestOpened.add(node, key);
+        worstOpened.add(node, -key);
+    }
+
+    // Раскрытый лист, все соседи которого уже в памяти с g не хуже. Раскрывать его незачем, но он отсекает
+    // повторные пути в свою ячейку, поэтому не освобождается сразу, а забывается раньше любого открытого листа
+    private void addDeadEnd (int node) {
+        worstOpened.add(node, DEAD_END_KEY);
+    }
+
+    // Узел с потомками в памяти забыть нельзя, поэтому он только в куче выбора
+    private void addPartlyForgotten (int node) {
+        bestOpened.add(node, countKey(forgottenF[node], nodeG[node]));
+    }
+
+    private void removeFromOpened (int node) {
+        if (bestOpened.contains(node)) {
+            bestOpened.remove(node);
+        }
+        if (worstOpened.contains(node)) {
+            worstOpened.remove(node);
+        }
+    }
+
+    // Стоимости целые, поэтому f округляется вверх и остаётся нижней оценкой. При равных f раскрывается
+    // самый глубокий узел, а забывается самый мелкий, как в SMA*: иначе листья с одной оценкой вытесняют
+    // друг друга по кругу
+    static long countKey (double f, int g) {
+        long keyF = f < MAX_KEY_F ? (long) Math.ceil(f) : MAX_KEY_F;
+        return (keyF << 31) - g;
+    }
+
+    // Путь собирается по цепочке узлов от финиша; соседние узлы - соседние ячейки
+    @Override
+    protected void countPath () {
+        int pathNodes = 0;
+        for (int node = endNode; node != NO_NODE; node = nodeParents[node]) {
+            pathNodes++;
+        }
+        List<Point> path = new ArrayList<>(pathNodes);
+        for (int node = endNode; node != NO_NODE; node = nodeParents[node]) {
+            path.add(toPoint(nodeCells[node]));
+        }
+        setPath(path, nodeG[endNode]);
+    }
+
+    private int allocateNode (int cell, int g, double f, int parent) {
+        int node = freeNodes[--freeCount];
+        nodeCells[node] = cell;
+        nodeG[node] = g;
+        nodeF[node] = f;
+        nodeParents[node] = parent;
+        nodeDepths[node] = parent == NO_NODE ? 0 : nodeDepths[parent] + 1;
+        childCounts[node] = 0;
+        forgottenF[node] = INFINITY;
+
+        int slot = findSlot(cell);
+        slotCells[slot] = cell;
+        slotNodes[slot] = node;
+
+        peakNodes = Math.max(peakNodes, capacity - freeCount);
+        return node;
+    }
+
+    // Освободившийся слот заполняется следующими элементами цепочки, чтобы поиск не обрывался на дыре
+    private void freeNode (int node) {
+        int slot = findSlot(nodeCells[node]);
+        slotCells[slot] = EMPTY_SLOT;
+
+        int next = nextSlot(slot);
+        while (slotCells[next] != EMPTY_SLOT) {
+            int home = hash(slotCells[next]);
+            if (countProbeDistance(home, next) >= countProbeDistance(slot, next)) {
+                slotCells[slot] = slotCells[next];
+                slotNodes[slot] = slotNodes[next];
+                slotCells[next] = EMPTY_SLOT;
+                slot = next;
+            }
+            next = nextSlot(next);
+        }
+
+        freeNodes[freeCount++] = node;
+    }
+
+    private int findNode (int cell) {
+        int slot = findSlot(cell);
+        return slotCells[slot] == cell ? slotNodes[slot] : NO_NODE;
+    }
+
+    private int findSlot (int cell) {
+        int slot = hash(cell);
+        while (slotCells[slot] != EMPTY_SLOT && slotCells[slot] != cell) {
+            slot = nextSlot(slot);
+        }
+        return slot;
+    }
+
+    // Число слотов не степень двойки, чтобы весь лимит памяти шёл на узлы: перемешанный номер ячейки
+    // переводится в слот умножением, а не сдвигом
+    private int hash (int cell) {
+        return (int) (((cell * 0x9E3779B9) & 0xFFFFFFFFL) * slotCells.length >>> 32);
+    }
+
+    private int nextSlot (int slot) {
+        return slot + 1 == slotCells.length ? 0 : slot + 1;
+    }
+
+    private int countProbeDistance (int from, int to) {
+        return to >= from ? to - from : to - from + slotCells.length;
+    }
+
+    private void clearNodes () {
+        Arrays.fill(slotCells, EMPTY_SLOT);
+        bestOpened.clear();
+        worstOpened.clear();
+        for (int node = 0; node < capacity; node++) {
+            freeNodes[node] = capacity - 1 - node;
+        }
+        freeCount = capacity;
+        expandingNode = NO_NODE;
+        endNode = NO_NODE;
+    }
+
+    // Закрытых ячеек в сетке нет: считаются раскрытия, вместе с повторными
+    @Override
+    public int countExpandedCells () {
+        return statistics.getExpandedNodes();
+    }
+
+    @Override
+    public void reset () {
+        super.reset();
+        clearNodes();
+    }
+}
@@ -0,0 +1,20 @@
+package ru.dopler.algorithms;
+
+public interface OpenSet {
+
+    void add (int cell, double f);
+
+    boolean contains (int cell);
+
+    void decreaseKey (int cell, double f);
+
+    int poll ();
+
+    double getMinKey ();
+
+    boolean isEmpty ();
+
+    int size ();
+
+    void clear ();
+}
@@ -0,0 +1,157 @@
+package ru.dopler.algorithms;
+
+import java.awt.*;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class PathCache {
+
+    private final int capacity;
+    private final LinkedHashMap<Key, PathResult> entries;
+
+    // Все записи относятся к этой версии карты: при её смене устаревшие записи сразу удаляются, а не ждут вытеснения
+    private long mapVersion = 0;
+
+    private long hitCount = 0;
+    private long missCount = 0;
+    private long evictionCount = 0;
+    private long invalidationCount = 0;
+
+    public PathCache (int capacity) {
+        this.capacity = capacity;
+        entries = new LinkedHashMap<Key, PathResult>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry (Map.Entry<Key, PathResult> eldest) {
+                if (size() > PathCache.this.capacity) {
+                    evictionCount++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized PathResult get (Point startCell, Point endCell, int weight, long mapVersion) {
+        PathResult result = mapVersion == this.mapVersion ? entries.get(new Key(startCell, endCell, weight)) : null;
+        if (result != null) {
+            hitCount++;
+        } else {
+            missCount++;
+        }
+        return result;
+    }
+
+    // Поиск, начатый до смены версии карты, мог пройти по уже изменённым ячейкам, и его результат не сохраняется
+    public synchronized void put (Point startCell, Point endCell, int weight, long mapVersion, PathResult result) {
+        if (mapVersion == this.mapVersion) {
+            entries.put(new Key(startCell, endCell, weight), result);
+        }
+    }
+
+    // Новая стена портит только пути, проходящие через неё или через угол, который она закрыла; они удаляются
+    // на месте, остальные записи переходят под новую версию карты
+    public synchronized void invalidateCell (Point cell, long oldMapVersion, long newMapVersion) {
+        if (mapVersion != oldMapVersion) {
+            invalidateAll(newMapVersion);
+            return;
+        }
+        Iterator<PathResult> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (isTouched(iterator.next().getPath(), cell)) {
+                iterator.remove();
+                invalidationCount++;
+            }
+        }
+        mapVersion = newMapVersion;
+    }
+
+    // Изменение, после которого любой путь мог стать неверным или не самым коротким
+    public synchronized void invalidateAll (long newMapVersion) {
+        clear();
+        mapVersion = newMapVersion;
+    }
+
+    // Диагональный шаг срезает угол, если занята одна из двух боковых ячеек, поэтому они тоже принадлежат пути
+    private static boolean isTouched (List<Point> path, Point cell) {
+        Point previous = null;
+        for (Point current : path) {
+            if (current.equals(cell)) {
+                return true;
+            }
+            if (previous != null && previous.x != current.x && previous.y != current.y) {
+                if (cell.x == current.x && cell.y == previous.y || cell.x == previous.x && cell.y == current.y) {
+                    return true;
+                }
+            }
+            previous = current;
+        }
+        return false;
+    }
+
+    public synchronized void clear () {
+        invalidationCount += entries.size();
+        entries.clear();
+    }
+
+    public synchronized int size () {
+        return entries.size();
+    }
+
+    public synchronized long getHitCount () {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount () {
+        return missCount;
+    }
+
+    public synchronized long getEvictionCount () {
+        return evictionCount;
+    }
+
+    public synchronized long getInvalidationCount () {
+        return invalidationCount;
+    }
+
+    private static class Key {
+
+        private final int startX;
+        private final int startY;
+        private final int endX;
+        private final int endY;
+        private final int weight;
+
+        private Key (Point startCell, Point endCell, int weight) {
+            this.startX = startCell.x;
+            this.startY = startCell.y;
+            this.endX = endCell.x;
+            this.endY = endCell.y;
+            this.weight = weight;
+        }
+
+        @Override
+        public boolean equals (Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return startX == key.startX && startY == key.startY && endX == key.endX && endY == key.endY
+                    && weight == key.weight;
+        }
+
+        @Override
+        public int hashCode () {
+            int result = startX;
+            result = 31 * result + startY;
+            result = 31 * result + endX;
+            result = 31 * result + endY;
+            result = 31 * result + weight;
+            return result;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package ru.dopler.algorithms;
+
+import java.awt.*;
+
+public class PathQuery {
+
+    private final Point startCell;
+    private final Point endCell;
+
+    public PathQuery (Point startCell, Point endCell) {
+        this.startCell = startCell;
+        this.endCell = endCell;
+    }
+
+    public Point getStartCell () {
+        return startCell;
+    }
+
+    public Point getEndCell () {
+        return endCell;
+    }
+}
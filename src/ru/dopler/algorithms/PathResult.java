@@ -0,0 +1,30 @@
+package ru.dopler.algorithms;
+
+import java.awt.*;
+import java.util.Collections;
+import java.util.List;
+
+public class PathResult {
+
+    private final boolean isPathFind;
+    private final int pathLength;
+    private final List<Point> path;
+
+    public PathResult (boolean isPathFind, int pathLength, List<Point> path) {
+        this.isPathFind = isPathFind;
+        this.pathLength = pathLength;
+        this.path = Collections.unmodifiableList(path);
+    }
+
+    public boolean isPathFind () {
+        return isPathFind;
+    }
+
+    public int getPathLength () {
+        return pathLength;
+    }
+
+    public List<Point> getPath () {
+        return path;
+    }
+}
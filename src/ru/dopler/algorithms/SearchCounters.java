@@ -0,0 +1,109 @@
+package ru.dopler.algorithms;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongBinaryOperator;
+
+// Накопительные счётчики всех поисков процесса, доступны по JMX как ru.dopler.pathfinder:type=SearchCounters
+public class SearchCounters implements SearchCountersMXBean {
+
+    public static final String OBJECT_NAME = "ru.dopler.pathfinder:type=SearchCounters";
+
+    private static final SearchCounters INSTANCE = register(new SearchCounters());
+
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder pathsFound = new LongAdder();
+    private final LongAdder expandedNodes = new LongAdder();
+    private final LongAdder generatedNodes = new LongAdder();
+    private final LongAdder reopenedNodes = new LongAdder();
+    private final LongAdder heuristicEvaluations = new LongAdder();
+    private final LongAdder searchNanos = new LongAdder();
+    private final LongAccumulator maxPeakOpenSetSize = new LongAccumulator(new LongBinaryOperator() {
+        @Override
+        public long applyAsLong (long left, long right) {
+            return Math.max(left, right);
+        }
+    }, 0);
+
+    private SearchCounters () {
+    }
+
+    public static SearchCounters getInstance () {
+        return INSTANCE;
+    }
+
+    // Имя уже может быть занято копией класса из другого загрузчика (сервлет-контейнер, тесты в одной JVM).
+    // Тогда по JMX видна та копия, а счётчики этой копии остаются доступны через getInstance()
+    private static SearchCounters register (SearchCounters counters) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(counters, name);
+            }
+        } catch (InstanceAlreadyExistsException e) {
+            // Другая копия зарегистрировалась между проверкой и регистрацией
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register " + OBJECT_NAME, e);
+        }
+        return counters;
+    }
+
+    void record (SearchStatistics statistics, boolean isPathFind) {
+        searches.increment();
+        if (isPathFind) {
+            pathsFound.increment();
+        }
+        expandedNodes.add(statistics.getExpandedNodes());
+        generatedNodes.add(statistics.getGeneratedNodes());
+        reopenedNodes.add(statistics.getReopenedNodes());
+        heuristicEvaluations.add(statistics.getHeuristicEvaluations());
+        searchNanos.add(statistics.getSearchNanos());
+        maxPeakOpenSetSize.accumulate(statistics.getPeakOpenSetSize());
+    }
+
+    @Override
+    public long getSearches () {
+        return searches.sum();
+    }
+
+    @Override
+    public long getPathsFound () {
+        return pathsFound.sum();
+    }
+
+    @Override
+    public long getExpandedNodes () {
+        return expandedNodes.sum();
+    }
+
+    @Override
+    public long getGeneratedNodes () {
+        return generatedNodes.sum();
+    }
+
+    @Override
+    public long getReopenedNodes () {
+        return reopenedNodes.sum();
+    }
+
+    @Override
+    public long getHeuristicEvaluations () {
+        return heuristicEvaluations.sum();
+    }
+
+    @Override
+    public long getMaxPeakOpenSetSize () {
+        return maxPeakOpenSetSize.get();
+    }
+
+    @Override
+    public long getSearchNanos () {
+        return searchNanos.sum();
+    }
+}
@@ -0,0 +1,20 @@
+package ru.dopler.algorithms;
+
+public interface SearchCountersMXBean {
+
+    long getSearches ();
+
+    long getPathsFound ();
+
+    long getExpandedNodes ();
+
+    long getGeneratedNodes ();
+
+    long getReopenedNodes ();
+
+    long getHeuristicEvaluations ();
+
+    long getMaxPeakOpenSetSize ();
+
+    long getSearchNanos ();
+}
@@ -0,0 +1,58 @@
+package ru.dopler.algorithms;
+
+import jdk.jfr.*;
+
+@Name("ru.dopler.Search")
+@Label("Path Search")
+@Category("Pathfinder")
+@StackTrace(false)
+class SearchEvent extends Event {
+
+    @Label("Algorithm")
+    String algorithm;
+
+    @Label("Start X")
+    int startX;
+
+    @Label("Start Y")
+    int startY;
+
+    @Label("End X")
+    int endX;
+
+    @Label("End Y")
+    int endY;
+
+    @Label("Path Found")
+    boolean isPathFind;
+
+    @Label("Path Length")
+    int pathLength;
+
+    @Label("Expanded Nodes")
+    int expandedNodes;
+
+    @Label("Generated Nodes")
+    int generatedNodes;
+
+    @Label("Reopened Nodes")
+    int reopenedNodes;
+
+    @Label("Peak Open Set Size")
+    int peakOpenSetSize;
+
+    @Label("Heuristic Evaluations")
+    long heuristicEvaluations;
+
+    @Label("Selection Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long selectionNanos;
+
+    @Label("Expansion Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long expansionNanos;
+
+    @Label("Reconstruction Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long reconstructionNanos;
+}
@@ -0,0 +1,135 @@
+package ru.dopler.algorithms;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+// Все шаги поиска выполняются в одном потоке планировщика. Между тиками поток спит,
+// а за тик делается столько шагов, сколько положено по заданной скорости
+public class SearchScheduler {
+
+    public static final int FULL_SPEED = 0;
+
+    // На полной скорости поиск идёт порциями, чтобы его можно было отменить
+    private static final int FULL_SPEED_CHUNK = 4096;
+
+    private final long tickMillis;
+    private final ScheduledExecutorService executor;
+
+    private volatile Thread schedulerThread;
+    private SteppingTask currentTask;
+
+    public SearchScheduler (long tickMillis) {
+        this.tickMillis = tickMillis;
+        executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread (Runnable runnable) {
+                Thread thread = new Thread(runnable, "search-scheduler");
+                thread.setDaemon(true);
+                schedulerThread = thread;
+                return thread;
+            }
+        });
+    }
+
+    public void run (Algorithm alg, int stepsPerSecond) {
+        cancel();
+        synchronized (this) {
+            cancelTask();
+            currentTask = new SteppingTask(alg, stepsPerSecond);
+            executor.execute(currentTask);
+        }
+    }
+
+    // Шаги по требованию: остановленный или не начатый поиск продвигается на steps узлов
+    public void step (final Algorithm alg, final int steps) {
+        cancel();
+        executor.execute(new Runnable() {
+            @Override
+            public void run () {
+                if (!alg.isProcess()) {
+                    alg.begin();
+                }
+                alg.step(steps);
+            }
+        });
+    }
+
+    // Возвращается, когда текущий шаг уже завершён и новых не будет. Из потока планировщика, например из
+    // слушателя, вызванного шагом, ждать нечего: текущий шаг и есть вызывающий, а следующие уже отменены.
+    // Ожидание идёт вне монитора, иначе шаг, который сам зовёт run(), ждал бы монитор, а монитор - шаг
+    public void cancel () {
+        cancelTask();
+        if (Thread.currentThread() == schedulerThread) {
+            return;
+        }
+        try {
+            executor.submit(new Runnable() {
+                @Override
+                public void run () {
+                }
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private synchronized void cancelTask () {
+        if (currentTask != null) {
+            currentTask.isCancelled = true;
+            currentTask = null;
+        }
+    }
+
+    public void shutdown () {
+        cancel();
+        executor.shutdown();
+    }
+
+    private class SteppingTask implements Runnable {
+
+        private final Algorithm alg;
+        private final int stepsPerSecond;
+
+        private volatile boolean isCancelled = false;
+
+        private boolean isStarted = false;
+        private long startNanos;
+        private long doneSteps;
+
+        SteppingTask (Algorithm alg, int stepsPerSecond) {
+            this.alg = alg;
+            this.stepsPerSecond = stepsPerSecond;
+        }
+
+        @Override
+        public void run () {
+            if (isCancelled) {
+                return;
+            }
+            if (!isStarted) {
+                alg.begin();
+                startNanos = System.nanoTime();
+                isStarted = true;
+            }
+
+            if (stepsPerSecond == FULL_SPEED) {
+                if (alg.step(FULL_SPEED_CHUNK)) {
+                    executor.execute(this);
+                }
+                return;
+            }
+
+            long dueSteps = (System.nanoTime() - startNanos) * stepsPerSecond / TimeUnit.SECONDS.toNanos(1);
+            int steps = (int) Math.min(Math.max(dueSteps - doneSteps, 1), Integer.MAX_VALUE);
+            doneSteps += steps;
+            if (alg.step(steps)) {
+                executor.schedule(this, tickMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+}
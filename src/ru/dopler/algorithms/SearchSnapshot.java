@@ -0,0 +1,71 @@
+package ru.dopler.algorithms;
+
+import java.awt.*;
+import java.util.Collections;
+import java.util.List;
+
+// Неизменяемый срез хода поиска. Поиск публикует новый срез через volatile-ссылку после каждого step(),
+// читатели берут его без блокировок и видят согласованные между собой путь, статус и счётчики
+public class SearchSnapshot {
+
+    public static final SearchSnapshot EMPTY = new SearchSnapshot(false, false, 0, Collections.<Point>emptyList(), 0, 0, 0);
+
+    private final boolean isProcess;
+    private final boolean isPathFind;
+    private final int pathLength;
+    private final List<Point> path;
+    private final int expandedNodes;
+    private final int generatedNodes;
+    private final int peakOpenSetSize;
+    private final double suboptimalityBound;
+
+    public SearchSnapshot (boolean isProcess, boolean isPathFind, int pathLength, List<Point> path,
+                           int expandedNodes, int generatedNodes, int peakOpenSetSize) {
+        this(isProcess, isPathFind, pathLength, path, expandedNodes, generatedNodes, peakOpenSetSize, Double.NaN);
+    }
+
+    public SearchSnapshot (boolean isProcess, boolean isPathFind, int pathLength, List<Point> path,
+                           int expandedNodes, int generatedNodes, int peakOpenSetSize, double suboptimalityBound) {
+        this.isProcess = isProcess;
+        this.isPathFind = isPathFind;
+        this.pathLength = pathLength;
+        this.path = Collections.unmodifiableList(path);
+        this.expandedNodes = expandedNodes;
+        this.generatedNodes = generatedNodes;
+        this.peakOpenSetSize = peakOpenSetSize;
+        this.suboptimalityBound = suboptimalityBound;
+    }
+
+    public boolean isProcess () {
+        return isProcess;
+    }
+
+    public boolean isPathFind () {
+        return isPathFind;
+    }
+
+    public int getPathLength () {
+        return pathLength;
+    }
+
+    public List<Point> getPath () {
+        return path;
+    }
+
+    public int getExpandedNodes () {
+        return expandedNodes;
+    }
+
+    public int getGeneratedNodes () {
+        return generatedNodes;
+    }
+
+    public int getPeakOpenSetSize () {
+        return peakOpenSetSize;
+    }
+
+    // Во сколько раз путь может быть длиннее кратчайшего; NaN, если алгоритм такой оценки не даёт
+    public double getSuboptimalityBound () {
+        return suboptimalityBound;
+    }
+}
@@ -0,0 +1,131 @@
+package ru.dopler.algorithms;
+
+// Счётчики одного запуска. Время фаз замеряется на каждом SAMPLE_INTERVAL-м раскрытии и домножается,
+// чтобы пара вызовов System.nanoTime() на узел не стоила заметной доли поиска
+public class SearchStatistics {
+
+    static final int SAMPLE_INTERVAL = 16;
+
+    private int expandedNodes;
+    private int generatedNodes;
+    private int reopenedNodes;
+    private int peakOpenSetSize;
+    private long heuristicEvaluations;
+
+    private long selectionNanos;
+    private long expansionNanos;
+    private long reconstructionNanos;
+    private long searchNanos;
+
+    private boolean isSampling;
+    private long phaseStartNanos;
+
+    void clear () {
+        expandedNodes = 0;
+        generatedNodes = 0;
+        reopenedNodes = 0;
+        peakOpenSetSize = 0;
+        heuristicEvaluations = 0;
+        selectionNanos = 0;
+        expansionNanos = 0;
+        reconstructionNanos = 0;
+        searchNanos = 0;
+        isSampling = false;
+    }
+
+    void beginSelection () {
+        isSampling = (expandedNodes & (SAMPLE_INTERVAL - 1)) == 0;
+        if (isSampling) {
+            phaseStartNanos = System.nanoTime();
+        }
+    }
+
+    void beginExpansion () {
+        expandedNodes++;
+        if (isSampling) {
+            long now = System.nanoTime();
+            selectionNanos += (now - phaseStartNanos) * SAMPLE_INTERVAL;
+            phaseStartNanos = now;
+        }
+    }
+
+    // Выбор закончился без раскрытия: узел возвращён в очередь с новым ключом или выбран финиш. Замер
+    // отбрасывается, потому что множитель SAMPLE_INTERVAL рассчитан на раскрытия
+    void endSelection () {
+        isSampling = false;
+    }
+
+    void endExpansion (int openSetSize) {
+        if (isSampling) {
+            expansionNanos += (System.nanoTime() - phaseStartNanos) * SAMPLE_INTERVAL;
+            isSampling = false;
+        }
+        if (openSetSize > peakOpenSetSize) {
+            peakOpenSetSize = openSetSize;
+        }
+    }
+
+    void onGenerated () {
+        generatedNodes++;
+    }
+
+    void onReopened () {
+        reopenedNodes++;
+    }
+
+    void onHeuristicEvaluated () {
+        heuristicEvaluations++;
+    }
+
+    void setReconstructionNanos (long nanos) {
+        reconstructionNanos = nanos;
+    }
+
+    void addSearchNanos (long nanos) {
+        searchNanos += nanos;
+    }
+
+    public int getExpandedNodes () {
+        return expandedNodes;
+    }
+
+    public int getGeneratedNodes () {
+        return generatedNodes;
+    }
+
+    public int getReopenedNodes () {
+        return reopenedNodes;
+    }
+
+    public int getPeakOpenSetSize () {
+        return peakOpenSetSize;
+    }
+
+    public long getHeuristicEvaluations () {
+        return heuristicEvaluations;
+    }
+
+    public long getSelectionNanos () {
+        return selectionNanos;
+    }
+
+    public long getExpansionNanos () {
+        return expansionNanos;
+    }
+
+    public long getReconstructionNanos () {
+        return reconstructionNanos;
+    }
+
+    public long getSearchNanos () {
+        return searchNanos;
+    }
+
+    @Override
+    public String toString () {
+        return String.format("expanded %d, generated %d, reopened %d, peak open %d, heuristic %d, "
+                        + "selection %.3f ms, expansion %.3f ms, reconstruction %.3f ms, total %.3f ms",
+                expandedNodes, generatedNodes, reopenedNodes, peakOpenSetSize, heuristicEvaluations,
+                selectionNanos / 1e6, expansionNanos / 1e6, reconstructionNanos / 1e6, searchNanos / 1e6);
+    }
+}
@@ -0,0 +1,209 @@
+package ru.dopler.core;
+
+import ru.dopler.algorithms.*;
+import ru.dopler.grid.MappedWallLayer;
+import ru.dopler.grid.TiledGrid;
+
+import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+public class HeadlessMain {
+
+    private static final String DEFAULT_ALGORITHM = "astar";
+    // При весе 10 октильная эвристика равна стоимости пути по пустому полю (10 за прямой шаг, 14 за диагональ)
+    // и не завышает ни один путь
+    private static final int DEFAULT_WEIGHT = 10;
+    private static final double LENGTH_TOLERANCE = 1e-4;
+    private static final int UNIT_SWAMP_COST = 1;
+
+    private static final String CONVERT_OPTION = "--convert";
+    private static final String WALL_FILE_SUFFIX = ".walls";
+
+    public static void main (String[] args) throws IOException {
+        if (args.length == 3 && CONVERT_OPTION.equals(args[0])) {
+            convert(Paths.get(args[1]), Paths.get(args[2]));
+            return;
+        }
+        if (args.length < 2) {
+            System.err.println("Usage: HeadlessMain <file.map|file.walls> <file.scen> [astar|jps|hpa|bidirectional|dstar|ara|sma] [weight] [swampCost]");
+            System.err.println("       HeadlessMain --convert <file.map> <file.walls>");
+            System.exit(1);
+        }
+        Path mapPath = Paths.get(args[0]);
+        Path scenarioPath = Paths.get(args[1]);
+        String algorithmName = args.length > 2 ? args[2] : DEFAULT_ALGORITHM;
+        int weight = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_WEIGHT;
+        int swampCost = args.length > 4 ? Integer.parseInt(args[4]) : UNIT_SWAMP_COST;
+
+        long loadStartNanos = System.nanoTime();
+        List<MovingAiScenario> scenarios = MovingAiScenario.load(scenarioPath);
+        if (scenarios.isEmpty()) {
+            System.err.println("No scenarios in " + scenarioPath);
+            System.exit(1);
+        }
+
+        GridAlgorithm alg;
+        if (mapPath.toString().endsWith(WALL_FILE_SUFFIX)) {
+            if (swampCost != UNIT_SWAMP_COST) {
+                throw new IllegalArgumentException("A mapped wall file has no terrain, swamp cost must be 1: " + swampCost);
+            }
+            alg = createMappedAlgorithm(algorithmName, MappedWallLayer.open(mapPath), weight);
+        } else {
+            MovingAiMap map = MovingAiMap.load(mapPath);
+            alg = createAlgorithm(algorithmName, map.getWidth(), map.getHeight(), weight);
+            map.applyTo(alg, scenarios.get(0).getStartCell(), scenarios.get(0).getEndCell());
+            if (swampCost != UNIT_SWAMP_COST) {
+                if (!(alg instanceof AStar)) {
+                    throw new IllegalArgumentException("Only astar supports terrain costs: " + algorithmName);
+                }
+                ((AStar) alg).setTerrain(map.createTerrain(swampCost));
+            }
+        }
+        System.out.println(String.format("Loaded %dx%d map and %d scenarios in %.1f ms", alg.getGrid().getWidth(),
+                alg.getGrid().getHeight(), scenarios.size(), (System.nanoTime() - loadStartNanos) / 1e6));
+
+        run(alg, scenarios, swampCost == UNIT_SWAMP_COST);
+    }
+
+    private static void convert (Path mapPath, Path wallPath) throws IOException {
+        long startNanos = System.nanoTime();
+        MappedWallLayer walls = MovingAiMap.convert(mapPath, wallPath);
+        System.out.println(String.format("Converted %dx%d map to %s in %.1f ms", walls.getWidth(), walls.getHeight(),
+                wallPath, (System.nanoTime() - startNanos) / 1e6));
+    }
+
+    // Стены остаются в файле, состояние поиска заводится только для затронутых тайлов, а у SMA* оно целиком
+    // в пуле узлов ограниченного размера
+    private static GridAlgorithm createMappedAlgorithm (String name, MappedWallLayer walls, int weight) {
+        switch (name) {
+            case "astar":
+                return new AStar(new TiledGrid(walls), weight, new HashedBinaryHeap());
+            case "sma":
+                return new MemoryBoundedAStar(new TiledGrid(walls), weight, MemoryBoundedAStar.DEFAULT_MEMORY_LIMIT);
+            default:
+                throw new IllegalArgumentException("Only astar and sma run on a mapped wall file: " + name);
+        }
+    }
+
+    private static GridAlgorithm createAlgorithm (String name, int width, int height, int weight) {
+        switch (name) {
+            case "astar":
+                return new AStar(width, height, weight);
+            case "jps":
+                return new JumpPointSearch(width, height, weight);
+            case "hpa":
+                return new HierarchicalAStar(width, height, weight);
+            case "bidirectional":
+                return new BidirectionalAStar(width, height, weight);
+            case "dstar":
+                return new DStarLite(width, height, weight);
+            case "ara":
+                return new AnytimeRepairingAStar(width, height, weight);
+            case "sma":
+                return new MemoryBoundedAStar(width, height, weight);
+            default:
+                throw new IllegalArgumentException("Unknown algorithm: " + name);
+        }
+    }
+
+    // Оптимальные длины сценариев MovingAI посчитаны без стоимостей местности. С дорогим болотом путь
+    // сравнивать не с чем, и отчёт только отмечает найденные пути
+    private static void run (GridAlgorithm alg, List<MovingAiScenario> scenarios, boolean isUnitCost) {
+        long[] latencies = new long[scenarios.size()];
+        long totalExpanded = 0;
+        int optimal = 0;
+        int suboptimal = 0;
+        int failed = 0;
+        double worstRatio = 1;
+
+        System.out.println(String.format("%-6s %-6s %-11s %-11s %10s %10s %12s %12s  %s", "query", "bucket", "start", "end",
+                "ms", "expanded", "length", "optimal", "status"));
+        for (int i = 0; i < scenarios.size(); i++) {
+            MovingAiScenario scenario = scenarios.get(i);
+            alg.setStartCell(scenario.getStartCell());
+            alg.setEndCell(scenario.getEndCell());
+            alg.reset();
+
+            long startNanos = System.nanoTime();
+            alg.start();
+            latencies[i] = System.nanoTime() - startNanos;
+
+            int expanded = alg.countExpandedCells();
+            totalExpanded += expanded;
+
+            double length = alg.isPathFind() ? countOctileLength(alg.getPath()) : Double.NaN;
+            double expectedLength = scenario.getOptimalLength();
+            String status;
+            if (!alg.isPathFind()) {
+                status = "NO PATH";
+                failed++;
+            } else if (!isUnitCost) {
+                status = "FOUND";
+            } else if (Math.abs(length - expectedLength) <= LENGTH_TOLERANCE * Math.max(1, expectedLength)) {
+                status = "OK";
+                optimal++;
+            } else if (length > expectedLength) {
+                status = "SUBOPTIMAL";
+                suboptimal++;
+                worstRatio = Math.max(worstRatio, length / expectedLength);
+            } else {
+                status = "SHORTER THAN OPTIMAL";
+                failed++;
+            }
+
+            System.out.println(String.format("%-6d %-6d %-11s %-11s %10.3f %10d %12.4f %12.4f  %s", i, scenario.getBucket(),
+                    format(scenario.getStartCell()), format(scenario.getEndCell()), latencies[i] / 1e6, expanded,
+                    length, expectedLength, status));
+        }
+
+        Arrays.sort(latencies);
+        System.out.println();
+        if (isUnitCost) {
+            System.out.println(String.format("queries %d, optimal %d, suboptimal %d (worst ratio %.4f), failed %d",
+                    scenarios.size(), optimal, suboptimal, worstRatio, failed));
+        } else {
+            System.out.println(String.format("queries %d, found %d, failed %d (terrain costs, lengths not checked)",
+                    scenarios.size(), scenarios.size() - failed, failed));
+        }
+        System.out.println(String.format("latency ms: mean %.3f, p50 %.3f, p99 %.3f, max %.3f; mean expanded %d",
+                mean(latencies) / 1e6, percentile(latencies, 0.5) / 1e6, percentile(latencies, 0.99) / 1e6,
+                latencies[latencies.length - 1] / 1e6, totalExpanded / scenarios.size()));
+    }
+
+    // Длина в метрике MovingAI: прямой шаг 1, диагональный sqrt(2)
+    private static double countOctileLength (List<Point> path) {
+        int straight = 0;
+        int diagonal = 0;
+        for (int i = 1; i < path.size(); i++) {
+            Point previous = path.get(i - 1);
+            Point current = path.get(i);
+            if (previous.x != current.x && previous.y != current.y) {
+                diagonal++;
+            } else {
+                straight++;
+            }
+        }
+        return straight + diagonal * Math.sqrt(2);
+    }
+
+    private static double mean (long[] values) {
+        double sum = 0;
+        for (long value : values) {
+            sum += value;
+        }
+        return sum / values.length;
+    }
+
+    private static long percentile (long[] sortedValues, double fraction) {
+        int index = (int) Math.ceil(fraction * sortedValues.length) - 1;
+        return sortedValues[Math.max(0, Math.min(index, sortedValues.length - 1))];
+    }
+
+    private static String format (Point cell) {
+        return cell.x + "," + cell.y;
+    }
+}
@@ -1,10 +1,20 @@
 package ru.dopler.core;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+
 public class Main {
 
-    public static void main (String[] args) {
+    public static void main (String[] args) throws IOException {
         MainWindow form = new MainWindow(800, 600);
-        form.exec();
+
+        if (args.length == 1) {
+            form.exec(MovingAiMap.load(Paths.get(args[0])));
+        } else if (args.length == 2) {
+            form.exec(Integer.parseInt(args[0]), Integer.parseInt(args[1]));
+        } else {
+            form.exec();
+        }
     }
 
-}
\ No newline at end of file
+}
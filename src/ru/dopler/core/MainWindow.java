@@ -1,5 +1,6 @@
 package ru.dopler.core;
 
+import ru.dopler.algorithms.Algorithm;
 import ru.dopler.painter.FieldPainter;
 
 import javax.swing.*;
@@ -13,12 +14,26 @@ public class MainWindow extends JFrame {
     }
 
     public void exec () {
+        showField(new FieldPainter(getWidth(), getHeight()));
+    }
+
+    public void exec (int fieldWidth, int fieldHeight) {
+        showField(new FieldPainter(getWidth(), getHeight(), fieldWidth, fieldHeight));
+    }
+
+    public void exec (MovingAiMap map) {
+        FieldPainter fieldPainter = new FieldPainter(getWidth(), getHeight(), map.getWidth(), map.getHeight());
+        Algorithm alg = fieldPainter.getAlgorithm();
+        map.applyTo(alg, alg.getStartCell(), alg.getEndCell());
+        showField(fieldPainter);
+    }
+
+    private void showField (FieldPainter fieldPainter) {
         setLocationRelativeTo(null);
         setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
 
-        FieldPainter fieldPainter = new FieldPainter(getWidth(), getHeight());
         add(fieldPainter);
 
         setVisible(true);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,174 @@
+package ru.dopler.core;
+
+import ru.dopler.algorithms.Algorithm;
+import ru.dopler.cells.Wall;
+import ru.dopler.grid.MappedWallLayer;
+import ru.dopler.grid.TerrainLayer;
+
+import java.awt.*;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class MovingAiMap {
+
+    private static final Wall WALL = new Wall();
+    private static final byte SWAMP = 'S';
+
+    private final int width;
+    private final int height;
+    private final long[] walls;
+    // Болото проходимо, как и обычная местность; отдельно оно нужно только для слоя стоимостей
+    private final long[] swamps;
+
+    private MovingAiMap (int width, int height, long[] walls, long[] swamps) {
+        this.width = width;
+        this.height = height;
+        this.walls = walls;
+        this.swamps = swamps;
+    }
+
+    // Файл отображается в память целиком, строки карты разбираются прямо из буфера
+    public static MovingAiMap load (Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int[] size = readHeader(buffer, path);
+            int width = size[0];
+            int height = size[1];
+
+            long[] walls = new long[(int) (((long) width * height + 63) >>> 6)];
+            long[] swamps = new long[walls.length];
+            for (int y = 0; y < height; y++) {
+                skipWhitespace(buffer);
+                for (int x = 0; x < width; x++) {
+                    if (!buffer.hasRemaining()) {
+                        throw new IOException("Unexpected end of map at row " + y + " in " + path);
+                    }
+                    byte c = buffer.get();
+                    int index = y * width + x;
+                    if (!isPassable(c)) {
+                        walls[index >>> 6] |= 1L << index;
+                    } else if (c == SWAMP) {
+                        swamps[index >>> 6] |= 1L << index;
+                    }
+                }
+            }
+            return new MovingAiMap(width, height, walls, swamps);
+        }
+    }
+
+    // Карта переписывается в файл стен построчно, не занимая кучу под всю карту
+    public static MappedWallLayer convert (Path mapPath, Path wallPath) throws IOException {
+        try (FileChannel channel = FileChannel.open(mapPath, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int[] size = readHeader(buffer, mapPath);
+            int width = size[0];
+            int height = size[1];
+
+            MappedWallLayer walls = MappedWallLayer.create(wallPath, width, height);
+            for (int y = 0; y < height; y++) {
+                skipWhitespace(buffer);
+                for (int x = 0; x < width; x++) {
+                    if (!buffer.hasRemaining()) {
+                        throw new IOException("Unexpected end of map at row " + y + " in " + mapPath);
+                    }
+                    if (!isPassable(buffer.get())) {
+                        walls.setWall(x, y, true);
+                    }
+                }
+            }
+            walls.force();
+            return walls;
+        }
+    }
+
+    private static int[] readHeader (MappedByteBuffer buffer, Path path) throws IOException {
+        int width = -1;
+        int height = -1;
+        String token;
+        while (!"map".equals(token = readToken(buffer))) {
+            if ("type".equals(token)) {
+                readToken(buffer);
+            } else if ("width".equals(token)) {
+                width = Integer.parseInt(readToken(buffer));
+            } else if ("height".equals(token)) {
+                height = Integer.parseInt(readToken(buffer));
+            } else {
+                throw new IOException("Unexpected header field '" + token + "' in " + path);
+            }
+        }
+        if (width <= 0 || height <= 0) {
+            throw new IOException("Map size is missing in " + path);
+        }
+        return new int[]{width, height};
+    }
+
+    public int getWidth () {
+        return width;
+    }
+
+    public int getHeight () {
+        return height;
+    }
+
+    public boolean isWall (int x, int y) {
+        int index = y * width + x;
+        return (walls[index >>> 6] & (1L << index)) != 0;
+    }
+
+    // Слой стоимостей для AStar.setTerrain: болото стоит swampCost, остальная проходимая местность - единицу
+    public TerrainLayer createTerrain (int swampCost) {
+        TerrainLayer terrain = new TerrainLayer(width, height);
+        for (int word = 0; word < swamps.length; word++) {
+            long bits = swamps[word];
+            while (bits != 0) {
+                terrain.setCost((word << 6) + Long.numberOfTrailingZeros(bits), swampCost);
+                bits &= bits - 1;
+            }
+        }
+        return terrain;
+    }
+
+    // Старт и финиш ставятся до стен: позиции по умолчанию могут оказаться стенами карты
+    public void applyTo (Algorithm alg, Point startCell, Point endCell) {
+        alg.setStartCell(startCell);
+        alg.setEndCell(endCell);
+
+        for (int word = 0; word < walls.length; word++) {
+            long bits = walls[word];
+            while (bits != 0) {
+                int index = (word << 6) + Long.numberOfTrailingZeros(bits);
+                alg.setCell(index % width, index / width, WALL);
+                bits &= bits - 1;
+            }
+        }
+    }
+
+    private static boolean isPassable (byte c) {
+        return c == '.' || c == 'G' || c == SWAMP;
+    }
+
+    private static String readToken (MappedByteBuffer buffer) throws IOException {
+        skipWhitespace(buffer);
+        StringBuilder token = new StringBuilder();
+        while (buffer.hasRemaining()) {
+            byte c = buffer.get(buffer.position());
+            if (Character.isWhitespace(c)) {
+                break;
+            }
+            token.append((char) buffer.get());
+        }
+        if (token.length() == 0) {
+            throw new IOException("Unexpected end of map header");
+        }
+        return token.toString();
+    }
+
+    private static void skipWhitespace (MappedByteBuffer buffer) {
+        while (buffer.hasRemaining() && Character.isWhitespace(buffer.get(buffer.position()))) {
+            buffer.get();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package ru.dopler.core;
+
+import java.awt.*;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class MovingAiScenario {
+
+    private final int bucket;
+    private final Point startCell;
+    private final Point endCell;
+    private final double optimalLength;
+
+    public MovingAiScenario (int bucket, Point startCell, Point endCell, double optimalLength) {
+        this.bucket = bucket;
+        this.startCell = startCell;
+        this.endCell = endCell;
+        this.optimalLength = optimalLength;
+    }
+
+    // Строка: bucket, имя карты, ширина, высота, старт x y, финиш x y, оптимальная длина
+    public static List<MovingAiScenario> load (Path path) throws IOException {
+        List<MovingAiScenario> scenarios = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.US_ASCII)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("version")) {
+                    continue;
+                }
+
+                String[] tokens = line.split("\\s+");
+                int n = tokens.length;
+                if (n < 9) {
+                    throw new IOException("Malformed scenario at line " + lineNumber + " in " + path);
+                }
+                try {
+                    scenarios.add(new MovingAiScenario(
+                            Integer.parseInt(tokens[0]),
+                            new Point(Integer.parseInt(tokens[n - 5]), Integer.parseInt(tokens[n - 4])),
+                            new Point(Integer.parseInt(tokens[n - 3]), Integer.parseInt(tokens[n - 2])),
+                            Double.parseDouble(tokens[n - 1])));
+                } catch (NumberFormatException e) {
+                    throw new IOException("Malformed scenario at line " + lineNumber + " in " + path, e);
+                }
+            }
+        }
+        return scenarios;
+    }
+
+    public int getBucket () {
+        return bucket;
+    }
+
+    public Point getStartCell () {
+        return startCell;
+    }
+
+    public Point getEndCell () {
+        return endCell;
+    }
+
+    public double getOptimalLength () {
+        return optimalLength;
+    }
+}
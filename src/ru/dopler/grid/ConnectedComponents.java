@@ -0,0 +1,450 @@
+package ru.dopler.grid;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+
+// Компоненты связности проходимых ячеек. Диагональный шаг разрешён только при двух свободных
+// соседях по сторонам, поэтому он ничего не соединяет и достаточно 4-связности.
+// Ячейка хранит метку, метки объединены системой непересекающихся множеств: снятая стена
+// сливает компоненты за O(α), поставленная стена перемечает только отколовшиеся части
+public class ConnectedComponents {
+
+    public static final int NO_COMPONENT = -1;
+
+    private static final int[] OFFSETS_X = {0, 1, 0, -1};
+    private static final int[] OFFSETS_Y = {-1, 0, 1, 0};
+
+    // Кольцо из восьми соседей по часовой стрелке, начиная с верхнего; чётные позиции - соседи по сторонам
+    private static final int[] RING_X = {0, 1, 1, 1, 0, -1, -1, -1};
+    private static final int[] RING_Y = {-1, -1, 0, 1, 1, 1, 0, -1};
+
+    private final Grid grid;
+    private final int[] labels;
+
+    private int[] labelParents;
+    private byte[] labelRanks;
+    private int labelCount;
+    // Номера меток после сжатия, по старому номеру корня
+    private int[] labelRemap = new int[0];
+
+    // Общие буферы для перемечивания при расколе
+    private final int[] visitMarks;
+    private int visitStamp = 0;
+
+    private ConnectedComponents (Grid grid, int[] labels, int[] labelParents) {
+        this.grid = grid;
+        this.labels = labels;
+        this.labelParents = labelParents;
+        labelRanks = new byte[labelParents.length];
+        labelCount = labelParents.length;
+        visitMarks = new int[grid.size()];
+    }
+
+    public static ConnectedComponents build (Grid grid) {
+        return build(grid, Runtime.getRuntime().availableProcessors());
+    }
+
+    // Полосы строк размечаются параллельно, затем границы полос сшиваются последовательно
+    public static ConnectedComponents build (final Grid grid, int parallelism) {
+        final int width = grid.getWidth();
+        final int height = grid.getHeight();
+        final int[] parents = new int[grid.size()];
+        final int[] labels = new int[grid.size()];
+
+        int stripCount = Math.max(1, Math.min(parallelism, height));
+        final int[] stripStarts = new int[stripCount + 1];
+        for (int k = 0; k <= stripCount; k++) {
+            stripStarts[k] = (int) ((long) height * k / stripCount);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(stripCount, new ThreadFactory() {
+            @Override
+            public Thread newThread (Runnable runnable) {
+                Thread thread = new Thread(runnable, "component-builder");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        try {
+            List<Callable<Void>> strips = new ArrayList<>();
+            for (int k = 0; k < stripCount; k++) {
+                final int fromY = stripStarts[k];
+                final int toY = stripStarts[k + 1];
+                strips.add(new Callable<Void>() {
+                    @Override
+                    public Void call () {
+                        labelStrip(grid, parents, fromY, toY);
+                        return null;
+                    }
+                });
+            }
+            invokeAll(executor, strips);
+
+            for (int k = 1; k < stripCount; k++) {
+                int y = stripStarts[k];
+                for (int x = 0; x < width; x++) {
+                    if (!grid.isWall(x, y) && !grid.isWall(x, y - 1)) {
+                        union(parents, grid.index(x, y), grid.index(x, y - 1));
+                    }
+                }
+            }
+
+            // После сшивания корни только читаются, поэтому метки расставляются снова параллельно
+            List<Callable<Void>> flattens = new ArrayList<>();
+            for (int k = 0; k < stripCount; k++) {
+                final int from = stripStarts[k] * width;
+                final int to = stripStarts[k + 1] * width;
+                flattens.add(new Callable<Void>() {
+                    @Override
+                    public Void call () {
+                        for (int cell = from; cell < to; cell++) {
+                            labels[cell] = grid.isWall(cell) ? NO_COMPONENT : findRoot(parents, cell);
+                        }
+                        return null;
+                    }
+                });
+            }
+            invokeAll(executor, flattens);
+
+        } finally {
+            executor.shutdown();
+        }
+
+        for (int cell = 0; cell < parents.length; cell++) {
+            parents[cell] = cell;
+        }
+        return new ConnectedComponents(grid, labels, parents);
+    }
+
+    public boolean isConnected (int from, int to) {
+        int fromLabel = labels[from];
+        int toLabel = labels[to];
+        return fromLabel != NO_COMPONENT && toLabel != NO_COMPONENT && find(fromLabel) == find(toLabel);
+    }
+
+    public int getComponent (int cell) {
+        return labels[cell] == NO_COMPONENT ? NO_COMPONENT : find(labels[cell]);
+    }
+
+    // Вызывается после изменения стены в сетке
+    public void onWallChanged (int cell) {
+        if (grid.isWall(cell)) {
+            onWallAdded(cell);
+        } else {
+            onWallRemoved(cell);
+        }
+    }
+
+    // Ячейка получает метку первого свободного соседа, новая метка нужна, только если все соседи - стены
+    private void onWallRemoved (int cell) {
+        if (labels[cell] != NO_COMPONENT) {
+            return;
+        }
+        int label = NO_COMPONENT;
+
+        int x = grid.x(cell);
+        int y = grid.y(cell);
+        for (int k = 0; k < OFFSETS_X.length; k++) {
+            int neighbourX = x + OFFSETS_X[k];
+            int neighbourY = y + OFFSETS_Y[k];
+            if (!grid.contains(neighbourX, neighbourY) || grid.isWall(neighbourX, neighbourY)) {
+                continue;
+            }
+            int neighbourLabel = labels[grid.index(neighbourX, neighbourY)];
+            if (label == NO_COMPONENT) {
+                label = find(neighbourLabel);
+            } else {
+                unionLabels(label, neighbourLabel);
+            }
+        }
+        labels[cell] = label != NO_COMPONENT ? label : newLabel();
+    }
+
+    private void onWallAdded (int cell) {
+        if (labels[cell] == NO_COMPONENT) {
+            return;
+        }
+        labels[cell] = NO_COMPONENT;
+
+        int[] pieces = findSeparatedNeighbours(cell);
+        if (pieces.length > 1) {
+            relabelSplit(pieces);
+        }
+    }
+
+    // Соседи по сторонам, которые не соединены в обход ячейки через свободные клетки её кольца.
+    // Если такой сосед один, стена ничего не раскалывает
+    private int[] findSeparatedNeighbours (int cell) {
+        int x = grid.x(cell);
+        int y = grid.y(cell);
+        boolean[] isFree = new boolean[RING_X.length];
+        int freeCount = 0;
+        for (int k = 0; k < RING_X.length; k++) {
+            isFree[k] = grid.contains(x + RING_X[k], y + RING_Y[k]) && !grid.isWall(x + RING_X[k], y + RING_Y[k]);
+            if (isFree[k]) {
+                freeCount++;
+            }
+        }
+        if (freeCount == RING_X.length) {
+            return new int[0];
+        }
+
+        // Обход начинается сразу за занятой клеткой, чтобы серия свободных клеток не разрывалась
+        int first = 0;
+        while (isFree[first]) {
+            first++;
+        }
+
+        int[] pieces = new int[4];
+        int pieceCount = 0;
+        boolean isRunCounted = false;
+        for (int step = 1; step <= RING_X.length; step++) {
+            int k = (first + step) % RING_X.length;
+            if (!isFree[k]) {
+                isRunCounted = false;
+            } else if (k % 2 == 0 && !isRunCounted) {
+                pieces[pieceCount++] = grid.index(x + RING_X[k], y + RING_Y[k]);
+                isRunCounted = true;
+            }
+        }
+        return Arrays.copyOf(pieces, pieceCount);
+    }
+
+    // Обходы в ширину от каждой части идут по очереди. Встретившиеся обходы сливаются, закончившийся
+    // обход - отдельная компонента и получает новую метку. Последний незакончившийся обход сохраняет
+    // старую метку, поэтому работа пропорциональна меньшим частям
+    private void relabelSplit (int[] pieces) {
+        int count = pieces.length;
+        int stamp = nextVisitStamp(count);
+        int[] owners = new int[count];
+        List<int[]> queues = new ArrayList<>();
+        int[] heads = new int[count];
+        int[] tails = new int[count];
+        boolean[] isFinished = new boolean[count];
+
+        for (int i = 0; i < count; i++) {
+            owners[i] = i;
+            queues.add(new int[16]);
+            queues.get(i)[tails[i]++] = pieces[i];
+            visitMarks[pieces[i]] = stamp + i;
+        }
+
+        int active = count;
+        while (active > 1) {
+            for (int i = 0; i < count && active > 1; i++) {
+                if (owners[i] != i || isFinished[i]) {
+                    continue;
+                }
+                if (heads[i] == tails[i]) {
+                    isFinished[i] = true;
+                    active--;
+                    assignNewLabel(queues.get(i), tails[i]);
+                    continue;
+                }
+
+                int current = queues.get(i)[heads[i]++];
+                int x = grid.x(current);
+                int y = grid.y(current);
+                for (int k = 0; k < OFFSETS_X.length; k++) {
+                    int neighbourX = x + OFFSETS_X[k];
+                    int neighbourY = y + OFFSETS_Y[k];
+                    if (!grid.contains(neighbourX, neighbourY) || grid.isWall(neighbourX, neighbourY)) {
+                        continue;
+                    }
+                    int neighbour = grid.index(neighbourX, neighbourY);
+                    int mark = visitMarks[neighbour] - stamp;
+                    if (mark < 0 || mark >= count) {
+                        visitMarks[neighbour] = stamp + i;
+                        if (tails[i] == queues.get(i).length) {
+                            queues.set(i, Arrays.copyOf(queues.get(i), tails[i] * 2));
+                        }
+                        queues.get(i)[tails[i]++] = neighbour;
+                    } else {
+                        int other = findOwner(owners, mark);
+                        if (other != i) {
+                            absorb(i, other, owners, queues, heads, tails);
+                            active--;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // Посещённые ячейки части other переходят к части i, непросмотренный хвост её очереди - тоже
+    private void absorb (int i, int other, int[] owners, List<int[]> queues, int[] heads, int[] tails) {
+        owners[other] = i;
+        int[] queue = queues.get(i);
+        int[] otherQueue = queues.get(other);
+        int required = tails[i] + tails[other];
+        if (required > queue.length) {
+            queue = Arrays.copyOf(queue, Math.max(required, queue.length * 2));
+            queues.set(i, queue);
+        }
+
+        // Просмотренные ячейки другой части вставляются перед головой, непросмотренные - в хвост
+        int otherVisited = heads[other];
+        int pending = tails[i] - heads[i];
+        System.arraycopy(queue, heads[i], queue, heads[i] + otherVisited, pending);
+        System.arraycopy(otherQueue, 0, queue, heads[i], otherVisited);
+        heads[i] += otherVisited;
+        tails[i] += otherVisited;
+        System.arraycopy(otherQueue, heads[other], queue, tails[i], tails[other] - heads[other]);
+        tails[i] += tails[other] - heads[other];
+        queues.set(other, null);
+    }
+
+    private static int findOwner (int[] owners, int piece) {
+        while (owners[piece] != piece) {
+            piece = owners[piece];
+        }
+        return piece;
+    }
+
+    private void assignNewLabel (int[] cells, int size) {
+        int label = newLabel();
+        for (int k = 0; k < size; k++) {
+            labels[cells[k]] = label;
+        }
+    }
+
+    private int nextVisitStamp (int count) {
+        if (visitStamp > Integer.MAX_VALUE - 2 * count) {
+            Arrays.fill(visitMarks, 0);
+            visitStamp = 0;
+        }
+        visitStamp += count;
+        return visitStamp - count + 1;
+    }
+
+    // Отколовшиеся части и одиночные ячейки получают новые метки, а слитые метки остаются в массивах.
+    // Когда место кончается, сначала метки сжимаются, и массивы растут, только если живых меток
+    // больше половины: так их размер ограничен удвоенным числом ячеек
+    private int newLabel () {
+        if (labelCount == labelParents.length) {
+            compactLabels();
+            if (labelCount * 2 > labelParents.length) {
+                labelParents = Arrays.copyOf(labelParents, labelParents.length * 2);
+                labelRanks = Arrays.copyOf(labelRanks, labelRanks.length * 2);
+            }
+        }
+        labelParents[labelCount] = labelCount;
+        labelRanks[labelCount] = 0;
+        return labelCount++;
+    }
+
+    // Каждая ячейка получает номер корня своей метки, корни перенумеровываются подряд с нуля
+    private void compactLabels () {
+        if (labelRemap.length < labelCount) {
+            labelRemap = new int[labelParents.length];
+        }
+        Arrays.fill(labelRemap, 0, labelCount, NO_COMPONENT);
+
+        int compactCount = 0;
+        for (int cell = 0; cell < labels.length; cell++) {
+            if (labels[cell] == NO_COMPONENT) {
+                continue;
+            }
+            int root = find(labels[cell]);
+            if (labelRemap[root] == NO_COMPONENT) {
+                labelRemap[root] = compactCount++;
+            }
+            labels[cell] = labelRemap[root];
+        }
+
+        for (int label = 0; label < compactCount; label++) {
+            labelParents[label] = label;
+        }
+        Arrays.fill(labelRanks, 0, compactCount, (byte) 0);
+        labelCount = compactCount;
+    }
+
+    int getLabelCapacity () {
+        return labelParents.length;
+    }
+
+    private int find (int label) {
+        while (labelParents[label] != label) {
+            labelParents[label] = labelParents[labelParents[label]];
+            label = labelParents[label];
+        }
+        return label;
+    }
+
+    private void unionLabels (int first, int second) {
+        int firstRoot = find(first);
+        int secondRoot = find(second);
+        if (firstRoot == secondRoot) {
+            return;
+        }
+        if (labelRanks[firstRoot] < labelRanks[secondRoot]) {
+            labelParents[firstRoot] = secondRoot;
+        } else if (labelRanks[firstRoot] > labelRanks[secondRoot]) {
+            labelParents[secondRoot] = firstRoot;
+        } else {
+            labelParents[secondRoot] = firstRoot;
+            labelRanks[firstRoot]++;
+        }
+    }
+
+    private static void labelStrip (Grid grid, int[] parents, int fromY, int toY) {
+        int width = grid.getWidth();
+        for (int y = fromY; y < toY; y++) {
+            for (int x = 0; x < width; x++) {
+                int cell = grid.index(x, y);
+                parents[cell] = cell;
+                if (grid.isWall(x, y)) {
+                    continue;
+                }
+                if (x > 0 && !grid.isWall(x - 1, y)) {
+                    union(parents, cell, cell - 1);
+                }
+                if (y > fromY && !grid.isWall(x, y - 1)) {
+                    union(parents, cell, cell - width);
+                }
+            }
+        }
+    }
+
+    // Корнем всегда становится меньший номер: при сшивании полос метки не зависят от порядка объединений
+    private static void union (int[] parents, int first, int second) {
+        int firstRoot = compressRoot(parents, first);
+        int secondRoot = compressRoot(parents, second);
+        if (firstRoot < secondRoot) {
+            parents[secondRoot] = firstRoot;
+        } else if (secondRoot < firstRoot) {
+            parents[firstRoot] = secondRoot;
+        }
+    }
+
+    private static int compressRoot (int[] parents, int cell) {
+        while (parents[cell] != cell) {
+            parents[cell] = parents[parents[cell]];
+            cell = parents[cell];
+        }
+        return cell;
+    }
+
+    private static int findRoot (int[] parents, int cell) {
+        while (parents[cell] != cell) {
+            cell = parents[cell];
+        }
+        return cell;
+    }
+
+    private static void invokeAll (ExecutorService executor, List<Callable<Void>> tasks) {
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Component build was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Component build failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package ru.dopler.grid;
+
+import java.util.Arrays;
+
+// Плотные массивы на всю сетку: быстрый доступ по номеру ячейки, память пропорциональна площади
+public class DenseGrid extends Grid {
+
+    private final long[] walls;
+    private final int[] g;
+    private final int[] parents;
+    private final byte[] states;
+    private final int[] stamps;
+
+    private int generation = 1;
+
+    public DenseGrid (int width, int height) {
+        this(width, height, new long[(int) (((long) width * height + 63) >>> 6)]);
+    }
+
+    private DenseGrid (int width, int height, long[] walls) {
+        super(width, height);
+        this.walls = walls;
+
+        int size = width * height;
+        g = new int[size];
+        parents = new int[size];
+        states = new byte[size];
+        stamps = new int[size];
+    }
+
+    @Override
+    public boolean isWall (int index) {
+        return (walls[index >>> 6] & (1L << index)) != 0;
+    }
+
+    @Override
+    public void setWall (int index, boolean isWall) {
+        if (isWall) {
+            walls[index >>> 6] |= 1L << index;
+        } else {
+            walls[index >>> 6] &= ~(1L << index);
+        }
+        notifyCellChanged(index);
+    }
+
+    @Override
+    public int getG (int index) {
+        return isTouched(index) ? g[index] : 0;
+    }
+
+    @Override
+    public void setG (int index, int value) {
+        touch(index);
+        g[index] = value;
+    }
+
+    @Override
+    public int getParent (int index) {
+        return isTouched(index) ? parents[index] : NO_PARENT;
+    }
+
+    @Override
+    public void setParent (int index, int parent) {
+        touch(index);
+        parents[index] = parent;
+    }
+
+    @Override
+    public byte getState (int index) {
+        return isTouched(index) ? states[index] : STATE_NONE;
+    }
+
+    @Override
+    public void setState (int index, byte state) {
+        touch(index);
+        states[index] = state;
+        notifyCellChanged(index);
+    }
+
+    @Override
+    public void clearSearchState () {
+        generation++;
+        if (generation == 0) {
+            Arrays.fill(stamps, 0);
+            generation = 1;
+        }
+        notifyGridChanged();
+    }
+
+    @Override
+    public Grid shareWalls () {
+        return new DenseGrid(width, height, walls);
+    }
+
+    // Битовый массив копируется целиком, а не переставляется: сетки из shareWalls() видят новые стены
+    @Override
+    public void copyWalls (Grid source) {
+        if (!(source instanceof DenseGrid)) {
+            super.copyWalls(source);
+            return;
+        }
+        checkSameSize(source);
+        System.arraycopy(((DenseGrid) source).walls, 0, walls, 0, walls.length);
+        notifyGridChanged();
+    }
+
+    private boolean isTouched (int index) {
+        return stamps[index] == generation;
+    }
+
+    // Состояние ячейки из прошлого поиска сбрасывается при первом обращении в текущем
+    private void touch (int index) {
+        if (stamps[index] != generation) {
+            stamps[index] = generation;
+            g[index] = 0;
+            parents[index] = NO_PARENT;
+            states[index] = STATE_NONE;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package ru.dopler.grid;
+
+// Прямоугольная сетка: слой стен и состояние текущего поиска. Номер ячейки всегда y * width + x,
+// а способ хранения определяет реализация
+public abstract class Grid {
+
+    public static final int NO_PARENT = -1;
+
+    public static final byte STATE_NONE = 0;
+    public static final byte STATE_OPENED = 1;
+    public static final byte STATE_CLOSED = 2;
+
+    protected final int width;
+    protected final int height;
+
+    private volatile GridListener listener;
+
+    protected Grid (int width, int height) {
+        if ((long) width * height > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format("Grid %dx%d does not fit int cell indices", width, height));
+        }
+        this.width = width;
+        this.height = height;
+    }
+
+    public int getWidth () {
+        return width;
+    }
+
+    public int getHeight () {
+        return height;
+    }
+
+    public int size () {
+        return width * height;
+    }
+
+    public int index (int x, int y) {
+        return y * width + x;
+    }
+
+    public int x (int index) {
+        return index % width;
+    }
+
+    public int y (int index) {
+        return index / width;
+    }
+
+    public boolean contains (int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height;
+    }
+
+    public abstract boolean isWall (int index);
+
+    public boolean isWall (int x, int y) {
+        return isWall(index(x, y));
+    }
+
+    public abstract void setWall (int index, boolean isWall);
+
+    public abstract int getG (int index);
+
+    public abstract void setG (int index, int value);
+
+    public abstract int getParent (int index);
+
+    public abstract void setParent (int index, int parent);
+
+    public abstract byte getState (int index);
+
+    public abstract void setState (int index, byte state);
+
+    public boolean isOpened (int index) {
+        return getState(index) == STATE_OPENED;
+    }
+
+    public boolean isClosed (int index) {
+        return getState(index) == STATE_CLOSED;
+    }
+
+    public int countClosedCells () {
+        int closed = 0;
+        for (int index = 0; index < size(); index++) {
+            if (isClosed(index)) {
+                closed++;
+            }
+        }
+        return closed;
+    }
+
+    public abstract void clearSearchState ();
+
+    // Сетка того же типа с общими стенами и собственным состоянием поиска
+    public abstract Grid shareWalls ();
+
+    // Стены другой сетки того же размера; состояние поиска не меняется
+    public void copyWalls (Grid source) {
+        checkSameSize(source);
+        for (int index = 0; index < size(); index++) {
+            setWall(index, source.isWall(index));
+        }
+    }
+
+    protected void checkSameSize (Grid source) {
+        if (source.width != width || source.height != height) {
+            throw new IllegalArgumentException(String.format("Cannot copy walls of %dx%d grid to %dx%d grid",
+                    source.width, source.height, width, height));
+        }
+    }
+
+    public void setListener (GridListener listener) {
+        this.listener = listener;
+    }
+
+    protected void notifyCellChanged (int index) {
+        GridListener currentListener = listener;
+        if (currentListener != null) {
+            currentListener.cellChanged(index);
+        }
+    }
+
+    protected void notifyGridChanged () {
+        GridListener currentListener = listener;
+        if (currentListener != null) {
+            currentListener.gridChanged();
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package ru.dopler.grid;
+
+// Вызывается из потока, меняющего сетку, поэтому реализация должна быть дешёвой и потокобезопасной
+public interface GridListener {
+
+    void cellChanged (int index);
+
+    void gridChanged ();
+}
@@ -0,0 +1,108 @@
+package ru.dopler.grid;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Стены в файле, отображённом в память: заголовок и по биту на ячейку в порядке y * width + x.
+// Страницы читаются ОС по требованию, поэтому открытие не зависит от размера карты, а несколько
+// процессов, открывших файл только на чтение, делят одни и те же страницы кэша
+public class MappedWallLayer implements WallLayer {
+
+    private static final int MAGIC = 0x50465742;
+    private static final int HEADER_SIZE = 16;
+
+    private final int width;
+    private final int height;
+    private final MappedByteBuffer buffer;
+    private final boolean isWritable;
+
+    private MappedWallLayer (int width, int height, MappedByteBuffer buffer, boolean isWritable) {
+        this.width = width;
+        this.height = height;
+        this.buffer = buffer;
+        this.isWritable = isWritable;
+    }
+
+    // Новый файл без стен, открытый на запись
+    public static MappedWallLayer create (Path path, int width, int height) throws IOException {
+        if ((long) width * height > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format("Grid %dx%d does not fit int cell indices", width, height));
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize(width, height));
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, width);
+            buffer.putInt(8, height);
+            return new MappedWallLayer(width, height, buffer, true);
+        }
+    }
+
+    public static MappedWallLayer open (Path path) throws IOException {
+        return open(path, false);
+    }
+
+    public static MappedWallLayer open (Path path, boolean isWritable) throws IOException {
+        StandardOpenOption[] options = isWritable
+                ? new StandardOpenOption[]{StandardOpenOption.READ, StandardOpenOption.WRITE}
+                : new StandardOpenOption[]{StandardOpenOption.READ};
+
+        try (FileChannel channel = FileChannel.open(path, options)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("Not a wall file: " + path);
+            }
+            MappedByteBuffer buffer = channel.map(isWritable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY,
+                    0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+            int width = buffer.getInt(4);
+            int height = buffer.getInt(8);
+            if (buffer.getInt(0) != MAGIC || width <= 0 || height <= 0 || (long) width * height > Integer.MAX_VALUE
+                    || channel.size() != fileSize(width, height)) {
+                throw new IOException("Not a wall file: " + path);
+            }
+            return new MappedWallLayer(width, height, buffer, isWritable);
+        }
+    }
+
+    @Override
+    public int getWidth () {
+        return width;
+    }
+
+    @Override
+    public int getHeight () {
+        return height;
+    }
+
+    @Override
+    public boolean isWall (int x, int y) {
+        int index = y * width + x;
+        return (buffer.getLong(HEADER_SIZE + ((index >>> 6) << 3)) & (1L << index)) != 0;
+    }
+
+    @Override
+    public void setWall (int x, int y, boolean isWall) {
+        if (!isWritable) {
+            throw new IllegalStateException("Wall file is mapped read-only");
+        }
+        int index = y * width + x;
+        int offset = HEADER_SIZE + ((index >>> 6) << 3);
+        long word = buffer.getLong(offset);
+        buffer.putLong(offset, isWall ? word | (1L << index) : word & ~(1L << index));
+    }
+
+    // Сбрасывает изменённые страницы на диск
+    public void force () {
+        buffer.force();
+    }
+
+    private static long fileSize (int width, int height) {
+        return HEADER_SIZE + ((((long) width * height + 63) >>> 6) << 3);
+    }
+}
@@ -0,0 +1,46 @@
+package ru.dopler.grid;
+
+// Множители стоимости шага по ячейкам: вход в ячейку стоит прямой или диагональный переход,
+// умноженный на её множитель. Байт хранит множитель минус один, поэтому новый слой - ровная местность
+public class TerrainLayer {
+
+    public static final int MIN_COST = 1;
+    public static final int MAX_COST = 256;
+
+    private final int width;
+    private final int height;
+    private final byte[] costs;
+
+    public TerrainLayer (int width, int height) {
+        this.width = width;
+        this.height = height;
+        costs = new byte[width * height];
+    }
+
+    public int getWidth () {
+        return width;
+    }
+
+    public int getHeight () {
+        return height;
+    }
+
+    public int getCost (int index) {
+        return (costs[index] & 0xFF) + MIN_COST;
+    }
+
+    public int getCost (int x, int y) {
+        return getCost(y * width + x);
+    }
+
+    public void setCost (int index, int cost) {
+        if (cost < MIN_COST || cost > MAX_COST) {
+            throw new IllegalArgumentException("Terrain cost must be in [" + MIN_COST + ", " + MAX_COST + "]: " + cost);
+        }
+        costs[index] = (byte) (cost - MIN_COST);
+    }
+
+    public void setCost (int x, int y, int cost) {
+        setCost(y * width + x, cost);
+    }
+}
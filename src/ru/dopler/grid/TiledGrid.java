@@ -0,0 +1,179 @@
+package ru.dopler.grid;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Сетка, у которой состояние поиска заводится только для тайлов 64x64, которых коснулся текущий поиск.
+// Со слоем TiledWallLayer память пропорциональна числу стен и размеру области поиска, а не площади сетки
+public class TiledGrid extends Grid {
+
+    private static final int TILE_SHIFT = 6;
+    private static final int TILE_SIZE = 1 << TILE_SHIFT;
+    private static final int TILE_MASK = TILE_SIZE - 1;
+    private static final int TILE_AREA = TILE_SIZE * TILE_SIZE;
+
+    private final int tilesX;
+
+    private final WallLayer walls;
+
+    private final SearchTile[] searchTiles;
+    private int[] touchedTiles = new int[64];
+    private int touchedTileCount = 0;
+    private final List<SearchTile> freeSearchTiles = new ArrayList<>();
+
+    private static class SearchTile {
+
+        final int[] g = new int[TILE_AREA];
+        final int[] parents = new int[TILE_AREA];
+        final byte[] states = new byte[TILE_AREA];
+
+        void clear () {
+            Arrays.fill(g, 0);
+            Arrays.fill(parents, NO_PARENT);
+            Arrays.fill(states, STATE_NONE);
+        }
+    }
+
+    public TiledGrid (int width, int height) {
+        this(new TiledWallLayer(width, height));
+    }
+
+    public TiledGrid (WallLayer walls) {
+        super(walls.getWidth(), walls.getHeight());
+        this.walls = walls;
+
+        tilesX = (width + TILE_MASK) >> TILE_SHIFT;
+        searchTiles = new SearchTile[tilesX * ((height + TILE_MASK) >> TILE_SHIFT)];
+    }
+
+    @Override
+    public boolean isWall (int index) {
+        int y = index / width;
+        return isWall(index - y * width, y);
+    }
+
+    @Override
+    public boolean isWall (int x, int y) {
+        return walls.isWall(x, y);
+    }
+
+    @Override
+    public void setWall (int index, boolean isWall) {
+        int y = index / width;
+        walls.setWall(index - y * width, y, isWall);
+        notifyCellChanged(index);
+    }
+
+    @Override
+    public int getG (int index) {
+        int y = index / width;
+        int x = index - y * width;
+        SearchTile tile = searchTiles[tileOf(x, y)];
+        return tile != null ? tile.g[offsetOf(x, y)] : 0;
+    }
+
+    @Override
+    public void setG (int index, int value) {
+        int y = index / width;
+        int x = index - y * width;
+        touch(tileOf(x, y)).g[offsetOf(x, y)] = value;
+    }
+
+    @Override
+    public int getParent (int index) {
+        int y = index / width;
+        int x = index - y * width;
+        SearchTile tile = searchTiles[tileOf(x, y)];
+        return tile != null ? tile.parents[offsetOf(x, y)] : NO_PARENT;
+    }
+
+    @Override
+    public void setParent (int index, int parent) {
+        int y = index / width;
+        int x = index - y * width;
+        touch(tileOf(x, y)).parents[offsetOf(x, y)] = parent;
+    }
+
+    @Override
+    public byte getState (int index) {
+        int y = index / width;
+        int x = index - y * width;
+        SearchTile tile = searchTiles[tileOf(x, y)];
+        return tile != null ? tile.states[offsetOf(x, y)] : STATE_NONE;
+    }
+
+    @Override
+    public void setState (int index, byte state) {
+        int y = index / width;
+        int x = index - y * width;
+        touch(tileOf(x, y)).states[offsetOf(x, y)] = state;
+        notifyCellChanged(index);
+    }
+
+    @Override
+    public int countClosedCells () {
+        int closed = 0;
+        for (int k = 0; k < touchedTileCount; k++) {
+            for (byte state : searchTiles[touchedTiles[k]].states) {
+                if (state == STATE_CLOSED) {
+                    closed++;
+                }
+            }
+        }
+        return closed;
+    }
+
+    // Тайлы поиска возвращаются в пул и переиспользуются следующим поиском
+    @Override
+    public void clearSearchState () {
+        for (int k = 0; k < touchedTileCount; k++) {
+            freeSearchTiles.add(searchTiles[touchedTiles[k]]);
+            searchTiles[touchedTiles[k]] = null;
+        }
+        touchedTileCount = 0;
+        notifyGridChanged();
+    }
+
+    @Override
+    public Grid shareWalls () {
+        return new TiledGrid(walls);
+    }
+
+    public WallLayer getWalls () {
+        return walls;
+    }
+
+    public int countSearchTiles () {
+        return touchedTileCount + freeSearchTiles.size();
+    }
+
+    private SearchTile touch (int tileIndex) {
+        SearchTile tile = searchTiles[tileIndex];
+        if (tile != null) {
+            return tile;
+        }
+
+        if (freeSearchTiles.isEmpty()) {
+            tile = new SearchTile();
+        } else {
+            tile = freeSearchTiles.remove(freeSearchTiles.size() - 1);
+        }
+        tile.clear();
+        searchTiles[tileIndex] = tile;
+
+        if (touchedTileCount == touchedTiles.length) {
+            touchedTiles = Arrays.copyOf(touchedTiles, touchedTileCount * 2);
+        }
+        touchedTiles[touchedTileCount++] = tileIndex;
+        return tile;
+    }
+
+    private int tileOf (int x, int y) {
+        return (y >> TILE_SHIFT) * tilesX + (x >> TILE_SHIFT);
+    }
+
+    private static int offsetOf (int x, int y) {
+        return ((y & TILE_MASK) << TILE_SHIFT) | (x & TILE_MASK);
+    }
+}
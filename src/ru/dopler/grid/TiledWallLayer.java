@@ -0,0 +1,82 @@
+package ru.dopler.grid;
+
+// Стены в тайлах 64x64: строка тайла - одно слово, тайл без стен не хранится
+public class TiledWallLayer implements WallLayer {
+
+    private static final int TILE_SHIFT = 6;
+    private static final int TILE_SIZE = 1 << TILE_SHIFT;
+    private static final int TILE_MASK = TILE_SIZE - 1;
+
+    private final int width;
+    private final int height;
+    private final int tilesX;
+
+    private final long[][] tiles;
+
+    public TiledWallLayer (int width, int height) {
+        this.width = width;
+        this.height = height;
+        tilesX = (width + TILE_MASK) >> TILE_SHIFT;
+        tiles = new long[tilesX * ((height + TILE_MASK) >> TILE_SHIFT)][];
+    }
+
+    @Override
+    public int getWidth () {
+        return width;
+    }
+
+    @Override
+    public int getHeight () {
+        return height;
+    }
+
+    @Override
+    public boolean isWall (int x, int y) {
+        long[] tile = tiles[tileOf(x, y)];
+        return tile != null && (tile[y & TILE_MASK] & (1L << x)) != 0;
+    }
+
+    // Тайл, в котором не осталось стен, освобождается
+    @Override
+    public void setWall (int x, int y, boolean isWall) {
+        int tileIndex = tileOf(x, y);
+        long[] tile = tiles[tileIndex];
+
+        if (isWall) {
+            if (tile == null) {
+                tile = new long[TILE_SIZE];
+                tiles[tileIndex] = tile;
+            }
+            tile[y & TILE_MASK] |= 1L << x;
+
+        } else if (tile != null) {
+            tile[y & TILE_MASK] &= ~(1L << x);
+            if (isEmpty(tile)) {
+                tiles[tileIndex] = null;
+            }
+        }
+    }
+
+    public int countTiles () {
+        int count = 0;
+        for (long[] tile : tiles) {
+            if (tile != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private int tileOf (int x, int y) {
+        return (y >> TILE_SHIFT) * tilesX + (x >> TILE_SHIFT);
+    }
+
+    private static boolean isEmpty (long[] tile) {
+        for (long row : tile) {
+            if (row != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
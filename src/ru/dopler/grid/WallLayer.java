@@ -0,0 +1,13 @@
+package ru.dopler.grid;
+
+// Хранилище стен для TiledGrid; координаты всегда внутри сетки
+public interface WallLayer {
+
+    int getWidth ();
+
+    int getHeight ();
+
+    boolean isWall (int x, int y);
+
+    void setWall (int x, int y, boolean isWall);
+}
@@ -0,0 +1,77 @@
+package ru.dopler.painter;
+
+import java.util.Arrays;
+
+// Изменения между кадрами: список изменённых ячеек без повторов и флаги общих изменений.
+// Если ячеек слишком много, список сбрасывается и кадр перерисовывает поле целиком
+class DirtyRegion {
+
+    private static final int MAX_TRACKED_CELLS = 1 << 18;
+
+    private final long[] marks;
+    private int[] cells = new int[1024];
+    private int size = 0;
+
+    private boolean isOverflow = false;
+    private boolean isSearchCleared = false;
+    private boolean isPathChanged = false;
+
+    DirtyRegion (int fieldSize) {
+        marks = new long[(fieldSize + 63) >>> 6];
+    }
+
+    synchronized void addCell (int index) {
+        if (isOverflow || (marks[index >>> 6] & (1L << index)) != 0) {
+            return;
+        }
+        if (size == MAX_TRACKED_CELLS) {
+            isOverflow = true;
+            clearCells();
+            return;
+        }
+        if (size == cells.length) {
+            cells = Arrays.copyOf(cells, size * 2);
+        }
+        marks[index >>> 6] |= 1L << index;
+        cells[size++] = index;
+    }
+
+    synchronized void addSearchCleared () {
+        isSearchCleared = true;
+    }
+
+    synchronized void addPath () {
+        isPathChanged = true;
+    }
+
+    synchronized boolean takeOverflow () {
+        boolean result = isOverflow;
+        isOverflow = false;
+        return result;
+    }
+
+    synchronized boolean takeSearchCleared () {
+        boolean result = isSearchCleared;
+        isSearchCleared = false;
+        return result;
+    }
+
+    synchronized boolean takePathChanged () {
+        boolean result = isPathChanged;
+        isPathChanged = false;
+        return result;
+    }
+
+    synchronized int[] takeCells () {
+        int[] result = Arrays.copyOf(cells, size);
+        clearCells();
+        return result;
+    }
+
+    private void clearCells () {
+        for (int i = 0; i < size; i++) {
+            marks[cells[i] >>> 6] &= ~(1L << cells[i]);
+        }
+        size = 0;
+    }
+}
@@ -2,31 +2,58 @@ package ru.dopler.painter;
 
 import ru.dopler.algorithms.AStar;
 import ru.dopler.algorithms.Algorithm;
+import ru.dopler.algorithms.AlgorithmListener;
+import ru.dopler.algorithms.AnytimeRepairingAStar;
+import ru.dopler.algorithms.BidirectionalAStar;
+import ru.dopler.algorithms.DStarLite;
+import ru.dopler.algorithms.GridAlgorithm;
+import ru.dopler.algorithms.HierarchicalAStar;
+import ru.dopler.algorithms.JumpPointSearch;
+import ru.dopler.algorithms.LandmarkHeuristic;
+import ru.dopler.algorithms.MemoryBoundedAStar;
+import ru.dopler.algorithms.SearchScheduler;
+import ru.dopler.algorithms.SearchSnapshot;
 import ru.dopler.cells.*;
+import ru.dopler.grid.ConnectedComponents;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
 import java.util.List;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-public class FieldPainter extends JPanel implements MouseListener, MouseMotionListener {
+public class FieldPainter extends JPanel implements MouseListener, MouseMotionListener, MouseWheelListener {
 
-    private static final Color OPENED_CELLS_COLOR = new Color(244, 255, 139);
-    private static final Color CLOSED_CELLS_COLOR = new Color(95, 201, 85);
-    private static final Color BORDER_COLOR = new Color(143, 143, 143);
     private static final Color PATH_COLOR = new Color(182, 4, 0);
 
-    private static final int REFRESH_TIME_MS = 1;
+    private static final int DEFAULT_CELL_SIZE = 20;
+    // Справа от поля панель управления, снизу отступ
+    private static final int SIDE_PANEL_WIDTH = 200;
+    private static final int BOTTOM_MARGIN = 40;
+    private static final double ZOOM_STEP = 1.25;
+    private static final int PAN_STEP = 40;
+    private static final int MIN_CELL_INFO_SCALE = 20;
+
+    private static final int FRAME_TIME_MS = 16;
+    private static final int SEARCH_TICK_MS = 15;
+    private static final int SEARCH_STEPS_PER_SECOND = 1500;
     private static final boolean DRAW_CELL_INFO_FLAG = false;
+    private static final int LANDMARK_COUNT = 8;
+
+    private static final String A_STAR = "A*";
+    private static final String ALT_A_STAR = "A* (landmarks)";
+    private static final String JUMP_POINT_SEARCH = "Jump Point Search";
+    private static final String HIERARCHICAL_A_STAR = "HPA*";
+    private static final String BIDIRECTIONAL_A_STAR = "Bidirectional A*";
+    private static final String D_STAR_LITE = "D* Lite";
+    private static final String ANYTIME_A_STAR = "ARA*";
+    private static final String MEMORY_BOUNDED_A_STAR = "SMA*";
 
     private int mouseX;
     private int mouseY;
+    private Point panPoint = null;
 
-    private Algorithm alg;
-    private static final int cellSize = 20;
+    private volatile GridAlgorithm alg;
     private int fieldWidth;
     private int fieldHeight;
 
@@ -34,18 +61,78 @@ public class FieldPainter extends JPanel implements MouseListener, MouseMotionLi
 
     private Cell draggedCell = null;
 
+    private final SearchScheduler searchScheduler = new SearchScheduler(SEARCH_TICK_MS);
+
+    private final Viewport viewport;
+    private final GridRenderer renderer;
+    private final DirtyRegion dirtyRegion;
+    private final AtomicBoolean isFrameRequested = new AtomicBoolean(false);
+    private final Timer frameTimer;
+
+    // Изменения приходят из потока поиска и перерисовываются не чаще раза в кадр
+    private final AlgorithmListener repaintListener = new AlgorithmListener() {
+        @Override
+        public void cellChanged (int index) {
+            dirtyRegion.addCell(index);
+            requestFrame();
+        }
+
+        @Override
+        public void gridChanged () {
+            dirtyRegion.addSearchCleared();
+            requestFrame();
+        }
+
+        @Override
+        public void pathChanged () {
+            dirtyRegion.addPath();
+            requestFrame();
+        }
+    };
+
+    private final JComponent positionInfo = new JComponent() {
+        @Override
+        protected void paintComponent (Graphics g) {
+            drawPositionInfo((Graphics2D) g);
+        }
+    };
+
+    private final JComponent statisticsInfo = new JComponent() {
+        @Override
+        protected void paintComponent (Graphics g) {
+            drawStatisticsInfo((Graphics2D) g);
+        }
+    };
+
     private JTextField dTextField = new JTextField("5");
+    private JComboBox<String> algorithmComboBox = new JComboBox<>(new String[]{A_STAR, ALT_A_STAR, JUMP_POINT_SEARCH, HIERARCHICAL_A_STAR, BIDIRECTIONAL_A_STAR, D_STAR_LITE, ANYTIME_A_STAR, MEMORY_BOUNDED_A_STAR});
 
     public FieldPainter (int winWidth, int winHeight) {
+        this(winWidth, winHeight, (winWidth - SIDE_PANEL_WIDTH) / DEFAULT_CELL_SIZE, (winHeight - BOTTOM_MARGIN) / DEFAULT_CELL_SIZE);
+    }
+
+    // Поле может быть больше окна: видна только часть, которая двигается и масштабируется
+    public FieldPainter (int winWidth, int winHeight, int fieldWidth, int fieldHeight) {
         super();
         setSize(winWidth, winHeight);
 
-        fieldWidth = (getWidth() - 200) / cellSize;
-        fieldHeight = (getHeight() - 40) / cellSize;
+        this.fieldWidth = fieldWidth;
+        this.fieldHeight = fieldHeight;
+        viewport = new Viewport(fieldWidth, fieldHeight, winWidth - SIDE_PANEL_WIDTH, winHeight - BOTTOM_MARGIN, DEFAULT_CELL_SIZE);
+        dirtyRegion = new DirtyRegion(fieldWidth * fieldHeight);
 
-        alg = new AStar(fieldWidth, fieldHeight, Integer.valueOf(dTextField.getText()));
-        alg.setDelay(600000);
+        frameTimer = new Timer(FRAME_TIME_MS, new ActionListener() {
+            @Override
+            public void actionPerformed (ActionEvent e) {
+                repaintDirtyRegion();
+            }
+        });
+        frameTimer.setRepeats(false);
+
+        alg = createAlgorithm(A_STAR);
         lengthFromStartToEnd = getLength(alg.getStartCell(), alg.getEndCell());
+        renderer = new GridRenderer(fieldWidth, fieldHeight, getBackground());
+        renderer.updateAll(alg, lengthFromStartToEnd);
 
         setLayout(null);
         setFocusable(true);
@@ -53,19 +140,51 @@ public class FieldPainter extends JPanel implements MouseListener, MouseMotionLi
 
         addMouseListener(this);
         addMouseMotionListener(this);
+        addMouseWheelListener(this);
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized (ComponentEvent e) {
+                resizeView();
+            }
+        });
         addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed (KeyEvent e) {
+                if (e.getKeyCode() == KeyEvent.VK_LEFT) {
+                    pan(PAN_STEP, 0);
+                } else if (e.getKeyCode() == KeyEvent.VK_RIGHT) {
+                    pan(-PAN_STEP, 0);
+                } else if (e.getKeyCode() == KeyEvent.VK_UP) {
+                    pan(0, PAN_STEP);
+                } else if (e.getKeyCode() == KeyEvent.VK_DOWN) {
+                    pan(0, -PAN_STEP);
+                }
+            }
+
             @Override
             public void keyReleased (KeyEvent e) {
                 if (e.getKeyChar() == KeyEvent.VK_ENTER) {
                     startSolution();
 
                 } else if (e.getKeyChar() == KeyEvent.VK_SPACE) {
+                    searchScheduler.cancel();
                     alg.reset();
+
+                } else if (e.getKeyChar() == 'n') {
+                    stepSolution();
                 }
             }
         });
 
         int textX = winWidth - 180;
+        positionInfo.setLocation(textX, 35);
+        positionInfo.setSize(180, 80);
+        add(positionInfo);
+
+        statisticsInfo.setLocation(textX, 215);
+        statisticsInfo.setSize(180, 80);
+        add(statisticsInfo);
+
         JLabel dLabel = new JLabel("Weight:");
         dLabel.setLocation(textX, 130);
         dLabel.setSize(45, 20);
@@ -82,6 +201,7 @@ public class FieldPainter extends JPanel implements MouseListener, MouseMotionLi
 
                 } else if (e.getKeyCode() == KeyEvent.VK_SPACE) {
                     dTextField.setText(dTextField.getText().replace(" ", ""));
+                    searchScheduler.cancel();
                     alg.reset();
                     grabFocus();
                 }
@@ -89,91 +209,214 @@ public class FieldPainter extends JPanel implements MouseListener, MouseMotionLi
         });
         add(dTextField);
 
-        initPainter();
+        JLabel algorithmLabel = new JLabel("Algorithm:");
+        algorithmLabel.setLocation(textX, 160);
+        algorithmLabel.setSize(65, 20);
+        add(algorithmLabel);
+
+        algorithmComboBox.setLocation(textX, 180);
+        algorithmComboBox.setSize(160, 20);
+        algorithmComboBox.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed (ActionEvent e) {
+                selectAlgorithm((String) algorithmComboBox.getSelectedItem());
+                grabFocus();
+            }
+        });
+        add(algorithmComboBox);
+    }
+
+    // Окно поля следует за размером панели, а элементы управления сдвигаются вместе с правым краем
+    private void resizeView () {
+        int viewWidth = Math.max(1, getWidth() - SIDE_PANEL_WIDTH);
+        int viewHeight = Math.max(1, getHeight() - BOTTOM_MARGIN);
+        int dx = viewWidth - viewport.getViewWidth();
+        for (Component component : getComponents()) {
+            component.setLocation(component.getX() + dx, component.getY());
+        }
+        viewport.resize(viewWidth, viewHeight);
+        repaint();
+    }
+
+    private GridAlgorithm createAlgorithm (String name) {
+        int weight = Integer.valueOf(dTextField.getText());
+
+        GridAlgorithm algorithm;
+        if (JUMP_POINT_SEARCH.equals(name)) {
+            algorithm = new JumpPointSearch(fieldWidth, fieldHeight, weight);
+        } else if (HIERARCHICAL_A_STAR.equals(name)) {
+            algorithm = new HierarchicalAStar(fieldWidth, fieldHeight, weight);
+        } else if (BIDIRECTIONAL_A_STAR.equals(name)) {
+            algorithm = new BidirectionalAStar(fieldWidth, fieldHeight, weight);
+        } else if (D_STAR_LITE.equals(name)) {
+            algorithm = new DStarLite(fieldWidth, fieldHeight, weight);
+        } else if (ANYTIME_A_STAR.equals(name)) {
+            algorithm = new AnytimeRepairingAStar(fieldWidth, fieldHeight, weight);
+        } else if (MEMORY_BOUNDED_A_STAR.equals(name)) {
+            algorithm = new MemoryBoundedAStar(fieldWidth, fieldHeight, weight);
+        } else {
+            algorithm = new AStar(fieldWidth, fieldHeight, weight);
+        }
+        algorithm.setListener(repaintListener);
+
+        return algorithm;
+    }
+
+    private void selectAlgorithm (String name) {
+        if (alg.isProcess()) {
+            return;
+        }
+
+        GridAlgorithm selectedAlg = createAlgorithm(name);
+        selectedAlg.setStartCell(alg.getStartCell());
+        selectedAlg.setEndCell(alg.getEndCell());
+        selectedAlg.copyWalls(alg);
+
+        alg.setListener(null);
+        alg = selectedAlg;
+        repaintListener.gridChanged();
     }
 
     private void startSolution () {
+        searchScheduler.cancel();
         alg.reset();
         alg.setWeight(Integer.valueOf(dTextField.getText()));
-        new Thread(new Runnable() {
-            @Override
-            public void run () {
-                alg.start();
-            }
-        }).start();
+        prepareComponents();
+        prepareLandmarks();
+        searchScheduler.run(alg, SEARCH_STEPS_PER_SECOND);
     }
 
-    private void initPainter () {
-        ScheduledExecutorService painter = Executors.newSingleThreadScheduledExecutor();
-        painter.scheduleWithFixedDelay(new Runnable() {
-            @Override
-            public void run () {
-                repaint();
-            }
-        }, 0, REFRESH_TIME_MS, TimeUnit.MILLISECONDS);
+    // Компоненты строятся один раз при первом поиске, дальше их обновляет каждое изменение стены
+    private void prepareComponents () {
+        if (alg.getComponents() == null) {
+            alg.setComponents(ConnectedComponents.build(alg.getGrid()));
+        }
     }
 
-    @Override
-    public void paint (Graphics g) {
-        Graphics2D g2d = (Graphics2D) g;
-        super.paint(g2d);
+    // Таблицы ориентиров строятся перед поиском, если их ещё нет или их сбросила снятая стена
+    private void prepareLandmarks () {
+        if (!ALT_A_STAR.equals(algorithmComboBox.getSelectedItem())) {
+            return;
+        }
+        if (alg.getLandmarks() == null) {
+            alg.setLandmarks(LandmarkHeuristic.build(alg.getGrid(), LANDMARK_COUNT));
+        }
+    }
 
-        drawGridInfo(g2d);
-        drawCells(g2d);
-        if (alg.isPathFind()) {
-            drawPath(g2d);
+    // Один шаг поиска; идущий по таймеру поиск при этом ставится на паузу
+    private void stepSolution () {
+        if (!alg.isProcess()) {
+            searchScheduler.cancel();
+            alg.reset();
+            alg.setWeight(Integer.valueOf(dTextField.getText()));
+            prepareComponents();
+            prepareLandmarks();
         }
-        if (DRAW_CELL_INFO_FLAG) {
-            drawCellsInfo(g2d);
+        searchScheduler.step(alg, 1);
+    }
+
+    private void requestFrame () {
+        if (isFrameRequested.compareAndSet(false, true)) {
+            frameTimer.start();
         }
     }
 
-    private void drawGridInfo (Graphics2D g2d) {
-        int gridInfoX = getWidth() - 180;
+    public Algorithm getAlgorithm () {
+        return alg;
+    }
 
-        g2d.drawString(String.format("Mouse: x = %s y = %s", mouseX, mouseY), gridInfoX, 50);
+    // Флаг снимается до чтения области, чтобы изменения во время кадра запросили следующий
+    private void repaintDirtyRegion () {
+        isFrameRequested.set(false);
 
-        Point point = alg.getStartCell();
-        g2d.drawString(String.format("Start point: i = %s j = %s", point.x, point.y), gridInfoX, 70);
+        boolean isOverflow = dirtyRegion.takeOverflow();
+        boolean isSearchCleared = dirtyRegion.takeSearchCleared();
+        boolean isPathChanged = dirtyRegion.takePathChanged();
+        int[] cells = dirtyRegion.takeCells();
 
-        point = alg.getEndCell();
-        g2d.drawString(String.format("End point: i = %s j = %s", point.x, point.y), gridInfoX, 90);
+        if (isOverflow) {
+            renderer.updateAll(alg, lengthFromStartToEnd);
+        } else {
+            if (isSearchCleared) {
+                renderer.refreshSearchCells(alg, lengthFromStartToEnd);
+            }
+            renderer.update(alg, cells, lengthFromStartToEnd);
+        }
 
-        g2d.drawString(String.format("Path length = %s", alg.getPathLength()), gridInfoX, 110);
+        if (isOverflow || isSearchCleared || isPathChanged) {
+            repaintView();
+        } else if (cells.length > 0) {
+            Rectangle screenBounds = viewport.toScreen(getCellsBounds(cells));
+            if (!screenBounds.isEmpty()) {
+                repaint(screenBounds);
+            }
+        }
+        positionInfo.repaint();
+        statisticsInfo.repaint();
     }
 
-    private void drawCells (Graphics2D g2d) {
-        for (int i = 0; i < fieldWidth; i++) {
-            int paintX = i * cellSize;
-            for (int j = 0; j < fieldHeight; j++) {
-                int paintY = j * cellSize;
+    private Rectangle getCellsBounds (int[] cells) {
+        int minI = Integer.MAX_VALUE;
+        int minJ = Integer.MAX_VALUE;
+        int maxI = Integer.MIN_VALUE;
+        int maxJ = Integer.MIN_VALUE;
+        for (int cell : cells) {
+            int i = cell % fieldWidth;
+            int j = cell / fieldWidth;
+            minI = Math.min(minI, i);
+            minJ = Math.min(minJ, j);
+            maxI = Math.max(maxI, i);
+            maxJ = Math.max(maxJ, j);
+        }
+        return new Rectangle(minI, minJ, maxI - minI + 1, maxJ - minJ + 1);
+    }
 
-                if (isCellOpened(new Point(i, j)) && !(alg.getCell(i, j) instanceof StartCell)) {
-                    g2d.setColor(OPENED_CELLS_COLOR);
-                    g2d.fillRect(paintX, paintY, cellSize, cellSize);
+    private void repaintView () {
+        repaint(0, 0, viewport.getViewWidth(), viewport.getViewHeight());
+    }
 
-                } else if (isCellClosed(new Point(i, j)) && !(alg.getCell(i, j) instanceof StartCell)) {
-                    Point endCell = alg.getEndCell();
-                    Point cell = new Point(i, j);
+    private void pan (int dx, int dy) {
+        viewport.pan(dx, dy);
+        repaintView();
+    }
 
-                    double lenColor = getLength(cell, endCell);
+    @Override
+    public void paint (Graphics g) {
+        Graphics2D g2d = (Graphics2D) g;
+        super.paint(g2d);
+
+        // Путь, статус и счётчики берутся из одного среза, который поиск публикует без блокировок
+        SearchSnapshot snapshot = alg.getSnapshot();
+        Graphics2D viewGraphics = (Graphics2D) g2d.create(0, 0, viewport.getViewWidth(), viewport.getViewHeight());
+        renderer.draw(viewGraphics, viewport);
+        if (snapshot.isPathFind()) {
+            drawPath(viewGraphics, snapshot.getPath());
+        }
+        if (DRAW_CELL_INFO_FLAG && viewport.getScale() >= MIN_CELL_INFO_SCALE) {
+            drawCellsInfo(viewGraphics);
+        }
+        viewGraphics.dispose();
+    }
 
-                    double alpha = 255 - (lenColor / (lengthFromStartToEnd / 100)) * (255 / 100);
-                    alpha = alpha < 0 ? 0 : alpha;
+    private void drawPositionInfo (Graphics2D g2d) {
+        g2d.drawString(String.format("Mouse: x = %s y = %s", mouseX, mouseY), 0, 15);
 
-                    Color closedCellGradientColor = new Color(CLOSED_CELLS_COLOR.getRed(), CLOSED_CELLS_COLOR.getGreen(), CLOSED_CELLS_COLOR.getBlue(), (int) alpha);
+        Point point = alg.getStartCell();
+        g2d.drawString(String.format("Start point: i = %s j = %s", point.x, point.y), 0, 35);
 
-                    g2d.setColor(closedCellGradientColor);
-                    g2d.fillRect(paintX, paintY, cellSize, cellSize);
+        point = alg.getEndCell();
+        g2d.drawString(String.format("End point: i = %s j = %s", point.x, point.y), 0, 55);
 
-                } else {
-                    g2d.setColor(alg.getCell(i, j).getFillColor());
-                    g2d.fillRect(paintX, paintY, cellSize, cellSize);
-                }
+        g2d.drawString(String.format("Path length = %s", alg.getSnapshot().getPathLength()), 0, 75);
+    }
 
-                g2d.setColor(BORDER_COLOR);
-                g2d.drawRect(paintX, paintY, cellSize, cellSize);
-            }
+    private void drawStatisticsInfo (Graphics2D g2d) {
+        SearchSnapshot snapshot = alg.getSnapshot();
+        g2d.drawString(String.format("Expanded = %s", snapshot.getExpandedNodes()), 0, 15);
+        g2d.drawString(String.format("Generated = %s", snapshot.getGeneratedNodes()), 0, 35);
+        g2d.drawString(String.format("Peak open set = %s", snapshot.getPeakOpenSetSize()), 0, 55);
+        if (!Double.isNaN(snapshot.getSuboptimalityBound())) {
+            g2d.drawString(String.format("Bound = %.2f", snapshot.getSuboptimalityBound()), 0, 75);
         }
     }
 
@@ -183,37 +426,32 @@ public class FieldPainter extends JPanel implements MouseListener, MouseMotionLi
         return Math.sqrt(dx * dx + dy * dy);
     }
 
-    private boolean isCellOpened (Point cell) {
-        return alg.getCell(cell.x, cell.y).isOpened();
-    }
-
-    private boolean isCellClosed (Point cell) {
-        return alg.getCell(cell.x, cell.y).isClosed();
-    }
-
-    private void drawPath (Graphics2D g2d) {
+    // Соседние точки пути - соседние ячейки, поэтому отрезки строятся по самому списку, без чтения сетки
+    private void drawPath (Graphics2D g2d, List<Point> path) {
         g2d.setColor(PATH_COLOR);
-        g2d.setStroke(new BasicStroke(cellSize / 5));
-        List<Point> path = alg.getPath();
-
-        for (Point pathCell : path) {
-            Point paintCurrentCell = new Point(pathCell.x * cellSize, pathCell.y * cellSize);
-            Point paintParentCell = getPaintParentCell(pathCell.x, pathCell.y);
-
-            Point currentCenter = getCellCenter(paintCurrentCell);
-            Point parentCenter = getCellCenter(paintParentCell);
+        g2d.setStroke(new BasicStroke((float) Math.max(1, viewport.getScale() / 5)));
+        Rectangle visible = viewport.getVisibleCells();
+        visible.grow(1, 1);
+
+        for (int k = 1; k < path.size(); k++) {
+            Point pathCell = path.get(k);
+            if (!visible.contains(pathCell)) {
+                continue;
+            }
+            Point parentCell = path.get(k - 1);
+            Point currentCenter = getCellCenter(toPaintCell(pathCell.x, pathCell.y));
+            Point parentCenter = getCellCenter(toPaintCell(parentCell.x, parentCell.y));
 
             g2d.drawLine(currentCenter.x, currentCenter.y, parentCenter.x, parentCenter.y);
         }
     }
 
     private void drawCellsInfo (Graphics2D g2d) {
-        Point paintCurrentCell = new Point();
+        Rectangle visible = viewport.getVisibleCells();
         Point paintParentCell;
-        for (int i = 0; i < fieldWidth; i++) {
-            paintCurrentCell.x = i * cellSize;
-            for (int j = 0; j < fieldHeight; j++) {
-                paintCurrentCell.y = j * cellSize;
+        for (int i = visible.x; i < visible.x + visible.width; i++) {
+            for (int j = visible.y; j < visible.y + visible.height; j++) {
+                Point paintCurrentCell = toPaintCell(i, j);
                 paintParentCell = getPaintParentCell(i, j);
 
                 drawCellText(i, j, paintCurrentCell, g2d);
@@ -225,13 +463,18 @@ public class FieldPainter extends JPanel implements MouseListener, MouseMotionLi
     private Point getPaintParentCell (int i, int j) {
         Point parent = alg.getCell(i, j).getParent();
         if (parent != null) {
-            return new Point(parent.x * cellSize, parent.y * cellSize);
+            return toPaintCell(parent.x, parent.y);
         } else {
-            return new Point(i * cellSize, j * cellSize);
+            return toPaintCell(i, j);
         }
     }
 
+    private Point toPaintCell (int i, int j) {
+        return new Point(viewport.toScreenX(i), viewport.toScreenY(j));
+    }
+
     private void drawCellText (int i, int j, Point paintCurrentCell, Graphics2D g2d) {
+        int cellSize = (int) viewport.getScale();
         if (alg.getCell(i, j) instanceof EmptyCell) {
             g2d.setColor(Color.black);
             int G = ((EmptyCell) alg.getCell(i, j)).getG();
@@ -268,7 +511,8 @@ public class FieldPainter extends JPanel implements MouseListener, MouseMotionLi
     }
 
     private Point getCellCenter (Point cell) {
-        return new Point(cell.x + cellSize / 2, cell.y + cellSize / 2);
+        int halfCellSize = (int) (viewport.getScale() / 2);
+        return new Point(cell.x + halfCellSize, cell.y + halfCellSize);
     }
 
     private Point getPointByLengthOnLine (Point p1, Point p2, int length) {
@@ -285,6 +529,10 @@ public class FieldPainter extends JPanel implements MouseListener, MouseMotionLi
 
     @Override
     public void mousePressed (MouseEvent e) {
+        if (e.getButton() == MouseEvent.BUTTON2) {
+            panPoint = e.getPoint();
+            return;
+        }
         if (alg.isProcess()) {
             return;
         }
@@ -307,6 +555,10 @@ public class FieldPainter extends JPanel implements MouseListener, MouseMotionLi
 
     @Override
     public void mouseReleased (MouseEvent e) {
+        if (e.getButton() == MouseEvent.BUTTON2) {
+            panPoint = null;
+            return;
+        }
         if (alg.isProcess()) {
             return;
         }
@@ -336,6 +588,12 @@ public class FieldPainter extends JPanel implements MouseListener, MouseMotionLi
 
     @Override
     public void mouseDragged (MouseEvent e) {
+        if (e.getModifiersEx() == MouseEvent.BUTTON2_DOWN_MASK && panPoint != null) {
+            pan(e.getX() - panPoint.x, e.getY() - panPoint.y);
+            panPoint = e.getPoint();
+            mouseMoved(e);
+            return;
+        }
         if (alg.isProcess()) {
             return;
         }
@@ -383,21 +641,21 @@ public class FieldPainter extends JPanel implements MouseListener, MouseMotionLi
     public void mouseMoved (MouseEvent e) {
         mouseX = e.getX();
         mouseY = e.getY();
+        positionInfo.repaint();
     }
 
-    private int getRowByMouseX (int x) {
-        int i = x / cellSize;
-        i = (i >= fieldWidth) ? fieldWidth - 1 : i;
-        i = (i < 0) ? 0 : i;
+    // Колесо масштабирует относительно ячейки под курсором
+    @Override
+    public void mouseWheelMoved (MouseWheelEvent e) {
+        viewport.zoom(Math.pow(ZOOM_STEP, -e.getPreciseWheelRotation()), e.getX(), e.getY());
+        repaintView();
+    }
 
-        return i;
+    private int getRowByMouseX (int x) {
+        return viewport.toCellX(x);
     }
 
     private int getColumnByMouseY (int y) {
-        int j = y / cellSize;
-        j = (j >= fieldHeight) ? fieldHeight - 1 : j;
-        j = (j < 0) ? 0 : j;
-
-        return j;
+        return viewport.toCellY(y);
     }
 }
\ No newline at end of file
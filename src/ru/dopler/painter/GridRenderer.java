@@ -0,0 +1,263 @@
+package ru.dopler.painter;
+
+import ru.dopler.algorithms.GridAlgorithm;
+import ru.dopler.cells.EmptyCell;
+import ru.dopler.cells.EndCell;
+import ru.dopler.cells.StartCell;
+import ru.dopler.cells.Wall;
+import ru.dopler.grid.Grid;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+// Ячейка хранится одним пикселем изображения и растягивается при выводе. Для мелких масштабов
+// держится пирамида уровней: пиксель уровня k сводит блок 2^k x 2^k ячеек в цвет самой важной из них,
+// а блок из одних стен и пустых ячеек - в средний цвет, чтобы была видна плотность стен
+class GridRenderer {
+
+    private static final Color OPENED_CELLS_COLOR = new Color(244, 255, 139);
+    private static final Color CLOSED_CELLS_COLOR = new Color(95, 201, 85);
+    private static final Color BORDER_COLOR = new Color(143, 143, 143);
+    private static final int START_CELL_RGB = new StartCell().getFillColor().getRGB();
+    private static final int END_CELL_RGB = new EndCell().getFillColor().getRGB();
+    private static final int WALL_RGB = new Wall().getFillColor().getRGB();
+    private static final int EMPTY_CELL_RGB = new EmptyCell().getFillColor().getRGB();
+    private static final int OPENED_CELLS_RGB = OPENED_CELLS_COLOR.getRGB();
+
+    // Порядок важности при сведении блока в один пиксель
+    private static final byte KIND_EMPTY = 0;
+    private static final byte KIND_WALL = 1;
+    private static final byte KIND_CLOSED = 2;
+    private static final byte KIND_OPENED = 3;
+    private static final byte KIND_ENDPOINT = 4;
+
+    private static final int GRADIENT_SIZE = 256;
+    private static final double GRID_LINES_MIN_SCALE = 4;
+
+    private final int fieldWidth;
+    private final int fieldHeight;
+
+    private final BufferedImage[] levelImages;
+    private final int[][] levelPixels;
+    private final byte[][] levelKinds;
+    private final int[] levelWidths;
+    private final int[] levelHeights;
+
+    // Цвет закрытой ячейки по прозрачности, уже смешанный с фоном панели
+    private final int[] closedGradient = new int[GRADIENT_SIZE];
+
+    GridRenderer (int fieldWidth, int fieldHeight, Color background) {
+        this.fieldWidth = fieldWidth;
+        this.fieldHeight = fieldHeight;
+
+        int levelCount = 1;
+        while ((fieldWidth - 1) >> (levelCount - 1) > 0 || (fieldHeight - 1) >> (levelCount - 1) > 0) {
+            levelCount++;
+        }
+
+        levelImages = new BufferedImage[levelCount];
+        levelPixels = new int[levelCount][];
+        levelKinds = new byte[levelCount][];
+        levelWidths = new int[levelCount];
+        levelHeights = new int[levelCount];
+        for (int level = 0; level < levelCount; level++) {
+            levelWidths[level] = ((fieldWidth - 1) >> level) + 1;
+            levelHeights[level] = ((fieldHeight - 1) >> level) + 1;
+            levelImages[level] = new BufferedImage(levelWidths[level], levelHeights[level], BufferedImage.TYPE_INT_RGB);
+            levelPixels[level] = ((DataBufferInt) levelImages[level].getRaster().getDataBuffer()).getData();
+            levelKinds[level] = new byte[levelWidths[level] * levelHeights[level]];
+        }
+
+        for (int alpha = 0; alpha < GRADIENT_SIZE; alpha++) {
+            closedGradient[alpha] = blend(CLOSED_CELLS_COLOR, background, alpha);
+        }
+    }
+
+    void update (GridAlgorithm alg, int[] cells, double lengthFromStartToEnd) {
+        Grid grid = alg.getGrid();
+        Point startCell = alg.getStartCell();
+        Point endCell = alg.getEndCell();
+        for (int index : cells) {
+            int i = index % fieldWidth;
+            int j = index / fieldWidth;
+            updateCell(grid, index, startCell, endCell, lengthFromStartToEnd);
+            for (int level = 1; level < levelImages.length; level++) {
+                updateSummary(level, i >> level, j >> level);
+            }
+        }
+    }
+
+    // Сброс поиска меняет только открытые и закрытые ячейки
+    void refreshSearchCells (GridAlgorithm alg, double lengthFromStartToEnd) {
+        Grid grid = alg.getGrid();
+        Point startCell = alg.getStartCell();
+        Point endCell = alg.getEndCell();
+        byte[] kinds = levelKinds[0];
+        for (int index = 0; index < kinds.length; index++) {
+            if (kinds[index] == KIND_OPENED || kinds[index] == KIND_CLOSED) {
+                updateCell(grid, index, startCell, endCell, lengthFromStartToEnd);
+            }
+        }
+        rebuildSummaries();
+    }
+
+    void updateAll (GridAlgorithm alg, double lengthFromStartToEnd) {
+        Grid grid = alg.getGrid();
+        Point startCell = alg.getStartCell();
+        Point endCell = alg.getEndCell();
+        for (int index = 0; index < fieldWidth * fieldHeight; index++) {
+            updateCell(grid, index, startCell, endCell, lengthFromStartToEnd);
+        }
+        rebuildSummaries();
+    }
+
+    // Рисуется только видимая часть уровня, у которого пиксель не мельче экранного
+    void draw (Graphics2D g2d, Viewport viewport) {
+        Rectangle visible = viewport.getVisibleCells();
+        if (visible.isEmpty()) {
+            return;
+        }
+
+        double scale = viewport.getScale();
+        int level = 0;
+        if (scale < 1) {
+            level = Math.min(levelImages.length - 1, (int) Math.ceil(Math.log(1 / scale) / Math.log(2) - 1e-9));
+        }
+        int blockSize = 1 << level;
+
+        int sx1 = visible.x >> level;
+        int sy1 = visible.y >> level;
+        int sx2 = Math.min(levelWidths[level], (visible.x + visible.width + blockSize - 1) >> level);
+        int sy2 = Math.min(levelHeights[level], (visible.y + visible.height + blockSize - 1) >> level);
+
+        Shape oldClip = g2d.getClip();
+        g2d.clip(viewport.toScreen(new Rectangle(0, 0, fieldWidth, fieldHeight)));
+        g2d.drawImage(levelImages[level],
+                viewport.toScreenX(sx1 * blockSize), viewport.toScreenY(sy1 * blockSize),
+                viewport.toScreenX(sx2 * blockSize), viewport.toScreenY(sy2 * blockSize),
+                sx1, sy1, sx2, sy2, null);
+        g2d.setClip(oldClip);
+
+        if (scale >= GRID_LINES_MIN_SCALE) {
+            drawGridLines(g2d, viewport, visible);
+        }
+    }
+
+    private void drawGridLines (Graphics2D g2d, Viewport viewport, Rectangle visible) {
+        g2d.setColor(BORDER_COLOR);
+        int top = viewport.toScreenY(visible.y);
+        int bottom = viewport.toScreenY(visible.y + visible.height);
+        int left = viewport.toScreenX(visible.x);
+        int right = viewport.toScreenX(visible.x + visible.width);
+
+        for (int i = visible.x; i <= visible.x + visible.width; i++) {
+            int x = viewport.toScreenX(i);
+            g2d.drawLine(x, top, x, bottom);
+        }
+        for (int j = visible.y; j <= visible.y + visible.height; j++) {
+            int y = viewport.toScreenY(j);
+            g2d.drawLine(left, y, right, y);
+        }
+    }
+
+    // Ячейка читается прямо из сетки поиска: объект Cell на каждую ячейку кадра стоил бы аллокаций на всё поле.
+    // Порядок проверок тот же, что у GridAlgorithm.getCell
+    private void updateCell (Grid grid, int index, Point startCell, Point endCell, double lengthFromStartToEnd) {
+        int i = index % fieldWidth;
+        int j = index / fieldWidth;
+        boolean isWall = grid.isWall(index);
+        byte state = isWall ? Grid.STATE_NONE : grid.getState(index);
+        byte kind;
+        int color;
+
+        if (isWall) {
+            kind = KIND_WALL;
+            color = WALL_RGB;
+
+        } else if (i == startCell.x && j == startCell.y) {
+            kind = KIND_ENDPOINT;
+            color = START_CELL_RGB;
+
+        } else if (state == Grid.STATE_OPENED) {
+            kind = KIND_OPENED;
+            color = OPENED_CELLS_RGB;
+
+        } else if (state == Grid.STATE_CLOSED) {
+            int dx = endCell.x - i;
+            int dy = endCell.y - j;
+            double alpha = 255 - (Math.sqrt(dx * dx + dy * dy) / (lengthFromStartToEnd / 100)) * (255 / 100);
+            kind = KIND_CLOSED;
+            color = closedGradient[(int) Math.max(0, Math.min(alpha, GRADIENT_SIZE - 1))];
+
+        } else if (i == endCell.x && j == endCell.y) {
+            kind = KIND_ENDPOINT;
+            color = END_CELL_RGB;
+
+        } else {
+            kind = KIND_EMPTY;
+            color = EMPTY_CELL_RGB;
+        }
+
+        levelKinds[0][index] = kind;
+        levelPixels[0][index] = color;
+    }
+
+    private void rebuildSummaries () {
+        for (int level = 1; level < levelImages.length; level++) {
+            for (int y = 0; y < levelHeights[level]; y++) {
+                for (int x = 0; x < levelWidths[level]; x++) {
+                    updateSummary(level, x, y);
+                }
+            }
+        }
+    }
+
+    private void updateSummary (int level, int x, int y) {
+        int childWidth = levelWidths[level - 1];
+        int childHeight = levelHeights[level - 1];
+        byte[] childKinds = levelKinds[level - 1];
+        int[] childPixels = levelPixels[level - 1];
+
+        int bestKind = -1;
+        int bestPixel = 0;
+        int children = 0;
+        int walls = 0;
+        int red = 0;
+        int green = 0;
+        int blue = 0;
+        for (int childY = 2 * y; childY < Math.min(2 * y + 2, childHeight); childY++) {
+            for (int childX = 2 * x; childX < Math.min(2 * x + 2, childWidth); childX++) {
+                int childIndex = childY * childWidth + childX;
+                int childPixel = childPixels[childIndex];
+                if (childKinds[childIndex] > bestKind) {
+                    bestKind = childKinds[childIndex];
+                    bestPixel = childPixel;
+                }
+                if (childKinds[childIndex] == KIND_WALL) {
+                    walls++;
+                }
+                children++;
+                red += (childPixel >> 16) & 0xFF;
+                green += (childPixel >> 8) & 0xFF;
+                blue += childPixel & 0xFF;
+            }
+        }
+
+        if (bestKind <= KIND_WALL) {
+            bestKind = 2 * walls > children ? KIND_WALL : KIND_EMPTY;
+            bestPixel = ((red / children) << 16) | ((green / children) << 8) | (blue / children);
+        }
+
+        int index = y * levelWidths[level] + x;
+        levelKinds[level][index] = (byte) bestKind;
+        levelPixels[level][index] = bestPixel;
+    }
+
+    private static int blend (Color color, Color background, int alpha) {
+        int red = (color.getRed() * alpha + background.getRed() * (255 - alpha)) / 255;
+        int green = (color.getGreen() * alpha + background.getGreen() * (255 - alpha)) / 255;
+        int blue = (color.getBlue() * alpha + background.getBlue() * (255 - alpha)) / 255;
+        return (red << 16) | (green << 8) | blue;
+    }
+}
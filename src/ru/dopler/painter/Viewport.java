@@ -0,0 +1,111 @@
+package ru.dopler.painter;
+
+import java.awt.*;
+
+// Видимая часть поля: масштаб в пикселях на ячейку и координаты ячейки в левом верхнем углу
+class Viewport {
+
+    private static final double MAX_SCALE = 64;
+
+    private final int fieldWidth;
+    private final int fieldHeight;
+
+    private int viewWidth;
+    private int viewHeight;
+
+    private double scale;
+    private double originX = 0;
+    private double originY = 0;
+
+    Viewport (int fieldWidth, int fieldHeight, int viewWidth, int viewHeight, double scale) {
+        this.fieldWidth = fieldWidth;
+        this.fieldHeight = fieldHeight;
+        this.viewWidth = viewWidth;
+        this.viewHeight = viewHeight;
+        this.scale = Math.max(getMinScale(), Math.min(scale, MAX_SCALE));
+        clampOrigin();
+    }
+
+    int getViewWidth () {
+        return viewWidth;
+    }
+
+    int getViewHeight () {
+        return viewHeight;
+    }
+
+    double getScale () {
+        return scale;
+    }
+
+    int toCellX (int screenX) {
+        return clamp((int) Math.floor(originX + screenX / scale), fieldWidth);
+    }
+
+    int toCellY (int screenY) {
+        return clamp((int) Math.floor(originY + screenY / scale), fieldHeight);
+    }
+
+    int toScreenX (double cellX) {
+        return (int) Math.floor((cellX - originX) * scale);
+    }
+
+    int toScreenY (double cellY) {
+        return (int) Math.floor((cellY - originY) * scale);
+    }
+
+    // Ячейки, хотя бы частично попадающие в окно
+    Rectangle getVisibleCells () {
+        int firstI = Math.max(0, (int) Math.floor(originX));
+        int firstJ = Math.max(0, (int) Math.floor(originY));
+        int lastI = Math.min(fieldWidth, (int) Math.ceil(originX + viewWidth / scale));
+        int lastJ = Math.min(fieldHeight, (int) Math.ceil(originY + viewHeight / scale));
+        return new Rectangle(firstI, firstJ, Math.max(0, lastI - firstI), Math.max(0, lastJ - firstJ));
+    }
+
+    // Экранный прямоугольник для диапазона ячеек, обрезанный окном
+    Rectangle toScreen (Rectangle cells) {
+        int x1 = Math.max(0, toScreenX(cells.x));
+        int y1 = Math.max(0, toScreenY(cells.y));
+        int x2 = Math.min(viewWidth, toScreenX(cells.x + cells.width) + 1);
+        int y2 = Math.min(viewHeight, toScreenY(cells.y + cells.height) + 1);
+        return new Rectangle(x1, y1, Math.max(0, x2 - x1), Math.max(0, y2 - y1));
+    }
+
+    // Ячейка под курсором остаётся на месте
+    void zoom (double factor, int screenX, int screenY) {
+        double cellX = originX + screenX / scale;
+        double cellY = originY + screenY / scale;
+        scale = Math.max(getMinScale(), Math.min(scale * factor, MAX_SCALE));
+        originX = cellX - screenX / scale;
+        originY = cellY - screenY / scale;
+        clampOrigin();
+    }
+
+    void pan (int dx, int dy) {
+        originX -= dx / scale;
+        originY -= dy / scale;
+        clampOrigin();
+    }
+
+    void resize (int viewWidth, int viewHeight) {
+        this.viewWidth = viewWidth;
+        this.viewHeight = viewHeight;
+        scale = Math.max(getMinScale(), scale);
+        clampOrigin();
+    }
+
+    // Поле целиком помещается в окно при минимальном масштабе
+    private double getMinScale () {
+        return Math.min(Math.min((double) viewWidth / fieldWidth, (double) viewHeight / fieldHeight), 1);
+    }
+
+    private void clampOrigin () {
+        originX = Math.max(0, Math.min(originX, fieldWidth - viewWidth / scale));
+        originY = Math.max(0, Math.min(originY, fieldHeight - viewHeight / scale));
+    }
+
+    private static int clamp (int value, int size) {
+        return Math.max(0, Math.min(value, size - 1));
+    }
+}
@@ -0,0 +1,52 @@
+package ru.dopler.algorithms;
+
+import org.junit.Test;
+import ru.dopler.cells.Wall;
+
+import java.awt.*;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+
+public class AStarAllocationTest {
+
+    private static final int SIZE = 300;
+    private static final int WEIGHT = 5;
+    private static final int WARMUP_RUNS = 20;
+
+    // Цель отрезана стеной, поэтому поиск обходит всё поле и не восстанавливает путь
+    @Test
+    public void expansionDoesNotAllocatePerNode () {
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        AStar alg = new AStar(SIZE, SIZE, WEIGHT);
+        Point endCell = new Point(SIZE / 2, SIZE / 2);
+        alg.setStartCell(new Point(0, 0));
+        alg.setEndCell(endCell);
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                if (dx != 0 || dy != 0) {
+                    alg.setCell(endCell.x + dx, endCell.y + dy, new Wall());
+                }
+            }
+        }
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            alg.reset();
+            alg.start();
+        }
+
+        // begin() и завершение поиска публикуют срезы, поэтому замеряются только раскрытия узлов
+        alg.reset();
+        alg.begin();
+        int result;
+        long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+        do {
+            result = alg.stepAlgorithm();
+        } while (result == GridAlgorithm.STEP_RUNNING);
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        assertEquals(GridAlgorithm.STEP_NO_PATH, result);
+        assertEquals(allocated + " bytes allocated for " + alg.countExpandedCells() + " expanded nodes", 0, allocated);
+    }
+}
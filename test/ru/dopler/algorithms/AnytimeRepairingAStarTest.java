@@ -0,0 +1,174 @@
+package ru.dopler.algorithms;
+
+import org.junit.Test;
+import ru.dopler.cells.Wall;
+
+import java.awt.*;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+// Каждый опубликованный путь должен укладываться в свою гарантию относительно кратчайшего,
+// а гарантии по ходу поиска - только уменьшаться
+public class AnytimeRepairingAStarTest {
+
+    private static final int SIZE = 257;
+    private static final int WEIGHT = 10;
+    private static final double DENSITY = 0.2;
+    private static final int ROOM_SIZE = 16;
+    private static final int STEPS_PER_CALL = 64;
+    private static final long[] BUDGETS_MS = {1, 5, 20, 100};
+    private static final long NANOS_PER_MILLI = 1000000;
+    private static final long SEED = 42;
+
+    @Test
+    public void publishedPathsStayWithinBoundOnRooms () {
+        checkPublishedPaths(createRooms());
+    }
+
+    @Test
+    public void publishedPathsStayWithinBoundOnRandomObstacles () {
+        checkPublishedPaths(createRandomObstacles());
+    }
+
+    // Таблица качества по бюджетам: что бы ни успело найтись, оно не хуже заявленной гарантии
+    @Test
+    public void budgetedRunsStayWithinBound () {
+        boolean[][] walls = createRooms();
+        int optimalLength = findOptimalLength(walls);
+
+        AnytimeRepairingAStar alg = new AnytimeRepairingAStar(SIZE, SIZE, WEIGHT);
+        apply(alg, walls);
+        for (long budgetMs : BUDGETS_MS) {
+            alg.reset();
+            alg.start(budgetMs * NANOS_PER_MILLI);
+            SearchSnapshot snapshot = alg.getSnapshot();
+            if (snapshot.isPathFind()) {
+                checkPath(snapshot, optimalLength);
+            }
+        }
+
+        alg.reset();
+        alg.start(Long.MAX_VALUE / 2);
+        assertEquals(optimalLength, alg.getPathLength());
+    }
+
+    // Старт совпадает с финишем: первая же итерация даёт путь из одной ячейки с гарантией 1
+    @Test
+    public void startEqualToEndFinishesWithExactPath () {
+        AnytimeRepairingAStar alg = new AnytimeRepairingAStar(SIZE, SIZE, WEIGHT);
+        alg.setStartCell(new Point(SIZE / 2, SIZE / 2));
+        alg.setEndCell(new Point(SIZE / 2, SIZE / 2));
+        alg.begin();
+
+        int calls = 0;
+        while (alg.step(STEPS_PER_CALL)) {
+            calls++;
+            assertTrue("the search should finish right after the first iteration", calls < 10);
+        }
+
+        SearchSnapshot snapshot = alg.getSnapshot();
+        assertTrue(snapshot.isPathFind());
+        assertEquals(0, snapshot.getPathLength());
+        assertEquals(1, snapshot.getPath().size());
+        assertEquals(1.0, snapshot.getSuboptimalityBound(), 0);
+    }
+
+    private static void checkPublishedPaths (boolean[][] walls) {
+        int optimalLength = findOptimalLength(walls);
+
+        AnytimeRepairingAStar alg = new AnytimeRepairingAStar(SIZE, SIZE, WEIGHT);
+        apply(alg, walls);
+        alg.begin();
+
+        int publishedPaths = 0;
+        double lastBound = Double.POSITIVE_INFINITY;
+        boolean isProcess = true;
+        while (isProcess) {
+            isProcess = alg.step(STEPS_PER_CALL);
+            SearchSnapshot snapshot = alg.getSnapshot();
+            if (!snapshot.isPathFind()) {
+                continue;
+            }
+            checkPath(snapshot, optimalLength);
+            assertTrue(snapshot.getSuboptimalityBound() <= lastBound);
+            if (snapshot.getSuboptimalityBound() < lastBound) {
+                publishedPaths++;
+            }
+            lastBound = snapshot.getSuboptimalityBound();
+        }
+
+        assertTrue("the first path should come with a bound above 1", publishedPaths > 1);
+        assertEquals(1.0, lastBound, 0);
+        assertEquals(optimalLength, alg.getPathLength());
+    }
+
+    private static void checkPath (SearchSnapshot snapshot, int optimalLength) {
+        List<Point> path = snapshot.getPath();
+        assertEquals(snapshot.getPathLength(), countCost(path));
+        assertTrue(String.format("length %d exceeds %.2f x %d", snapshot.getPathLength(), snapshot.getSuboptimalityBound(), optimalLength),
+                snapshot.getPathLength() <= snapshot.getSuboptimalityBound() * optimalLength);
+    }
+
+    // При весе 10 октильная эвристика допустима, и A* находит кратчайший путь
+    private static int findOptimalLength (boolean[][] walls) {
+        AStar alg = new AStar(SIZE, SIZE, WEIGHT);
+        apply(alg, walls);
+        alg.start();
+        assertTrue(alg.isPathFind());
+        return alg.getPathLength();
+    }
+
+    private static int countCost (List<Point> path) {
+        int cost = 0;
+        for (int k = 1; k < path.size(); k++) {
+            boolean isDiagonal = path.get(k).x != path.get(k - 1).x && path.get(k).y != path.get(k - 1).y;
+            cost += isDiagonal ? GridAlgorithm.DIAGONAL_TRANSFER : GridAlgorithm.DIRECT_TRANSFER;
+        }
+        return cost;
+    }
+
+    private static void apply (Algorithm alg, boolean[][] walls) {
+        alg.setStartCell(new Point(1, 1));
+        alg.setEndCell(new Point(SIZE - 2, SIZE - 2));
+        for (int i = 0; i < SIZE; i++) {
+            for (int j = 0; j < SIZE; j++) {
+                if (walls[i][j]) {
+                    alg.setCell(i, j, new Wall());
+                }
+            }
+        }
+    }
+
+    private static boolean[][] createRandomObstacles () {
+        Random random = new Random(SEED);
+        boolean[][] walls = new boolean[SIZE][SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            for (int j = 0; j < SIZE; j++) {
+                walls[i][j] = random.nextDouble() < DENSITY;
+            }
+        }
+        return walls;
+    }
+
+    // Комнаты 16x16 с проёмами в стенах
+    private static boolean[][] createRooms () {
+        Random random = new Random(SEED);
+        boolean[][] walls = new boolean[SIZE][SIZE];
+        for (int i = 0; i < SIZE; i += ROOM_SIZE) {
+            for (int k = 0; k < SIZE; k++) {
+                walls[i][k] = true;
+                walls[k][i] = true;
+            }
+        }
+        for (int i = 0; i < SIZE; i += ROOM_SIZE) {
+            for (int j = 0; j < SIZE; j += ROOM_SIZE) {
+                walls[i][Math.min(SIZE - 1, j + 1 + random.nextInt(ROOM_SIZE - 2))] = false;
+                walls[Math.min(SIZE - 1, i + 1 + random.nextInt(ROOM_SIZE - 2))][j] = false;
+            }
+        }
+        return walls;
+    }
+}
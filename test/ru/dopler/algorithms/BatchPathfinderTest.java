@@ -0,0 +1,121 @@
+package ru.dopler.algorithms;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import ru.dopler.cells.Wall;
+
+import java.awt.*;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BatchPathfinderTest {
+
+    private static final int SIZE = 128;
+    private static final double DENSITY = 0.2;
+    private static final int WEIGHT = 10;
+    private static final int QUERIES = 400;
+    private static final int PARALLELISM = 4;
+    private static final long SEED = 42;
+    // Новый AStar заводит на каждую ячейку хотя бы g, родителя и метку поколения - 12 байт. Пакет из
+    // ALLOCATION_QUERIES запросов с переиспользованными поисками выделяет только пути и результаты
+    private static final int ALLOCATION_QUERIES = 40;
+    // Поисков создаётся не больше, чем потоков, поэтому хотя бы два пакета из стольких обходятся без них
+    private static final int ALLOCATION_BATCHES = PARALLELISM + 2;
+    private static final long FRESH_SEARCH_BYTES = 12L * SIZE * SIZE;
+
+    private AStar alg;
+    private List<PathQuery> queries;
+    private BatchPathfinder pathfinder;
+
+    @Before
+    public void setUp () {
+        Random random = new Random(SEED);
+        alg = new AStar(SIZE, SIZE, WEIGHT);
+        for (int i = 0; i < SIZE; i++) {
+            for (int j = 0; j < SIZE; j++) {
+                if (random.nextDouble() < DENSITY) {
+                    alg.setCell(i, j, new Wall());
+                }
+            }
+        }
+
+        // Среди запросов есть старт в стене и совпадающие старт и финиш
+        queries = new ArrayList<>();
+        for (int k = 0; k < QUERIES; k++) {
+            Point startCell = new Point(random.nextInt(SIZE), random.nextInt(SIZE));
+            Point endCell = k % 50 == 0 ? startCell : new Point(random.nextInt(SIZE), random.nextInt(SIZE));
+            queries.add(new PathQuery(startCell, endCell));
+        }
+        pathfinder = new BatchPathfinder(alg.getGrid(), WEIGHT, PARALLELISM);
+    }
+
+    @After
+    public void tearDown () {
+        pathfinder.shutdown();
+    }
+
+    // Каждый ответ пакета совпадает с отдельным последовательным запуском A* на той же сетке
+    @Test
+    public void resultsMatchSequentialAStar () {
+        List<PathResult> results = pathfinder.solve(queries);
+        assertEquals(queries.size(), results.size());
+
+        AStar sequential = new AStar(alg.getGrid().shareWalls(), WEIGHT);
+        int found = 0;
+        for (int k = 0; k < queries.size(); k++) {
+            Point startCell = queries.get(k).getStartCell();
+            Point endCell = queries.get(k).getEndCell();
+            PathResult result = results.get(k);
+            // Последовательный AStar снял бы стену в общей сетке, поэтому такие запросы с ним не сравниваются
+            if (alg.getGrid().isWall(startCell.x, startCell.y) || alg.getGrid().isWall(endCell.x, endCell.y)) {
+                assertFalse("query " + k, result.isPathFind());
+                continue;
+            }
+
+            sequential.setStartCell(startCell);
+            sequential.setEndCell(endCell);
+            sequential.reset();
+            sequential.start();
+            assertEquals("query " + k, sequential.isPathFind(), result.isPathFind());
+            assertEquals("query " + k, sequential.getPathLength(), result.getPathLength());
+            assertEquals("query " + k, sequential.getPath(), result.getPath());
+            if (result.isPathFind()) {
+                found++;
+            }
+        }
+        assertTrue("too few paths: " + found, found > QUERIES / 2);
+    }
+
+    // Поиски переиспользуются между пакетами: пакет без новых поисков не заводит массивов на всю сетку.
+    // Сколько частей пойдёт одновременно, решает планировщик ОС, поэтому берётся самый лёгкий пакет
+    @Test
+    public void searchesAreReusedAcrossBatches () {
+        List<PathQuery> batch = queries.subList(0, ALLOCATION_QUERIES);
+        long minAllocated = Long.MAX_VALUE;
+        for (int k = 0; k < ALLOCATION_BATCHES; k++) {
+            long before = countBatchThreadAllocations();
+            pathfinder.solve(batch);
+            minAllocated = Math.min(minAllocated, countBatchThreadAllocations() - before);
+        }
+
+        assertTrue(minAllocated + " bytes per batch", minAllocated < FRESH_SEARCH_BYTES);
+    }
+
+    private static long countBatchThreadAllocations () {
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocated = 0;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if ("batch-pathfinder".equals(thread.getName())) {
+                allocated += threadBean.getThreadAllocatedBytes(thread.getId());
+            }
+        }
+        return allocated;
+    }
+}
@@ -0,0 +1,87 @@
+package ru.dopler.algorithms;
+
+import org.junit.Test;
+import ru.dopler.cells.Wall;
+
+import java.awt.*;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+// Двунаправленный поиск должен отдавать то же, что и обычный A*: найден ли путь, его длину,
+// и сам путь должен стоить ровно столько, сколько заявлено
+public class BidirectionalAStarTest {
+
+    private static final int WIDTH = 57;
+    private static final int HEIGHT = 30;
+    private static final int WEIGHT = 10;
+    private static final double DENSITY = 0.25;
+    private static final int QUERIES = 300;
+    private static final long SEED = 42;
+
+    @Test
+    public void startEqualToEndGivesOneCellPath () {
+        BidirectionalAStar alg = new BidirectionalAStar(WIDTH, HEIGHT, WEIGHT);
+        alg.setStartCell(new Point(10, 10));
+        alg.setEndCell(new Point(10, 10));
+        alg.start();
+
+        assertTrue(alg.isPathFind());
+        assertEquals(0, alg.getPathLength());
+        assertEquals(1, alg.getPath().size());
+    }
+
+    @Test
+    public void resultsMatchAStar () {
+        Random random = new Random(SEED);
+        boolean[][] walls = new boolean[WIDTH][HEIGHT];
+        for (int i = 0; i < WIDTH; i++) {
+            for (int j = 0; j < HEIGHT; j++) {
+                walls[i][j] = random.nextDouble() < DENSITY;
+            }
+        }
+
+        for (int query = 0; query < QUERIES; query++) {
+            Point startCell = new Point(random.nextInt(WIDTH), random.nextInt(HEIGHT));
+            // Каждый десятый запрос - старт, совпадающий с финишем
+            Point endCell = query % 10 == 0 ? startCell : new Point(random.nextInt(WIDTH), random.nextInt(HEIGHT));
+
+            AStar expected = new AStar(WIDTH, HEIGHT, WEIGHT);
+            BidirectionalAStar actual = new BidirectionalAStar(WIDTH, HEIGHT, WEIGHT);
+            apply(expected, walls, startCell, endCell);
+            apply(actual, walls, startCell, endCell);
+            expected.start();
+            actual.start();
+
+            String message = "query " + startCell + " -> " + endCell;
+            assertEquals(message, expected.isPathFind(), actual.isPathFind());
+            if (expected.isPathFind()) {
+                assertEquals(message, expected.getPathLength(), actual.getPathLength());
+                assertEquals(message, actual.getPathLength(), countCost(actual.getPath()));
+            }
+        }
+    }
+
+    private static int countCost (List<Point> path) {
+        int cost = 0;
+        for (int k = 1; k < path.size(); k++) {
+            boolean isDiagonal = path.get(k).x != path.get(k - 1).x && path.get(k).y != path.get(k - 1).y;
+            cost += isDiagonal ? GridAlgorithm.DIAGONAL_TRANSFER : GridAlgorithm.DIRECT_TRANSFER;
+        }
+        return cost;
+    }
+
+    private static void apply (Algorithm alg, boolean[][] walls, Point startCell, Point endCell) {
+        for (int i = 0; i < WIDTH; i++) {
+            for (int j = 0; j < HEIGHT; j++) {
+                if (walls[i][j]) {
+                    alg.setCell(i, j, new Wall());
+                }
+            }
+        }
+        alg.setStartCell(startCell);
+        alg.setEndCell(endCell);
+    }
+}
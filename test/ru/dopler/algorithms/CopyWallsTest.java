@@ -0,0 +1,132 @@
+package ru.dopler.algorithms;
+
+import org.junit.Test;
+import ru.dopler.cells.Wall;
+
+import java.awt.*;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CopyWallsTest {
+
+    private static final int WIDTH = 57;
+    private static final int HEIGHT = 30;
+    private static final int WEIGHT = 10;
+    private static final double DENSITY = 0.25;
+    private static final int MAPS = 10;
+    private static final long SEED = 42;
+
+    private interface Factory {
+        GridAlgorithm create ();
+    }
+
+    private static final Factory[] FACTORIES = {
+            new Factory() {
+                public GridAlgorithm create () {
+                    return new AStar(WIDTH, HEIGHT, WEIGHT);
+                }
+            },
+            new Factory() {
+                public GridAlgorithm create () {
+                    return new JumpPointSearch(WIDTH, HEIGHT, WEIGHT);
+                }
+            },
+            new Factory() {
+                public GridAlgorithm create () {
+                    return new HierarchicalAStar(WIDTH, HEIGHT, WEIGHT);
+                }
+            },
+            new Factory() {
+                public GridAlgorithm create () {
+                    return new BidirectionalAStar(WIDTH, HEIGHT, WEIGHT);
+                }
+            },
+            new Factory() {
+                public GridAlgorithm create () {
+                    return new DStarLite(WIDTH, HEIGHT, WEIGHT);
+                }
+            },
+            new Factory() {
+                public GridAlgorithm create () {
+                    return new AnytimeRepairingAStar(WIDTH, HEIGHT, WEIGHT);
+                }
+            },
+            new Factory() {
+                public GridAlgorithm create () {
+                    return new MemoryBoundedAStar(WIDTH, HEIGHT, WEIGHT);
+                }
+            },
+    };
+
+    // Поиск, уже отработавший на пустом поле, после копирования стен находит тот же путь, что и поиск, стены
+    // которого расставлены по одной. HPA* и D* Lite при этом должны забыть свои кэши
+    @Test
+    public void copiedWallsGiveSamePath () {
+        Random random = new Random(SEED);
+        for (int map = 0; map < MAPS; map++) {
+            Point startCell = new Point(0, random.nextInt(HEIGHT));
+            Point endCell = new Point(WIDTH - 1, random.nextInt(HEIGHT));
+            AStar source = new AStar(WIDTH, HEIGHT, WEIGHT);
+            source.setStartCell(startCell);
+            source.setEndCell(endCell);
+            for (int i = 0; i < WIDTH; i++) {
+                for (int j = 0; j < HEIGHT; j++) {
+                    if (random.nextDouble() < DENSITY) {
+                        source.setCell(i, j, new Wall());
+                    }
+                }
+            }
+
+            for (Factory factory : FACTORIES) {
+                GridAlgorithm reference = factory.create();
+                reference.setStartCell(startCell);
+                reference.setEndCell(endCell);
+                for (int i = 0; i < WIDTH; i++) {
+                    for (int j = 0; j < HEIGHT; j++) {
+                        if (source.getGrid().isWall(i, j)) {
+                            reference.setCell(i, j, new Wall());
+                        }
+                    }
+                }
+                reference.start();
+
+                GridAlgorithm copy = factory.create();
+                copy.setStartCell(startCell);
+                copy.setEndCell(endCell);
+                copy.start();
+                copy.copyWalls(source);
+                copy.reset();
+                copy.start();
+
+                String name = copy.getClass().getSimpleName() + " on map " + map;
+                assertEquals(name, reference.isPathFind(), copy.isPathFind());
+                assertEquals(name, reference.getPathLength(), copy.getPathLength());
+                for (int index = 0; index < source.getGrid().size(); index++) {
+                    assertEquals(name, reference.getGrid().isWall(index), copy.getGrid().isWall(index));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void startAndEndStayFree () {
+        AStar source = new AStar(WIDTH, HEIGHT, WEIGHT);
+        source.setStartCell(new Point(0, 0));
+        source.setEndCell(new Point(WIDTH - 1, 0));
+        source.setCell(1, HEIGHT / 2, new Wall());
+        source.setCell(WIDTH - 2, HEIGHT / 2, new Wall());
+
+        AStar copy = new AStar(WIDTH, HEIGHT, WEIGHT);
+        copy.setStartCell(new Point(1, HEIGHT / 2));
+        copy.setEndCell(new Point(WIDTH - 2, HEIGHT / 2));
+        copy.copyWalls(source);
+
+        assertFalse(copy.getGrid().isWall(1, HEIGHT / 2));
+        assertFalse(copy.getGrid().isWall(WIDTH - 2, HEIGHT / 2));
+        copy.start();
+        assertTrue(copy.isPathFind());
+    }
+}
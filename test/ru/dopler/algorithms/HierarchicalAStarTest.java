@@ -0,0 +1,99 @@
+package ru.dopler.algorithms;
+
+import org.junit.Test;
+import ru.dopler.cells.Wall;
+
+import java.awt.*;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+// HPA* не обязан находить кратчайший путь, но после сглаживания должен быть близок к нему:
+// сравнение с A* при весе 10, на котором октильная эвристика допустима
+public class HierarchicalAStarTest {
+
+    private static final int MIN_SIZE = 10;
+    private static final int MAX_SIZE = 70;
+    private static final int WEIGHT = 10;
+    private static final double[] DENSITIES = {0.1, 0.25};
+    private static final int QUERIES = 200;
+    private static final long SEED = 42;
+
+    // Сейчас на этих картах худшее отношение 1.08, среднее 1.004; без сглаживания было 1.95 и 1.05
+    private static final double MAX_RATIO = 1.2;
+    private static final double MAX_MEAN_RATIO = 1.01;
+
+    @Test
+    public void pathsStayCloseToShortest () {
+        Random random = new Random(SEED);
+        for (double density : DENSITIES) {
+            double worstRatio = 1;
+            double ratioSum = 0;
+            int compared = 0;
+            while (compared < QUERIES) {
+                int width = MIN_SIZE + random.nextInt(MAX_SIZE - MIN_SIZE + 1);
+                int height = MIN_SIZE + random.nextInt(MAX_SIZE - MIN_SIZE + 1);
+                boolean[][] walls = createWalls(random, width, height, density);
+                Point startCell = new Point(random.nextInt(width), random.nextInt(height));
+                Point endCell = new Point(random.nextInt(width), random.nextInt(height));
+
+                AStar expected = new AStar(width, height, WEIGHT);
+                HierarchicalAStar actual = new HierarchicalAStar(width, height, WEIGHT);
+                apply(expected, walls, startCell, endCell);
+                apply(actual, walls, startCell, endCell);
+                expected.start();
+                actual.start();
+
+                String message = width + "x" + height + " " + startCell + " -> " + endCell;
+                assertEquals(message, expected.isPathFind(), actual.isPathFind());
+                if (!expected.isPathFind() || expected.getPathLength() == 0) {
+                    continue;
+                }
+                assertEquals(message, actual.getPathLength(), countCost(actual.getPath()));
+
+                double ratio = (double) actual.getPathLength() / expected.getPathLength();
+                assertTrue(message + ": ratio " + ratio, ratio <= MAX_RATIO);
+                worstRatio = Math.max(worstRatio, ratio);
+                ratioSum += ratio;
+                compared++;
+            }
+
+            double meanRatio = ratioSum / compared;
+            assertTrue(String.format("density %.2f: mean ratio %.4f, worst %.3f", density, meanRatio, worstRatio),
+                    meanRatio <= MAX_MEAN_RATIO);
+        }
+    }
+
+    private static boolean[][] createWalls (Random random, int width, int height, double density) {
+        boolean[][] walls = new boolean[width][height];
+        for (int i = 0; i < width; i++) {
+            for (int j = 0; j < height; j++) {
+                walls[i][j] = random.nextDouble() < density;
+            }
+        }
+        return walls;
+    }
+
+    private static int countCost (List<Point> path) {
+        int cost = 0;
+        for (int k = 1; k < path.size(); k++) {
+            boolean isDiagonal = path.get(k).x != path.get(k - 1).x && path.get(k).y != path.get(k - 1).y;
+            cost += isDiagonal ? GridAlgorithm.DIAGONAL_TRANSFER : GridAlgorithm.DIRECT_TRANSFER;
+        }
+        return cost;
+    }
+
+    private static void apply (Algorithm alg, boolean[][] walls, Point startCell, Point endCell) {
+        for (int i = 0; i < walls.length; i++) {
+            for (int j = 0; j < walls[i].length; j++) {
+                if (walls[i][j]) {
+                    alg.setCell(i, j, new Wall());
+                }
+            }
+        }
+        alg.setStartCell(startCell);
+        alg.setEndCell(endCell);
+    }
+}
@@ -0,0 +1,222 @@
+package ru.dopler.algorithms;
+
+import org.junit.Test;
+import ru.dopler.cells.Wall;
+import ru.dopler.grid.ConnectedComponents;
+import ru.dopler.grid.DenseGrid;
+import ru.dopler.grid.TiledGrid;
+import ru.dopler.grid.TiledWallLayer;
+
+import java.awt.*;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MemoryBoundedAStarTest {
+
+    private static final int SIZE = 2000;
+    private static final int BUILDINGS = 1200;
+    private static final int MAX_BUILDING_SIZE = 24;
+    private static final int WEIGHT = 10;
+    private static final int QUERY_DISTANCE = 300;
+    private static final long[] MEMORY_LIMITS = {4L << 20, 1L << 20};
+    private static final long SEED = 42;
+    private static final int HIGH_WEIGHT = 1000;
+
+    // Стены между комнатами: пути в обход с равной оценкой не помещаются в память одновременно
+    private static final String[] ROOMS = {
+            "S.........#..........#.........",
+            "..........#..........#.........",
+            "..........#....#.....#....#....",
+            "...####...#....#.....#....#....",
+            "......#........#..........#....",
+            "......#........#..........#...E",
+    };
+
+    private static final int TIGHT_WIDTH = 57;
+    private static final int TIGHT_HEIGHT = 30;
+    private static final double TIGHT_DENSITY = 0.3;
+    private static final int TIGHT_MAPS = 5;
+    private static final int TIGHT_CAP_MARGIN = 24;
+    private static final int TIGHT_CAP_STEP = 3;
+
+    // Лимит покрывает и пул узлов, и сам поиск, поэтому замер начинается до конструктора. Каталог тайлов
+    // сетки относится к карте и в замер не входит
+    @Test
+    public void allocationStaysWithinMemoryLimit () {
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        TiledWallLayer walls = createWorld();
+        ConnectedComponents components = ConnectedComponents.build(new TiledGrid(walls));
+        Point[] query = pickQuery(walls, components);
+
+        AStar aStar = new AStar(new TiledGrid(walls), WEIGHT, new HashedBinaryHeap());
+        aStar.setStartCell(query[0]);
+        aStar.setEndCell(query[1]);
+        aStar.start();
+        assertTrue(aStar.isPathFind());
+
+        for (long memoryLimit : MEMORY_LIMITS) {
+            TiledGrid grid = new TiledGrid(walls);
+            long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+            MemoryBoundedAStar alg = new MemoryBoundedAStar(grid, WEIGHT, memoryLimit);
+            alg.setComponents(components);
+            alg.setStartCell(query[0]);
+            alg.setEndCell(query[1]);
+            alg.start();
+            long allocated = threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+            assertTrue(allocated + " bytes allocated with a " + memoryLimit + " byte limit", allocated <= memoryLimit);
+            assertTrue(alg.isPathFind());
+            assertEquals(aStar.getPathLength(), alg.getPathLength());
+        }
+    }
+
+    // Путь помещается, только если пул вмещает все его ячейки. Без них поиск раньше перебирал обходы по кругу
+    // и не заканчивался
+    @Test(timeout = 10000)
+    public void pathFitsOnlyIfPoolHoldsItsCells () {
+        AStar aStar = new AStar(ROOMS[0].length(), ROOMS.length, WEIGHT);
+        fillRooms(aStar);
+        aStar.start();
+        assertTrue(aStar.isPathFind());
+        int pathCells = aStar.getPath().size();
+
+        for (int nodes = pathCells; nodes <= pathCells + 1; nodes++) {
+            MemoryBoundedAStar alg = createBounded(ROOMS[0].length(), ROOMS.length, nodes);
+            fillRooms(alg);
+            alg.start();
+            assertTrue(nodes + " nodes", alg.isPathFind());
+            assertEquals(aStar.getPathLength(), alg.getPathLength());
+            assertFalse(alg.isMemoryExhausted());
+        }
+        for (int nodes = pathCells - 2; nodes < pathCells; nodes++) {
+            MemoryBoundedAStar alg = createBounded(ROOMS[0].length(), ROOMS.length, nodes);
+            fillRooms(alg);
+            alg.start();
+            assertFalse(nodes + " nodes", alg.isPathFind());
+            assertTrue(alg.isMemoryExhausted());
+        }
+    }
+
+    // На случайных картах с пулом около длины пути поиск заканчивается всегда: либо оптимальным путём, либо
+    // признанием, что не хватило памяти
+    @Test(timeout = 60000)
+    public void searchEndsAtTightMemoryLimits () {
+        Random random = new Random(SEED);
+        for (int map = 0; map < TIGHT_MAPS; map++) {
+            boolean[][] walls = new boolean[TIGHT_WIDTH][TIGHT_HEIGHT];
+            for (int i = 0; i < TIGHT_WIDTH; i++) {
+                for (int j = 0; j < TIGHT_HEIGHT; j++) {
+                    walls[i][j] = random.nextDouble() < TIGHT_DENSITY;
+                }
+            }
+            Point startCell = new Point(0, random.nextInt(TIGHT_HEIGHT));
+            Point endCell = new Point(TIGHT_WIDTH - 1, random.nextInt(TIGHT_HEIGHT));
+            walls[startCell.x][startCell.y] = false;
+            walls[endCell.x][endCell.y] = false;
+
+            AStar aStar = new AStar(TIGHT_WIDTH, TIGHT_HEIGHT, WEIGHT);
+            fillWalls(aStar, walls, startCell, endCell);
+            aStar.start();
+            if (!aStar.isPathFind()) {
+                continue;
+            }
+            int pathCells = aStar.getPath().size();
+
+            for (int nodes = pathCells - 2; nodes <= pathCells + TIGHT_CAP_MARGIN; nodes += TIGHT_CAP_STEP) {
+                MemoryBoundedAStar alg = createBounded(TIGHT_WIDTH, TIGHT_HEIGHT, nodes);
+                fillWalls(alg, walls, startCell, endCell);
+                alg.start();
+                if (alg.isPathFind()) {
+                    assertEquals(aStar.getPathLength(), alg.getPathLength());
+                } else {
+                    assertTrue(map + " map, " + nodes + " nodes", alg.isMemoryExhausted());
+                }
+            }
+        }
+    }
+
+    // Оценка ориентиров DISCONNECTED с большим весом не помещается в старшие биты ключа: без ограничения f
+    // ключ переполнялся в отрицательный, и такой узел раскрывался раньше всех
+    @Test
+    public void countKeyKeepsOrderForHugeF () {
+        double disconnectedF = (double) LandmarkHeuristic.DISCONNECTED * HIGH_WEIGHT / GridAlgorithm.DIRECT_TRANSFER;
+        long finiteKey = MemoryBoundedAStar.countKey(MemoryBoundedAStar.MAX_KEY_F - 1, 0);
+
+        assertTrue(MemoryBoundedAStar.countKey(disconnectedF, 0) > finiteKey);
+        assertTrue(MemoryBoundedAStar.countKey(Double.POSITIVE_INFINITY, 0) > finiteKey);
+        assertTrue(MemoryBoundedAStar.countKey(disconnectedF, 0) > MemoryBoundedAStar.countKey(disconnectedF, 1));
+        assertEquals(MemoryBoundedAStar.countKey(disconnectedF, 7), MemoryBoundedAStar.countKey(Double.POSITIVE_INFINITY, 7));
+    }
+
+    private static MemoryBoundedAStar createBounded (int width, int height, int nodes) {
+        MemoryBoundedAStar alg = new MemoryBoundedAStar(new DenseGrid(width, height), WEIGHT,
+                MemoryBoundedAStar.RESERVED_BYTES + (long) nodes * MemoryBoundedAStar.BYTES_PER_NODE);
+        assertEquals(nodes, alg.getCapacity());
+        return alg;
+    }
+
+    private static void fillRooms (Algorithm alg) {
+        for (int j = 0; j < ROOMS.length; j++) {
+            for (int i = 0; i < ROOMS[j].length(); i++) {
+                char cell = ROOMS[j].charAt(i);
+                if (cell == '#') {
+                    alg.setCell(i, j, new Wall());
+                } else if (cell == 'S') {
+                    alg.setStartCell(new Point(i, j));
+                } else if (cell == 'E') {
+                    alg.setEndCell(new Point(i, j));
+                }
+            }
+        }
+    }
+
+    private static void fillWalls (Algorithm alg, boolean[][] walls, Point startCell, Point endCell) {
+        alg.setStartCell(startCell);
+        alg.setEndCell(endCell);
+        for (int i = 0; i < walls.length; i++) {
+            for (int j = 0; j < walls[i].length; j++) {
+                if (walls[i][j]) {
+                    alg.setCell(i, j, new Wall());
+                }
+            }
+        }
+    }
+
+    private static TiledWallLayer createWorld () {
+        Random random = new Random(SEED);
+        TiledWallLayer walls = new TiledWallLayer(SIZE, SIZE);
+        for (int k = 0; k < BUILDINGS; k++) {
+            int x = random.nextInt(SIZE - MAX_BUILDING_SIZE);
+            int y = random.nextInt(SIZE - MAX_BUILDING_SIZE);
+            int width = 2 + random.nextInt(MAX_BUILDING_SIZE - 2);
+            int height = 2 + random.nextInt(MAX_BUILDING_SIZE - 2);
+            for (int i = x; i < x + width; i++) {
+                walls.setWall(i, y, true);
+                walls.setWall(i, y + height - 1, true);
+            }
+            for (int j = y; j < y + height; j++) {
+                walls.setWall(x, j, true);
+                walls.setWall(x + width - 1, j, true);
+            }
+        }
+        return walls;
+    }
+
+    private static Point[] pickQuery (TiledWallLayer walls, ConnectedComponents components) {
+        Random random = new Random(SEED + 1);
+        while (true) {
+            Point startCell = new Point(random.nextInt(SIZE - QUERY_DISTANCE), random.nextInt(SIZE - QUERY_DISTANCE));
+            Point endCell = new Point(startCell.x + QUERY_DISTANCE, startCell.y + random.nextInt(QUERY_DISTANCE));
+            if (!walls.isWall(startCell.x, startCell.y) && !walls.isWall(endCell.x, endCell.y)
+                    && components.isConnected(startCell.y * SIZE + startCell.x, endCell.y * SIZE + endCell.x)) {
+                return new Point[]{startCell, endCell};
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package ru.dopler.algorithms;
+
+import org.junit.Test;
+import ru.dopler.cells.EmptyCell;
+import ru.dopler.cells.Wall;
+
+import java.awt.*;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PathCacheTest {
+
+    private static final int SIZE = 8;
+    private static final int WEIGHT = 10;
+
+    // Путь по диагонали: стена на боковой ячейке первого шага делает его срезанием угла
+    @Test
+    public void wallAtDiagonalCornerInvalidatesPath () {
+        PathCache cache = new PathCache(16);
+        CachedAlgorithm alg = createAlgorithm(cache, new Point(0, 0), new Point(SIZE - 1, SIZE - 1));
+        search(alg);
+        search(alg);
+        assertEquals(1, cache.getHitCount());
+
+        alg.setCell(1, 0, new Wall());
+        search(alg);
+
+        assertEquals(2, cache.getMissCount());
+        assertEquals(1, cache.getInvalidationCount());
+        assertFalse(isCornerCut(alg, alg.getPath()));
+    }
+
+    @Test
+    public void wallAwayFromPathKeepsEntry () {
+        PathCache cache = new PathCache(16);
+        CachedAlgorithm alg = createAlgorithm(cache, new Point(0, 0), new Point(SIZE - 1, SIZE - 1));
+        search(alg);
+
+        alg.setCell(SIZE - 1, 0, new Wall());
+        search(alg);
+
+        assertEquals(1, cache.getHitCount());
+        assertEquals(0, cache.getInvalidationCount());
+    }
+
+    // Снятая стена делает устаревшими все записи: они удаляются сразу как инвалидированные и не вытесняют новые
+    @Test
+    public void wallRemovalDropsAllEntries () {
+        PathCache cache = new PathCache(4);
+        AStar aStar = new AStar(SIZE, SIZE, WEIGHT);
+        CachedAlgorithm alg = new CachedAlgorithm(aStar, WEIGHT, cache, true);
+        alg.setCell(SIZE / 2, SIZE / 2, new Wall());
+        for (int k = 0; k < 3; k++) {
+            alg.setEndCell(new Point(SIZE - 1, k));
+            search(alg);
+        }
+        assertEquals(3, cache.size());
+
+        alg.setCell(SIZE / 2, SIZE / 2, new EmptyCell());
+        assertEquals(0, cache.size());
+        assertEquals(3, cache.getInvalidationCount());
+
+        for (int k = 0; k < 3; k++) {
+            alg.setEndCell(new Point(0, SIZE - 1 - k));
+            search(alg);
+        }
+        assertEquals(3, cache.size());
+        assertEquals(0, cache.getEvictionCount());
+    }
+
+    // Промах после попадания не должен отдавать путь из кэша, даже без reset() обёртки между поисками
+    @Test
+    public void missAfterHitReturnsSearchedPath () {
+        PathCache cache = new PathCache(16);
+        AStar aStar = new AStar(SIZE, SIZE, WEIGHT);
+        aStar.setStartCell(new Point(0, 0));
+        aStar.setEndCell(new Point(SIZE - 1, SIZE - 1));
+        CachedAlgorithm alg = new CachedAlgorithm(aStar, WEIGHT, cache, true);
+        alg.start();
+        alg.start();
+        assertEquals(1, cache.getHitCount());
+        int cachedLength = alg.getPathLength();
+
+        alg.setEndCell(new Point(SIZE - 1, 0));
+        aStar.reset();
+        alg.start();
+
+        assertEquals(2, cache.getMissCount());
+        assertTrue(alg.isPathFind());
+        assertNotEquals(cachedLength, alg.getPathLength());
+        assertEquals(new Point(SIZE - 1, 0), alg.getPath().get(0));
+    }
+
+    private static CachedAlgorithm createAlgorithm (PathCache cache, Point startCell, Point endCell) {
+        AStar aStar = new AStar(SIZE, SIZE, WEIGHT);
+        aStar.setStartCell(startCell);
+        aStar.setEndCell(endCell);
+        return new CachedAlgorithm(aStar, WEIGHT, cache, true);
+    }
+
+    private static void search (Algorithm alg) {
+        alg.reset();
+        alg.start();
+    }
+
+    private static boolean isCornerCut (Algorithm alg, List<Point> path) {
+        for (int k = 1; k < path.size(); k++) {
+            Point previous = path.get(k - 1);
+            Point current = path.get(k);
+            if (previous.x != current.x && previous.y != current.y
+                    && (alg.getCell(current.x, previous.y) instanceof Wall || alg.getCell(previous.x, current.y) instanceof Wall)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,32 @@
+package ru.dopler.algorithms;
+
+import org.junit.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+public class SearchCountersTest {
+
+    // Вторая копия класса из своего загрузчика находит имя занятым. Раньше её статическая инициализация
+    // падала, и любой поиск в этом загрузчике бросал ExceptionInInitializerError
+    @Test
+    public void secondCopyReusesRegisteredName () throws Exception {
+        SearchCounters counters = SearchCounters.getInstance();
+        assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(new ObjectName(SearchCounters.OBJECT_NAME)));
+
+        URL classes = SearchCounters.class.getProtectionDomain().getCodeSource().getLocation();
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{classes}, ClassLoader.getPlatformClassLoader())) {
+            Class<?> copy = Class.forName(SearchCounters.class.getName(), true, loader);
+            assertNotSame(SearchCounters.class, copy);
+            Object copyCounters = copy.getMethod("getInstance").invoke(null);
+            assertNotNull(copyCounters);
+            assertNotSame(counters, copyCounters);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package ru.dopler.algorithms;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import ru.dopler.cells.Wall;
+
+import java.awt.*;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SearchSchedulerTest {
+
+    private static final int SIZE = 257;
+    private static final int WEIGHT = 10;
+    private static final double DENSITY = 0.2;
+    private static final long SEED = 42;
+    private static final int TICK_MS = 15;
+    private static final int STEPS_PER_SECOND = 1500;
+    private static final long ANIMATION_MILLIS = 2000;
+    // Занятое ожидание держало бы ядро целиком; между тиками поток планировщика должен спать
+    private static final double MAX_CPU_SHARE = 0.2;
+
+    private SearchScheduler scheduler;
+
+    @Before
+    public void setUp () {
+        scheduler = new SearchScheduler(TICK_MS);
+    }
+
+    @After
+    public void tearDown () {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void fullSpeedRunMatchesStart () throws InterruptedException {
+        Algorithm reference = createAlgorithm();
+        reference.start();
+        assertTrue(reference.isPathFind());
+
+        Algorithm alg = createAlgorithm();
+        scheduler.run(alg, SearchScheduler.FULL_SPEED);
+        waitForResult(alg);
+
+        assertTrue(alg.isPathFind());
+        assertEquals(reference.getPathLength(), alg.getPathLength());
+    }
+
+    @Test
+    public void animatedRunUsesLittleCpu () throws InterruptedException {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        Algorithm alg = createAlgorithm();
+
+        scheduler.run(alg, STEPS_PER_SECOND);
+        long[] threadIds = findSchedulerThreads();
+        long cpuBefore = countCpuTime(threadBean, threadIds);
+        long startNanos = System.nanoTime();
+        Thread.sleep(ANIMATION_MILLIS);
+        long cpuNanos = countCpuTime(threadBean, threadIds) - cpuBefore;
+        long wallNanos = System.nanoTime() - startNanos;
+        scheduler.cancel();
+
+        long expanded = alg.getStatistics().getExpandedNodes();
+        assertTrue("search did not advance", expanded > 0);
+        assertTrue("expanded " + expanded + " nodes, ahead of the requested speed",
+                expanded <= STEPS_PER_SECOND * (ANIMATION_MILLIS / 1000 + 1));
+        double cpuShare = (double) cpuNanos / wallNanos;
+        assertTrue(String.format("scheduler threads used %.1f%% of one core", 100 * cpuShare), cpuShare < MAX_CPU_SHARE);
+    }
+
+    // Шаг, который сам перезапускает поиск, выполняется в потоке планировщика. Раньше cancel() ждал там
+    // пустую задачу, стоящую в очереди за этим же шагом, и поток зависал навсегда
+    @Test(timeout = 10000)
+    public void runFromSchedulerThreadDoesNotBlock () throws InterruptedException {
+        final Algorithm restarted = createAlgorithm();
+        final CountDownLatch isRestarted = new CountDownLatch(1);
+        Algorithm alg = new AStar(SIZE, SIZE, WEIGHT) {
+            @Override
+            public boolean step (int steps) {
+                scheduler.run(restarted, SearchScheduler.FULL_SPEED);
+                isRestarted.countDown();
+                return false;
+            }
+        };
+        alg.setStartCell(new Point(1, 1));
+        alg.setEndCell(new Point(SIZE - 2, SIZE - 2));
+
+        scheduler.run(alg, SearchScheduler.FULL_SPEED);
+        isRestarted.await();
+        waitForResult(restarted);
+        assertTrue(restarted.isPathFind());
+    }
+
+    private static Algorithm createAlgorithm () {
+        Random random = new Random(SEED);
+        Algorithm alg = new AStar(SIZE, SIZE, WEIGHT);
+        alg.setStartCell(new Point(1, 1));
+        alg.setEndCell(new Point(SIZE - 2, SIZE - 2));
+        for (int i = 0; i < SIZE; i++) {
+            for (int j = 0; j < SIZE; j++) {
+                if (random.nextDouble() < DENSITY) {
+                    alg.setCell(i, j, new Wall());
+                }
+            }
+        }
+        return alg;
+    }
+
+    private static void waitForResult (Algorithm alg) throws InterruptedException {
+        while (alg.isProcess() || !alg.isPathFind()) {
+            Thread.sleep(1);
+        }
+    }
+
+    // Поток планировщика создаётся при первой задаче. Потоки остановленных планировщиков могут ещё не завершиться,
+    // поэтому считается время всех, а простаивающие ничего не добавляют
+    private static long[] findSchedulerThreads () {
+        List<Long> threadIds = new ArrayList<>();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if ("search-scheduler".equals(thread.getName())) {
+                threadIds.add(thread.getId());
+            }
+        }
+        assertFalse("no scheduler thread", threadIds.isEmpty());
+
+        long[] ids = new long[threadIds.size()];
+        for (int k = 0; k < ids.length; k++) {
+            ids[k] = threadIds.get(k);
+        }
+        return ids;
+    }
+
+    // Для завершившегося потока время не определено (-1) и не учитывается
+    private static long countCpuTime (ThreadMXBean threadBean, long[] threadIds) {
+        long cpuNanos = 0;
+        for (long threadId : threadIds) {
+            cpuNanos += Math.max(threadBean.getThreadCpuTime(threadId), 0);
+        }
+        return cpuNanos;
+    }
+}
@@ -0,0 +1,147 @@
+package ru.dopler.algorithms;
+
+import org.junit.Test;
+import ru.dopler.cells.Wall;
+import ru.dopler.grid.TerrainLayer;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TerrainTest {
+
+    private static final int[] OFFSETS_X = {0, -1, 1, 0, -1, 1, -1, 1};
+    private static final int[] OFFSETS_Y = {-1, 0, 0, 1, -1, -1, 1, 1};
+
+    private static final int WIDTH = 30;
+    private static final int HEIGHT = 20;
+    private static final int WEIGHT = 10;
+    private static final double DENSITY = 0.2;
+    private static final int MAX_COST = 9;
+    private static final int MAPS = 20;
+    private static final long SEED = 42;
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    // Стоимость пути A* на местности с весами совпадает с полным перебором Дейкстры, а сам путь стоит столько,
+    // сколько сообщает поиск
+    @Test
+    public void pathCostMatchesDijkstra () {
+        Random random = new Random(SEED);
+        int found = 0;
+        for (int map = 0; map < MAPS; map++) {
+            boolean[] walls = new boolean[WIDTH * HEIGHT];
+            TerrainLayer terrain = new TerrainLayer(WIDTH, HEIGHT);
+            for (int index = 0; index < walls.length; index++) {
+                walls[index] = random.nextDouble() < DENSITY;
+                terrain.setCost(index, 1 + random.nextInt(MAX_COST));
+            }
+            Point startCell = new Point(0, random.nextInt(HEIGHT));
+            Point endCell = new Point(WIDTH - 1, random.nextInt(HEIGHT));
+            walls[startCell.y * WIDTH + startCell.x] = false;
+            walls[endCell.y * WIDTH + endCell.x] = false;
+
+            int expected = countDijkstraCost(walls, terrain, startCell, endCell);
+            for (OpenSet openedCells : new OpenSet[]{new IndexedBinaryHeap(WIDTH * HEIGHT), new BucketQueue(WIDTH * HEIGHT)}) {
+                AStar alg = new AStar(WIDTH, HEIGHT, WEIGHT, openedCells);
+                alg.setTerrain(terrain);
+                alg.setStartCell(startCell);
+                alg.setEndCell(endCell);
+                for (int index = 0; index < walls.length; index++) {
+                    if (walls[index]) {
+                        alg.setCell(index % WIDTH, index / WIDTH, new Wall());
+                    }
+                }
+                alg.start();
+
+                String name = openedCells.getClass().getSimpleName() + " on map " + map;
+                if (expected == UNREACHABLE) {
+                    assertTrue(name, !alg.isPathFind());
+                    continue;
+                }
+                assertTrue(name, alg.isPathFind());
+                assertEquals(name, expected, alg.getPathLength());
+                assertEquals(name, expected, countPathCost(alg.getPath(), walls, terrain));
+                found++;
+            }
+        }
+        assertTrue("too few reachable maps: " + found, found > MAPS);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void terrainOfOtherSizeIsRejected () {
+        new AStar(WIDTH, HEIGHT, WEIGHT).setTerrain(new TerrainLayer(WIDTH, HEIGHT + 1));
+    }
+
+    // Перебор без кучи: на каждом шаге ищется ближайшая непосещённая ячейка. Правила ходов те же, что у
+    // поиска: диагональ не срезает угол стены, вход в ячейку стоит переход, умноженный на её множитель
+    private static int countDijkstraCost (boolean[] walls, TerrainLayer terrain, Point startCell, Point endCell) {
+        int[] distances = new int[walls.length];
+        boolean[] isVisited = new boolean[walls.length];
+        Arrays.fill(distances, UNREACHABLE);
+        distances[startCell.y * WIDTH + startCell.x] = 0;
+
+        while (true) {
+            int cell = -1;
+            for (int index = 0; index < walls.length; index++) {
+                if (!isVisited[index] && distances[index] != UNREACHABLE && (cell == -1 || distances[index] < distances[cell])) {
+                    cell = index;
+                }
+            }
+            if (cell == -1) {
+                return UNREACHABLE;
+            }
+            if (cell == endCell.y * WIDTH + endCell.x) {
+                return distances[cell];
+            }
+            isVisited[cell] = true;
+
+            int x = cell % WIDTH;
+            int y = cell / WIDTH;
+            for (int k = 0; k < OFFSETS_X.length; k++) {
+                int dx = OFFSETS_X[k];
+                int dy = OFFSETS_Y[k];
+                int transfer = countTransfer(walls, terrain, x, y, dx, dy);
+                if (transfer != UNREACHABLE) {
+                    int next = (y + dy) * WIDTH + x + dx;
+                    distances[next] = Math.min(distances[next], distances[cell] + transfer);
+                }
+            }
+        }
+    }
+
+    // Путь идёт от финиша к старту, а платится вход в ячейку по ходу от старта
+    private static int countPathCost (List<Point> path, boolean[] walls, TerrainLayer terrain) {
+        int cost = 0;
+        for (int i = path.size() - 1; i > 0; i--) {
+            Point previous = path.get(i);
+            Point current = path.get(i - 1);
+            int transfer = countTransfer(walls, terrain, previous.x, previous.y, current.x - previous.x, current.y - previous.y);
+            assertTrue("illegal step " + previous + " -> " + current, transfer != UNREACHABLE);
+            cost += transfer;
+        }
+        return cost;
+    }
+
+    private static int countTransfer (boolean[] walls, TerrainLayer terrain, int x, int y, int dx, int dy) {
+        int nextX = x + dx;
+        int nextY = y + dy;
+        if (Math.abs(dx) > 1 || Math.abs(dy) > 1 || (dx == 0 && dy == 0) || !isFree(walls, nextX, nextY)) {
+            return UNREACHABLE;
+        }
+        if (dx != 0 && dy != 0) {
+            if (!isFree(walls, x + dx, y) || !isFree(walls, x, y + dy)) {
+                return UNREACHABLE;
+            }
+            return GridAlgorithm.DIAGONAL_TRANSFER * terrain.getCost(nextX, nextY);
+        }
+        return GridAlgorithm.DIRECT_TRANSFER * terrain.getCost(nextX, nextY);
+    }
+
+    private static boolean isFree (boolean[] walls, int x, int y) {
+        return x >= 0 && x < WIDTH && y >= 0 && y < HEIGHT && !walls[y * WIDTH + x];
+    }
+}
@@ -0,0 +1,68 @@
+package ru.dopler.grid;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+// Инкрементальные изменения после случайных правок стен должны давать то же разбиение на компоненты,
+// что и построение с нуля, а массивы меток - не расти с числом правок
+public class ConnectedComponentsTest {
+
+    private static final int WIDTH = 24;
+    private static final int HEIGHT = 17;
+    // Около половины ячеек - стены: так часто случаются и расколы, и слияния
+    private static final double DENSITY = 0.45;
+    private static final int EDITS = 5000;
+    private static final long SEED = 42;
+
+    @Test
+    public void incrementalUpdatesMatchRebuild () {
+        Random random = new Random(SEED);
+        Grid grid = new DenseGrid(WIDTH, HEIGHT);
+        for (int cell = 0; cell < grid.size(); cell++) {
+            grid.setWall(cell, random.nextDouble() < DENSITY);
+        }
+        ConnectedComponents components = ConnectedComponents.build(grid, 2);
+
+        for (int edit = 0; edit < EDITS; edit++) {
+            int cell = random.nextInt(grid.size());
+            grid.setWall(cell, !grid.isWall(cell));
+            components.onWallChanged(cell);
+
+            checkSamePartition("edit " + edit, ConnectedComponents.build(grid, 1), components, grid.size());
+            assertTrue("label capacity " + components.getLabelCapacity(),
+                    components.getLabelCapacity() <= 2 * grid.size());
+        }
+    }
+
+    // Номера компонент могут отличаться, но соответствие между ними должно быть взаимно однозначным
+    private static void checkSamePartition (String message, ConnectedComponents expected, ConnectedComponents actual,
+                                            int size) {
+        int[] actualByExpected = new int[2 * size];
+        int[] expectedByActual = new int[2 * size];
+        Arrays.fill(actualByExpected, ConnectedComponents.NO_COMPONENT);
+        Arrays.fill(expectedByActual, ConnectedComponents.NO_COMPONENT);
+
+        for (int cell = 0; cell < size; cell++) {
+            int expectedComponent = expected.getComponent(cell);
+            int actualComponent = actual.getComponent(cell);
+            assertEquals(message + ", cell " + cell, expectedComponent == ConnectedComponents.NO_COMPONENT,
+                    actualComponent == ConnectedComponents.NO_COMPONENT);
+            if (expectedComponent == ConnectedComponents.NO_COMPONENT) {
+                continue;
+            }
+            if (actualByExpected[expectedComponent] == ConnectedComponents.NO_COMPONENT) {
+                actualByExpected[expectedComponent] = actualComponent;
+            }
+            if (expectedByActual[actualComponent] == ConnectedComponents.NO_COMPONENT) {
+                expectedByActual[actualComponent] = expectedComponent;
+            }
+            assertEquals(message + ", cell " + cell, actualByExpected[expectedComponent], actualComponent);
+            assertEquals(message + ", cell " + cell, expectedByActual[actualComponent], expectedComponent);
+        }
+    }
+}
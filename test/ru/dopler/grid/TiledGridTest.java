@@ -0,0 +1,114 @@
+package ru.dopler.grid;
+
+import org.junit.Test;
+import ru.dopler.algorithms.AStar;
+import ru.dopler.algorithms.HashedBinaryHeap;
+
+import java.awt.*;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+// Память тайловой сетки и слоя стен считается по байтам, выделенным потоком теста: она должна следовать за числом
+// тайлов со стенами и тайлов поиска, а не за площадью мира
+public class TiledGridTest {
+
+    private static final int SIZE = 40000;
+    private static final int BUILDINGS = 2000;
+    private static final int MAX_BUILDING_SIZE = 24;
+    private static final int WEIGHT = 10;
+    private static final int QUERY_DISTANCE = 1500;
+    private static final long SEED = 42;
+
+    private static final int TILE_SIZE = 64;
+    private static final long TILES = (long) ((SIZE + TILE_SIZE - 1) / TILE_SIZE) * ((SIZE + TILE_SIZE - 1) / TILE_SIZE);
+
+    // Верхние оценки без сжатых ссылок: заголовок массива 16 байт, ссылка 8 байт
+    private static final long TABLE_BYTES = 2 * (16 + TILES * 8);
+    private static final long WALL_TILE_BYTES = 16 + TILE_SIZE * 8;
+    private static final long SEARCH_TILE_BYTES = 16 + 3 * 16 + TILE_SIZE * TILE_SIZE * (4 + 4 + 1);
+    // Открытый список растёт удвоением, путь - точки в списке
+    private static final long BYTES_PER_EXPANDED_NODE = 64;
+    private static final long BYTES_PER_PATH_CELL = 48;
+    private static final long SLACK_BYTES = 1 << 20;
+
+    private static final long DENSE_BYTES_PER_CELL = 4 + 4 + 1 + 4 + 4 + 4 + 8;
+
+    @Test
+    public void footprintFollowsWallsAndSearchExtent () {
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        Random random = new Random(SEED);
+
+        long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+        TiledWallLayer walls = createWorld(random);
+        TiledGrid grid = new TiledGrid(walls);
+        long worldBytes = threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        int wallTiles = walls.countTiles();
+        assertTrue(wallTiles > 0);
+        assertBound("world", worldBytes, TABLE_BYTES + wallTiles * WALL_TILE_BYTES + SLACK_BYTES);
+        assertTrue(worldBytes * 1000 < (long) SIZE * SIZE * DENSE_BYTES_PER_CELL);
+
+        AStar alg = new AStar(grid, WEIGHT, new HashedBinaryHeap());
+        Point startCell = new Point(QUERY_DISTANCE + random.nextInt(SIZE - 2 * QUERY_DISTANCE),
+                QUERY_DISTANCE + random.nextInt(SIZE - 2 * QUERY_DISTANCE));
+        alg.setStartCell(startCell);
+        alg.setEndCell(new Point(startCell.x + QUERY_DISTANCE, startCell.y + random.nextInt(QUERY_DISTANCE)));
+
+        allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+        alg.start();
+        long searchBytes = threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        assertTrue(alg.isPathFind());
+        int searchTiles = grid.countSearchTiles();
+        assertTrue(searchTiles < TILES / 100);
+        assertBound("search", searchBytes, searchTiles * SEARCH_TILE_BYTES
+                + alg.getStatistics().getExpandedNodes() * BYTES_PER_EXPANDED_NODE
+                + alg.getPath().size() * BYTES_PER_PATH_CELL + SLACK_BYTES);
+
+        // Тайлы поиска переиспользуются, и повторный поиск новых не заводит
+        alg.reset();
+        alg.start();
+        assertEquals(searchTiles, grid.countSearchTiles());
+    }
+
+    @Test
+    public void emptyTileIsReleased () {
+        TiledWallLayer walls = new TiledWallLayer(4 * TILE_SIZE, 4 * TILE_SIZE);
+
+        walls.setWall(TILE_SIZE + 1, TILE_SIZE + 1, true);
+        assertEquals(1, walls.countTiles());
+        assertTrue(walls.isWall(TILE_SIZE + 1, TILE_SIZE + 1));
+
+        walls.setWall(TILE_SIZE + 1, TILE_SIZE + 1, false);
+        assertEquals(0, walls.countTiles());
+        assertTrue(!walls.isWall(TILE_SIZE + 1, TILE_SIZE + 1));
+    }
+
+    // Пустые прямоугольные здания без входа, как в TiledGridBenchmark
+    private static TiledWallLayer createWorld (Random random) {
+        TiledWallLayer walls = new TiledWallLayer(SIZE, SIZE);
+        for (int k = 0; k < BUILDINGS; k++) {
+            int x = random.nextInt(SIZE - MAX_BUILDING_SIZE);
+            int y = random.nextInt(SIZE - MAX_BUILDING_SIZE);
+            int width = 2 + random.nextInt(MAX_BUILDING_SIZE - 2);
+            int height = 2 + random.nextInt(MAX_BUILDING_SIZE - 2);
+            for (int i = x; i < x + width; i++) {
+                walls.setWall(i, y, true);
+                walls.setWall(i, y + height - 1, true);
+            }
+            for (int j = y; j < y + height; j++) {
+                walls.setWall(x, j, true);
+                walls.setWall(x + width - 1, j, true);
+            }
+        }
+        return walls;
+    }
+
+    private static void assertBound (String name, long bytes, long bound) {
+        assertTrue(String.format("%s allocated %d bytes, bound %d", name, bytes, bound), bytes <= bound);
+    }
+}